@@ -0,0 +1,216 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.acl;
+
+import io.user.dao.AclPermissionAuditDao;
+import io.user.entity.AclPermissionAuditEntity;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ACL 审计日志异步批量写入
+ *
+ * 请求线程只把审计事件放入有界队列，后台线程按批量大小或时间间隔
+ * 用多行 INSERT 写库，被拒绝的探测请求不再各自产生一次同步写入。
+ *
+ * 队列满时按 collabtask.acl.audit.overflow-policy 处理：
+ * DROP_OLDEST=丢弃最旧事件（默认），BLOCK=阻塞等待（超过 block-timeout 丢弃当前事件）。
+ * 关闭时停止接收并写完队列中剩余事件。
+ *
+ * @author System
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AclAuditPipeline {
+
+	/**
+	 * 队列满时的处理策略
+	 */
+	public enum OverflowPolicy {
+		/** 丢弃最旧的事件，请求线程不等待 */
+		DROP_OLDEST,
+		/** 阻塞请求线程等待队列空位 */
+		BLOCK
+	}
+
+	private final AclPermissionAuditDao aclPermissionAuditDao;
+
+	@Value("${collabtask.acl.audit.queue-capacity:10000}")
+	private int queueCapacity;
+
+	@Value("${collabtask.acl.audit.batch-size:200}")
+	private int batchSize;
+
+	@Value("${collabtask.acl.audit.flush-interval:1000}")
+	private long flushIntervalMillis;
+
+	@Value("${collabtask.acl.audit.overflow-policy:DROP_OLDEST}")
+	private OverflowPolicy overflowPolicy;
+
+	@Value("${collabtask.acl.audit.block-timeout:100}")
+	private long blockTimeoutMillis;
+
+	@Value("${collabtask.acl.audit.shutdown-timeout:5000}")
+	private long shutdownTimeoutMillis;
+
+	private BlockingQueue<AclPermissionAuditEntity> queue;
+	private Thread writer;
+	private volatile boolean running;
+
+	private final LongAdder enqueued = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder flushed = new LongAdder();
+	private final LongAdder batches = new LongAdder();
+	private final LongAdder flushFailures = new LongAdder();
+
+	@PostConstruct
+	public void start() {
+		queue = new ArrayBlockingQueue<>(queueCapacity);
+		running = true;
+		writer = new Thread(this::runWriter, "acl-audit-writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * 提交审计事件（不访问数据库）
+	 *
+	 * @return true=已入队，false=被丢弃
+	 */
+	public boolean submit(AclPermissionAuditEntity event) {
+		if (!running) {
+			dropped.increment();
+			log.warn("审计管道已关闭，丢弃事件：action={}, resourceType={}, resourceId={}",
+				event.getAction(), event.getResourceType(), event.getResourceId());
+			return false;
+		}
+
+		boolean accepted;
+		if (overflowPolicy == OverflowPolicy.BLOCK) {
+			try {
+				accepted = queue.offer(event, blockTimeoutMillis, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				accepted = false;
+			}
+		} else {
+			accepted = queue.offer(event);
+			while (!accepted) {
+				if (queue.poll() != null) {
+					dropped.increment();
+				}
+				accepted = queue.offer(event);
+			}
+		}
+
+		if (accepted) {
+			enqueued.increment();
+		} else {
+			dropped.increment();
+		}
+		return accepted;
+	}
+
+	/**
+	 * 停止接收，写完剩余事件
+	 */
+	@PreDestroy
+	public void shutdown() {
+		running = false;
+		try {
+			writer.join(shutdownTimeoutMillis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		// 写线程未及时结束时，由关闭线程写完剩余事件
+		if (writer.isAlive()) {
+			writer.interrupt();
+		}
+		List<AclPermissionAuditEntity> remaining = new ArrayList<>();
+		queue.drainTo(remaining);
+		for (int from = 0; from < remaining.size(); from += batchSize) {
+			flush(remaining.subList(from, Math.min(from + batchSize, remaining.size())));
+		}
+		log.info("ACL 审计管道已关闭：enqueued={}, flushed={}, dropped={}", enqueued.sum(), flushed.sum(), dropped.sum());
+	}
+
+	/**
+	 * 监控指标
+	 */
+	public Map<String, Object> getStats() {
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("status", running && writer.isAlive() ? "UP" : "DOWN");
+		stats.put("overflowPolicy", overflowPolicy.name());
+		stats.put("queueSize", queue.size());
+		stats.put("queueCapacity", queueCapacity);
+		stats.put("enqueued", enqueued.sum());
+		stats.put("dropped", dropped.sum());
+		stats.put("flushed", flushed.sum());
+		stats.put("batches", batches.sum());
+		stats.put("flushFailures", flushFailures.sum());
+		return stats;
+	}
+
+	// ==================== 内部方法 ====================
+
+	private void runWriter() {
+		List<AclPermissionAuditEntity> buffer = new ArrayList<>(batchSize);
+		long lastFlush = System.currentTimeMillis();
+
+		while (running || !queue.isEmpty()) {
+			try {
+				AclPermissionAuditEntity first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+				if (first != null) {
+					buffer.add(first);
+					queue.drainTo(buffer, batchSize - buffer.size());
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+
+			long now = System.currentTimeMillis();
+			if (buffer.size() >= batchSize || (!buffer.isEmpty() && now - lastFlush >= flushIntervalMillis)) {
+				flush(buffer);
+				buffer.clear();
+				lastFlush = now;
+			}
+		}
+
+		if (!buffer.isEmpty()) {
+			flush(buffer);
+		}
+	}
+
+	private void flush(List<AclPermissionAuditEntity> events) {
+		try {
+			aclPermissionAuditDao.insertBatch(events);
+			flushed.add(events.size());
+			batches.increment();
+		} catch (Exception e) {
+			flushFailures.add(events.size());
+			log.error("写入 ACL 审计日志失败，丢弃 {} 条", events.size(), e);
+		}
+	}
+}
@@ -0,0 +1,454 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.acl;
+
+import cn.hutool.cache.impl.LRUCache;
+import io.user.common.utils.TransactionUtils;
+import io.user.enums.PermissionCode;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ACL 权限判定缓存（两级）
+ *
+ * 键：(userId, resourceType, resourceId, permission)
+ * 1. 本地级：按用户分组的 LRU，容量有界，TTL 短
+ * 2. Redis 级：每个用户一个 Hash（acl:decision:{userId}），字段为 {resourceType}:{resourceId}:{permission}
+ *
+ * 缓存值携带有效期，ALLOW 的有效期不超过授权的 expires_at。
+ * 授权 / 撤销时删除本节点与 Redis 中的条目，并通过 Redis pub/sub 通知其他节点清理本地级。
+ *
+ * 回源与撤销并发：读请求在撤销提交前查库、在撤销清理缓存后才写回，会把旧的 ALLOW 写回缓存。
+ * 因此每个用户有一个代数（acl:decision:gen:{userId}），每次失效先递增代数再删除条目；
+ * 读请求查库前取代数，写回时由 Lua 脚本比较代数并写入（原子），代数变化则放弃写入。
+ * 本地级写入先于 Redis 写入，Redis 写入被拒绝时撤回本地条目；从 Redis 提升到本地级期间
+ * 本节点发生过失效（localEpoch 变化）时同样撤回。
+ *
+ * @author System
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AclDecisionCache {
+
+	private static final String KEY_PREFIX = "acl:decision:";
+	private static final String TOPIC = "acl:decision:invalidate";
+
+	private static final String GEN_PREFIX = "acl:decision:gen:";
+
+	/** 代数键的保留时间（秒），远大于任何一次回源查询的耗时 */
+	private static final long GEN_TTL_SECONDS = TimeUnit.DAYS.toSeconds(1);
+
+	private static final String MSG_RESOURCE = "R";
+	private static final String MSG_USER = "U";
+
+	/** 代数不可用（Redis 故障、缓存未启用），此时不写缓存 */
+	public static final long UNAVAILABLE = -1;
+
+	/**
+	 * 代数未变时写入判定：KEYS[1]=判定 Hash，KEYS[2]=代数；ARGV=期望代数, 字段, 值, TTL
+	 */
+	private static final DefaultRedisScript<Long> PUT_SCRIPT = new DefaultRedisScript<>(
+		"local g = redis.call('GET', KEYS[2]) "
+			+ "if (g or '0') ~= ARGV[1] then return 0 end "
+			+ "redis.call('HSET', KEYS[1], ARGV[2], ARGV[3]) "
+			+ "redis.call('EXPIRE', KEYS[1], ARGV[4]) "
+			+ "return 1",
+		Long.class);
+
+	private final StringRedisTemplate stringRedisTemplate;
+	private final RedissonClient redissonClient;
+
+	@Value("${collabtask.acl.cache.enabled:true}")
+	private boolean enabled;
+
+	@Value("${collabtask.acl.cache.local-max-users:10000}")
+	private int localMaxUsers;
+
+	@Value("${collabtask.acl.cache.local-max-entries-per-user:256}")
+	private int localMaxEntriesPerUser;
+
+	@Value("${collabtask.acl.cache.local-ttl:30}")
+	private long localTtlSeconds;
+
+	@Value("${collabtask.acl.cache.redis-ttl:300}")
+	private long redisTtlSeconds;
+
+	@Value("${collabtask.acl.cache.deny-ttl:30}")
+	private long denyTtlSeconds;
+
+	/** 本节点标识，忽略自己发出的失效消息 */
+	private final String nodeId = UUID.randomUUID().toString();
+
+	private LRUCache<Long, Map<String, Decision>> localCache;
+	private RTopic topic;
+
+	private final LongAdder localHits = new LongAdder();
+	private final LongAdder redisHits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder invalidationsPublished = new LongAdder();
+	private final LongAdder invalidationsReceived = new LongAdder();
+	private final LongAdder stalePutsRejected = new LongAdder();
+
+	/** 本节点本地级的失效次数（任意用户），用于发现提升到本地级期间的并发失效 */
+	private final AtomicLong localEpoch = new AtomicLong();
+
+	@PostConstruct
+	public void init() {
+		localCache = new LRUCache<>(localMaxUsers);
+		topic = redissonClient.getTopic(TOPIC, StringCodec.INSTANCE);
+		topic.addListener(String.class, (channel, message) -> onMessage(message));
+	}
+
+	/**
+	 * 读取缓存的判定结果
+	 *
+	 * @return true=ALLOW, false=DENY, null=未命中
+	 */
+	public Boolean get(Long userId, String resourceType, Long resourceId, String permissionCode) {
+		if (!enabled) {
+			return null;
+		}
+
+		long now = System.currentTimeMillis();
+		String field = field(resourceType, resourceId, permissionCode);
+
+		// 1. 本地级
+		Map<String, Decision> userEntries = localCache.get(userId);
+		if (userEntries != null) {
+			Decision decision = userEntries.get(field);
+			if (decision != null) {
+				if (decision.validUntil > now) {
+					localHits.increment();
+					return decision.allowed;
+				}
+				userEntries.remove(field);
+			}
+		}
+
+		// 2. Redis 级
+		try {
+			long epoch = localEpoch.get();
+			Object value = stringRedisTemplate.opsForHash().get(KEY_PREFIX + userId, field);
+			Decision decision = value != null ? Decision.parse(value.toString()) : null;
+			if (decision != null && decision.validUntil > now) {
+				redisHits.increment();
+				putLocal(userId, field, decision, now);
+				if (localEpoch.get() != epoch) {
+					// 读取 Redis 之后发生过失效，读到的可能是旧值，不留在本地级
+					evictLocal(userId, Collections.singletonList(field));
+				}
+				return decision.allowed;
+			}
+		} catch (Exception e) {
+			log.warn("读取 ACL 判定缓存失败，回源数据库：userId={}, field={}", userId, field, e);
+		}
+
+		misses.increment();
+		return null;
+	}
+
+	/**
+	 * 用户当前的失效代数，回源查库之前读取，写回时传给 put
+	 *
+	 * @return 代数；Redis 不可用或缓存未启用时返回 UNAVAILABLE
+	 */
+	public long generation(Long userId) {
+		if (!enabled) {
+			return UNAVAILABLE;
+		}
+		try {
+			String value = stringRedisTemplate.opsForValue().get(GEN_PREFIX + userId);
+			return value != null ? Long.parseLong(value) : 0;
+		} catch (Exception e) {
+			log.warn("读取 ACL 判定缓存代数失败，本次不写缓存：userId={}", userId, e);
+			return UNAVAILABLE;
+		}
+	}
+
+	/**
+	 * 写入判定结果（代数与查库前读取的不一致时放弃写入）
+	 *
+	 * @param grantExpiresAt 授权过期时间（null=永久），仅对 ALLOW 生效
+	 * @param generation 查库前 generation(userId) 的返回值
+	 */
+	public void put(Long userId, String resourceType, Long resourceId, String permissionCode, boolean allowed,
+					Date grantExpiresAt, long generation) {
+		if (!enabled || generation == UNAVAILABLE) {
+			return;
+		}
+
+		long now = System.currentTimeMillis();
+		long validUntil = now + TimeUnit.SECONDS.toMillis(allowed ? redisTtlSeconds : denyTtlSeconds);
+		if (allowed && grantExpiresAt != null) {
+			validUntil = Math.min(validUntil, grantExpiresAt.getTime());
+		}
+		if (validUntil <= now) {
+			return;
+		}
+
+		String field = field(resourceType, resourceId, permissionCode);
+		Decision decision = new Decision(allowed, validUntil);
+		putLocal(userId, field, decision, now);
+
+		boolean written = false;
+		try {
+			Long result = stringRedisTemplate.execute(PUT_SCRIPT, List.of(KEY_PREFIX + userId, GEN_PREFIX + userId),
+				String.valueOf(generation), field, decision.format(), String.valueOf(redisTtlSeconds));
+			written = Long.valueOf(1L).equals(result);
+			if (!written) {
+				stalePutsRejected.increment();
+			}
+		} catch (Exception e) {
+			log.warn("写入 ACL 判定缓存失败：userId={}, field={}", userId, field, e);
+		}
+		if (!written) {
+			// 查库之后发生过失效（或无法确认），本地级也不保留
+			evictLocal(userId, Collections.singletonList(field));
+		}
+	}
+
+	/**
+	 * 失效单个 (用户, 资源) 的全部权限判定
+	 */
+	public void invalidate(Long userId, String resourceType, Long resourceId) {
+		invalidate(Collections.singletonList(userId), resourceType, Collections.singletonList(resourceId));
+	}
+
+	/**
+	 * 批量失效 (用户 × 资源) 的全部权限判定
+	 *
+	 * 立即清理一次，事务提交后再清理并广播一次，
+	 * 避免提交前被并发请求读到旧数据重新写回缓存。
+	 */
+	public void invalidate(Collection<Long> userIds, String resourceType, Collection<Long> resourceIds) {
+		if (!enabled || userIds.isEmpty() || resourceIds.isEmpty()) {
+			return;
+		}
+
+		List<Long> users = new ArrayList<>(userIds);
+		List<Long> resources = new ArrayList<>(resourceIds);
+		evict(users, resourceType, resources);
+		TransactionUtils.afterCommit(() -> {
+			evict(users, resourceType, resources);
+			publish(buildResourceMessage(users, resourceType, resources));
+		});
+	}
+
+	/**
+	 * 失效某个用户的全部权限判定
+	 */
+	public void invalidateUser(Long userId) {
+		if (!enabled) {
+			return;
+		}
+
+		evictUser(userId);
+		TransactionUtils.afterCommit(() -> {
+			evictUser(userId);
+			publish(MSG_USER + ":" + userId);
+		});
+	}
+
+	/**
+	 * 监控指标
+	 */
+	public Map<String, Object> getStats() {
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("status", "UP");
+		stats.put("enabled", enabled);
+		stats.put("localUsers", localCache.size());
+		stats.put("localHits", localHits.sum());
+		stats.put("redisHits", redisHits.sum());
+		stats.put("misses", misses.sum());
+		stats.put("invalidationsPublished", invalidationsPublished.sum());
+		stats.put("invalidationsReceived", invalidationsReceived.sum());
+		stats.put("stalePutsRejected", stalePutsRejected.sum());
+		return stats;
+	}
+
+	// ==================== 内部方法 ====================
+
+	private void putLocal(Long userId, String field, Decision decision, long now) {
+		long localValidUntil = Math.min(decision.validUntil, now + TimeUnit.SECONDS.toMillis(localTtlSeconds));
+		Map<String, Decision> userEntries = localCache.get(userId);
+		if (userEntries == null) {
+			userEntries = new ConcurrentHashMap<>();
+			localCache.put(userId, userEntries);
+		} else if (userEntries.size() >= localMaxEntriesPerUser) {
+			userEntries.clear();
+		}
+		userEntries.put(field, new Decision(decision.allowed, localValidUntil));
+	}
+
+	private void evict(List<Long> userIds, String resourceType, List<Long> resourceIds) {
+		List<String> fields = new ArrayList<>(resourceIds.size() * PermissionCode.values().length);
+		for (Long resourceId : resourceIds) {
+			for (PermissionCode permission : PermissionCode.values()) {
+				fields.add(field(resourceType, resourceId, permission.getCode()));
+			}
+		}
+
+		for (Long userId : userIds) {
+			// 先递增代数：之后的回源写回都会被拒绝，之前写回的条目由下面的删除清理
+			bumpGeneration(userId);
+			evictLocal(userId, fields);
+			try {
+				stringRedisTemplate.opsForHash().delete(KEY_PREFIX + userId, fields.toArray());
+			} catch (Exception e) {
+				log.warn("删除 ACL 判定缓存失败：userId={}, resourceType={}", userId, resourceType, e);
+			}
+		}
+	}
+
+	private void evictLocal(Long userId, List<String> fields) {
+		localEpoch.incrementAndGet();
+		Map<String, Decision> userEntries = localCache.get(userId, false);
+		if (userEntries != null) {
+			fields.forEach(userEntries::remove);
+		}
+	}
+
+	private void evictUser(Long userId) {
+		bumpGeneration(userId);
+		removeLocalUser(userId);
+		try {
+			stringRedisTemplate.delete(KEY_PREFIX + userId);
+		} catch (Exception e) {
+			log.warn("删除 ACL 判定缓存失败：userId={}", userId, e);
+		}
+	}
+
+	private void removeLocalUser(Long userId) {
+		localEpoch.incrementAndGet();
+		localCache.remove(userId);
+	}
+
+	private void bumpGeneration(Long userId) {
+		try {
+			String key = GEN_PREFIX + userId;
+			stringRedisTemplate.opsForValue().increment(key);
+			stringRedisTemplate.expire(key, GEN_TTL_SECONDS, TimeUnit.SECONDS);
+		} catch (Exception e) {
+			log.warn("递增 ACL 判定缓存代数失败：userId={}", userId, e);
+		}
+	}
+
+	private void publish(String body) {
+		try {
+			topic.publish(nodeId + "\n" + body);
+			invalidationsPublished.increment();
+		} catch (Exception e) {
+			log.warn("广播 ACL 缓存失效消息失败", e);
+		}
+	}
+
+	/**
+	 * 消息格式：第一行为来源节点，之后每行一条
+	 * R:{resourceType}:{userId,...}:{resourceId,...}
+	 * U:{userId}
+	 */
+	private void onMessage(String message) {
+		String[] lines = message.split("\n");
+		if (lines.length < 2 || nodeId.equals(lines[0])) {
+			return;
+		}
+		invalidationsReceived.increment();
+
+		for (int i = 1; i < lines.length; i++) {
+			String[] parts = lines[i].split(":");
+			try {
+				if (MSG_USER.equals(parts[0])) {
+					removeLocalUser(Long.valueOf(parts[1]));
+				} else if (MSG_RESOURCE.equals(parts[0]) && parts.length == 4) {
+					List<String> fields = new ArrayList<>();
+					for (String resourceId : parts[3].split(",")) {
+						for (PermissionCode permission : PermissionCode.values()) {
+							fields.add(field(parts[1], Long.valueOf(resourceId), permission.getCode()));
+						}
+					}
+					for (String userId : parts[2].split(",")) {
+						evictLocal(Long.valueOf(userId), fields);
+					}
+				}
+			} catch (NumberFormatException e) {
+				log.warn("忽略无法解析的 ACL 缓存失效消息：{}", lines[i]);
+			}
+		}
+	}
+
+	private static String buildResourceMessage(List<Long> userIds, String resourceType, List<Long> resourceIds) {
+		return MSG_RESOURCE + ":" + resourceType + ":" + join(userIds) + ":" + join(resourceIds);
+	}
+
+	private static String join(List<Long> ids) {
+		StringBuilder sb = new StringBuilder();
+		for (Long id : ids) {
+			if (sb.length() > 0) {
+				sb.append(',');
+			}
+			sb.append(id);
+		}
+		return sb.toString();
+	}
+
+	private static String field(String resourceType, Long resourceId, String permissionCode) {
+		return resourceType + ":" + resourceId + ":" + permissionCode;
+	}
+
+	/**
+	 * 判定结果 + 有效期
+	 */
+	private static final class Decision {
+		final boolean allowed;
+		final long validUntil;
+
+		Decision(boolean allowed, long validUntil) {
+			this.allowed = allowed;
+			this.validUntil = validUntil;
+		}
+
+		String format() {
+			return (allowed ? "1" : "0") + ":" + validUntil;
+		}
+
+		static Decision parse(String value) {
+			int idx = value.indexOf(':');
+			if (idx <= 0) {
+				return null;
+			}
+			try {
+				return new Decision("1".equals(value.substring(0, idx)), Long.parseLong(value.substring(idx + 1)));
+			} catch (NumberFormatException e) {
+				return null;
+			}
+		}
+	}
+}
@@ -0,0 +1,229 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.acl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.user.cache.TodoListVersion;
+import io.user.dao.AclAccessControlDao;
+import io.user.dao.TeamMemberDao;
+import io.user.entity.AclAccessControlEntity;
+import io.user.entity.TeamMemberEntity;
+import io.user.enums.ResourceType;
+import io.user.enums.SubjectType;
+import io.user.enums.TodoChangeOp;
+import io.user.sync.TodoChangeFeed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * ACL 过期授权清理
+ *
+ * 定时把 expires_at 已过的授权置为 is_active = 0（revoke_reason = 'EXPIRED'），
+ * 并失效对应用户的权限判定缓存。之后热路径查询只需要 is_active = 1 条件，
+ * 不再对每行判断 expires_at。
+ *
+ * 1. 按 (expires_at, id) 键集分页，每批 batch-size 行，单次最多 max-batches 批，
+ *    避免一次大事务长时间持有行锁
+ * 2. 多节点部署时通过 Redisson 锁保证同一时刻只有一个节点在清理
+ * 3. 清理延迟（最早一条未清理的过期授权距今的时间）通过 getStats() 暴露给健康检查
+ *
+ * 过期到清理之间最多相差一个 sweep-interval；判定缓存的 ALLOW 有效期本身不超过 expires_at。
+ *
+ * @author System
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AclExpirySweeper {
+
+	private static final String LOCK_KEY = "acl:expiry:sweep";
+
+	private final AclAccessControlDao aclAccessControlDao;
+	private final TeamMemberDao teamMemberDao;
+	private final AclDecisionCache aclDecisionCache;
+	private final RedissonClient redissonClient;
+	private final TodoListVersion todoListVersion;
+	private final TodoChangeFeed todoChangeFeed;
+
+	@Value("${collabtask.acl.expiry.enabled:true}")
+	private boolean enabled;
+
+	@Value("${collabtask.acl.expiry.batch-size:500}")
+	private int batchSize;
+
+	@Value("${collabtask.acl.expiry.max-batches:20}")
+	private int maxBatches;
+
+	@Value("${collabtask.acl.expiry.lock-lease:60}")
+	private long lockLeaseSeconds;
+
+	private final AtomicLong sweepCount = new AtomicLong();
+	private final AtomicLong sweepFailureCount = new AtomicLong();
+	private final AtomicLong expiredCount = new AtomicLong();
+	private volatile long lastSweepTime;
+	private volatile long lastSweepDuration;
+	private volatile long lastSweepExpired;
+	private volatile long lagMillis;
+
+	/**
+	 * 定时清理（默认 30 秒）
+	 */
+	@Scheduled(
+		fixedDelayString = "${collabtask.acl.expiry.sweep-interval:30000}",
+		initialDelayString = "${collabtask.acl.expiry.sweep-interval:30000}"
+	)
+	public void scheduledSweep() {
+		if (!enabled) {
+			return;
+		}
+
+		RLock lock = redissonClient.getLock(LOCK_KEY);
+		boolean acquired = false;
+		try {
+			acquired = lock.tryLock(0, lockLeaseSeconds, TimeUnit.SECONDS);
+			if (!acquired) {
+				log.debug("其他节点正在清理过期授权，跳过本次");
+				return;
+			}
+			sweep();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			sweepFailureCount.incrementAndGet();
+			log.error("清理过期授权失败", e);
+		} finally {
+			if (acquired && lock.isHeldByCurrentThread()) {
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * 清理一轮过期授权
+	 *
+	 * @return 本轮置为无效的授权数
+	 */
+	public int sweep() {
+		long start = System.currentTimeMillis();
+		Date now = new Date(start);
+
+		int expired = 0;
+		Date afterExpiresAt = null;
+		Long afterId = null;
+		for (int batch = 0; batch < maxBatches; batch++) {
+			List<AclAccessControlEntity> rows = aclAccessControlDao.selectExpiredBatch(now, afterExpiresAt, afterId, batchSize);
+			if (rows.isEmpty()) {
+				break;
+			}
+
+			List<Long> ids = rows.stream().map(AclAccessControlEntity::getId).collect(Collectors.toList());
+			int updated = aclAccessControlDao.deactivateExpired(ids, now);
+			if (updated > 0) {
+				expired += updated;
+				evictCaches(rows);
+			}
+
+			AclAccessControlEntity last = rows.get(rows.size() - 1);
+			afterExpiresAt = last.getExpiresAt();
+			afterId = last.getId();
+			if (rows.size() < batchSize) {
+				break;
+			}
+		}
+
+		// 剩余未清理的最早过期时间 -> 清理延迟
+		Date oldest = aclAccessControlDao.selectOldestExpired(new Date());
+		lagMillis = oldest != null ? Math.max(0, System.currentTimeMillis() - oldest.getTime()) : 0;
+
+		sweepCount.incrementAndGet();
+		expiredCount.addAndGet(expired);
+		lastSweepExpired = expired;
+		lastSweepTime = start;
+		lastSweepDuration = System.currentTimeMillis() - start;
+		if (expired > 0) {
+			log.info("过期授权已清理：expired={}, lagMillis={}, cost={}ms", expired, lagMillis, lastSweepDuration);
+		}
+		return expired;
+	}
+
+	/**
+	 * 监控指标
+	 */
+	public Map<String, Object> getStats() {
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("status", "UP");
+		stats.put("enabled", enabled);
+		stats.put("sweeps", sweepCount.get());
+		stats.put("sweepFailures", sweepFailureCount.get());
+		stats.put("expired", expiredCount.get());
+		stats.put("lastSweepExpired", lastSweepExpired);
+		stats.put("lastSweepTime", lastSweepTime);
+		stats.put("lastSweepDuration", lastSweepDuration);
+		stats.put("lagMillis", lagMillis);
+		return stats;
+	}
+
+	/**
+	 * 失效受影响用户的判定缓存：用户主体直接失效，团队主体展开为成员
+	 */
+	private void evictCaches(List<AclAccessControlEntity> rows) {
+		Map<Long, Set<Long>> teamMembers = new HashMap<>();
+		List<Long> teamIds = rows.stream()
+			.filter(row -> SubjectType.TEAM.getCode().equals(row.getSubjectType()))
+			.map(AclAccessControlEntity::getSubjectId)
+			.distinct()
+			.collect(Collectors.toList());
+		if (!teamIds.isEmpty()) {
+			QueryWrapper<TeamMemberEntity> wrapper = new QueryWrapper<>();
+			wrapper.select("team_id", "user_id").in("team_id", teamIds);
+			for (TeamMemberEntity member : teamMemberDao.selectList(wrapper)) {
+				teamMembers.computeIfAbsent(member.getTeamId(), k -> new LinkedHashSet<>()).add(member.getUserId());
+			}
+		}
+
+		// 按 (资源类型, 用户) 合并，每个用户每类资源广播一次
+		Map<String, Map<Long, Set<Long>>> byType = new HashMap<>();
+		for (AclAccessControlEntity row : rows) {
+			Set<Long> userIds = SubjectType.TEAM.getCode().equals(row.getSubjectType())
+				? teamMembers.getOrDefault(row.getSubjectId(), Set.of())
+				: Set.of(row.getSubjectId());
+			Map<Long, Set<Long>> byUser = byType.computeIfAbsent(row.getResourceType(), k -> new HashMap<>());
+			for (Long userId : userIds) {
+				byUser.computeIfAbsent(userId, k -> new LinkedHashSet<>()).add(row.getResourceId());
+			}
+		}
+
+		byType.forEach((resourceType, byUser) -> byUser.forEach((userId, resourceIds) ->
+			aclDecisionCache.invalidate(List.of(userId), resourceType, new ArrayList<>(resourceIds))));
+
+		// 过期的 TODO 共享从列表中消失，增量同步的客户端收到撤销记录
+		Map<Long, Set<Long>> todoUsers = byType.get(ResourceType.TODO.getCode());
+		if (todoUsers != null) {
+			todoListVersion.bump(todoUsers.keySet());
+			todoChangeFeed.recordAccess(todoUsers, TodoChangeOp.REVOKE);
+		}
+	}
+}
@@ -0,0 +1,301 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.acl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.user.dao.AclPermissionDefinitionDao;
+import io.user.entity.AclPermissionDefinitionEntity;
+import io.user.enums.PermissionCode;
+import io.user.enums.ResourceType;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ACL 权限定义注册表
+ *
+ * tb_acl_permission_definitions 几乎不变，启动时整表加载为不可变快照，
+ * 之后按 (ResourceType, PermissionCode) 在内存中解析 permission_id，
+ * 不再为每次权限检查 / 授权 / 撤销多查一次数据库。
+ *
+ * 定时任务按 collabtask.acl.registry.refresh-interval 重新加载，
+ * 只有内容发生变化时才整体替换快照（volatile 引用，读路径无锁）。
+ *
+ * 权限格（lattice）：同一资源类型内按 level 排序，高 level 蕴含所有低 level 的权限
+ * （EDIT 蕴含 VIEW）。ACL 表每个 (主体, 资源) 只保留一行，检查时用
+ * "permission_id IN (level >= 所需 level 的定义)" 一次判断。
+ *
+ * 注意：返回的实体为快照内共享对象，调用方只读，不要修改。
+ *
+ * @author System
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AclPermissionRegistry {
+
+	private final AclPermissionDefinitionDao aclPermissionDefinitionDao;
+
+	private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final AtomicLong refreshCount = new AtomicLong();
+	private final AtomicLong refreshFailureCount = new AtomicLong();
+	private final AtomicLong swapCount = new AtomicLong();
+	private volatile long lastRefreshTime;
+	private volatile long lastSwapTime;
+
+	@PostConstruct
+	public void init() {
+		refresh();
+	}
+
+	/**
+	 * 定时刷新（默认 60 秒）
+	 */
+	@Scheduled(
+		fixedDelayString = "${collabtask.acl.registry.refresh-interval:60000}",
+		initialDelayString = "${collabtask.acl.registry.refresh-interval:60000}"
+	)
+	public void scheduledRefresh() {
+		refresh();
+	}
+
+	/**
+	 * 从数据库重新加载权限定义
+	 *
+	 * @return true=快照已替换，false=内容未变化或加载失败
+	 */
+	public synchronized boolean refresh() {
+		try {
+			QueryWrapper<AclPermissionDefinitionEntity> wrapper = new QueryWrapper<>();
+			wrapper.eq("is_active", 1);
+			List<AclPermissionDefinitionEntity> rows = aclPermissionDefinitionDao.selectList(wrapper);
+
+			Snapshot next = Snapshot.build(rows);
+			refreshCount.incrementAndGet();
+			lastRefreshTime = System.currentTimeMillis();
+
+			if (next.fingerprint.equals(snapshot.fingerprint)) {
+				return false;
+			}
+
+			snapshot = next;
+			swapCount.incrementAndGet();
+			lastSwapTime = lastRefreshTime;
+			log.info("ACL 权限定义快照已更新：definitions={}", next.byId.size());
+			return true;
+		} catch (Exception e) {
+			refreshFailureCount.incrementAndGet();
+			log.error("加载 ACL 权限定义失败，继续使用旧快照：definitions={}", snapshot.byId.size(), e);
+			return false;
+		}
+	}
+
+	/**
+	 * 按枚举查找权限定义
+	 *
+	 * @return 权限定义，不存在返回 null
+	 */
+	public AclPermissionDefinitionEntity get(ResourceType resourceType, PermissionCode permissionCode) {
+		if (resourceType == null || permissionCode == null) {
+			missCount.increment();
+			return null;
+		}
+
+		Map<PermissionCode, AclPermissionDefinitionEntity> permissions = snapshot.byCode.get(resourceType);
+		AclPermissionDefinitionEntity definition = permissions != null ? permissions.get(permissionCode) : null;
+
+		if (definition == null) {
+			missCount.increment();
+		} else {
+			hitCount.increment();
+		}
+		return definition;
+	}
+
+	/**
+	 * 按代码值查找权限定义（兼容 AclPermissionService 的字符串参数）
+	 *
+	 * @return 权限定义，代码未知或不存在返回 null
+	 */
+	public AclPermissionDefinitionEntity find(String resourceType, String permissionCode) {
+		return get(resolveResourceType(resourceType), resolvePermissionCode(permissionCode));
+	}
+
+	/**
+	 * 按 permission_id 查找权限定义
+	 */
+	public AclPermissionDefinitionEntity getById(Long permissionId) {
+		return permissionId != null ? snapshot.byId.get(permissionId) : null;
+	}
+
+	/**
+	 * 满足指定权限的全部 permission_id（同资源类型下 level >= 所需 level）
+	 *
+	 * @return 不可变列表，权限定义不存在时为空
+	 */
+	public List<Long> satisfying(ResourceType resourceType, PermissionCode permissionCode) {
+		Map<PermissionCode, List<Long>> permissions = resourceType != null ? snapshot.satisfying.get(resourceType) : null;
+		List<Long> ids = permissions != null && permissionCode != null ? permissions.get(permissionCode) : null;
+		return ids != null ? ids : Collections.emptyList();
+	}
+
+	/**
+	 * 按代码值查找满足指定权限的 permission_id
+	 */
+	public List<Long> satisfying(String resourceType, String permissionCode) {
+		return satisfying(resolveResourceType(resourceType), resolvePermissionCode(permissionCode));
+	}
+
+	/**
+	 * 某条授权蕴含的全部权限位掩码（同资源类型下 level <= 该授权 level 的权限）
+	 *
+	 * @return 位掩码，permission_id 未知时为 0
+	 */
+	public int impliedMask(Long permissionId) {
+		Integer mask = permissionId != null ? snapshot.impliedMask.get(permissionId) : null;
+		return mask != null ? mask : 0;
+	}
+
+	/**
+	 * 按 permission_id 查找权限代码
+	 */
+	public PermissionCode getCode(Long permissionId) {
+		AclPermissionDefinitionEntity definition = getById(permissionId);
+		return definition != null ? resolvePermissionCode(definition.getPermissionCode()) : null;
+	}
+
+	/**
+	 * 监控指标
+	 */
+	public Map<String, Object> getStats() {
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("status", snapshot == Snapshot.EMPTY ? "DOWN" : "UP");
+		stats.put("definitions", snapshot.byId.size());
+		stats.put("hits", hitCount.sum());
+		stats.put("misses", missCount.sum());
+		stats.put("refreshes", refreshCount.get());
+		stats.put("refreshFailures", refreshFailureCount.get());
+		stats.put("swaps", swapCount.get());
+		stats.put("lastRefreshTime", lastRefreshTime);
+		stats.put("lastSwapTime", lastSwapTime);
+		return stats;
+	}
+
+	private static ResourceType resolveResourceType(String code) {
+		for (ResourceType type : ResourceType.values()) {
+			if (type.getCode().equals(code)) {
+				return type;
+			}
+		}
+		return null;
+	}
+
+	private static PermissionCode resolvePermissionCode(String code) {
+		for (PermissionCode permission : PermissionCode.values()) {
+			if (permission.getCode().equals(code)) {
+				return permission;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 不可变快照
+	 */
+	private static final class Snapshot {
+
+		static final Snapshot EMPTY = new Snapshot(Collections.emptyMap(), Collections.emptyMap(),
+			Collections.emptyMap(), Collections.emptyMap(), "");
+
+		final Map<ResourceType, Map<PermissionCode, AclPermissionDefinitionEntity>> byCode;
+		final Map<Long, AclPermissionDefinitionEntity> byId;
+		/** 所需权限 -> 满足它的 permission_id */
+		final Map<ResourceType, Map<PermissionCode, List<Long>>> satisfying;
+		/** permission_id -> 蕴含的权限位掩码 */
+		final Map<Long, Integer> impliedMask;
+		final String fingerprint;
+
+		Snapshot(Map<ResourceType, Map<PermissionCode, AclPermissionDefinitionEntity>> byCode,
+				 Map<Long, AclPermissionDefinitionEntity> byId,
+				 Map<ResourceType, Map<PermissionCode, List<Long>>> satisfying,
+				 Map<Long, Integer> impliedMask, String fingerprint) {
+			this.byCode = byCode;
+			this.byId = byId;
+			this.satisfying = satisfying;
+			this.impliedMask = impliedMask;
+			this.fingerprint = fingerprint;
+		}
+
+		static Snapshot build(List<AclPermissionDefinitionEntity> rows) {
+			Map<ResourceType, Map<PermissionCode, AclPermissionDefinitionEntity>> byCode = new EnumMap<>(ResourceType.class);
+			Map<Long, AclPermissionDefinitionEntity> byId = new HashMap<>();
+			StringBuilder fingerprint = new StringBuilder();
+
+			rows.sort(Comparator.comparing(AclPermissionDefinitionEntity::getId));
+			for (AclPermissionDefinitionEntity row : rows) {
+				ResourceType resourceType = resolveResourceType(row.getResourceType());
+				PermissionCode permissionCode = resolvePermissionCode(row.getPermissionCode());
+				if (resourceType == null || permissionCode == null) {
+					log.warn("忽略无法识别的权限定义：id={}, resourceType={}, permissionCode={}",
+						row.getId(), row.getResourceType(), row.getPermissionCode());
+					continue;
+				}
+
+				byCode.computeIfAbsent(resourceType, k -> new EnumMap<>(PermissionCode.class)).put(permissionCode, row);
+				byId.put(row.getId().longValue(), row);
+				fingerprint.append(row.getId()).append(':')
+					.append(row.getResourceType()).append(':')
+					.append(row.getPermissionCode()).append(':')
+					.append(row.getLevel()).append(';');
+			}
+
+			// 按 level 构建权限格
+			Map<ResourceType, Map<PermissionCode, List<Long>>> satisfying = new EnumMap<>(ResourceType.class);
+			Map<Long, Integer> impliedMask = new HashMap<>();
+			byCode.forEach((resourceType, permissions) -> {
+				Map<PermissionCode, List<Long>> ids = new EnumMap<>(PermissionCode.class);
+				permissions.forEach((required, requiredDef) -> {
+					List<Long> satisfied = new ArrayList<>();
+					permissions.forEach((granted, grantedDef) -> {
+						if (level(grantedDef) >= level(requiredDef)) {
+							satisfied.add(grantedDef.getId().longValue());
+							impliedMask.merge(grantedDef.getId().longValue(), required.getBit(), (a, b) -> a | b);
+						}
+					});
+					ids.put(required, Collections.unmodifiableList(satisfied));
+				});
+				satisfying.put(resourceType, Collections.unmodifiableMap(ids));
+			});
+
+			byCode.replaceAll((k, v) -> Collections.unmodifiableMap(v));
+			return new Snapshot(Collections.unmodifiableMap(byCode), Collections.unmodifiableMap(byId),
+				Collections.unmodifiableMap(satisfying), Collections.unmodifiableMap(impliedMask), fingerprint.toString());
+		}
+
+		private static int level(AclPermissionDefinitionEntity definition) {
+			return definition.getLevel() != null ? definition.getLevel() : 0;
+		}
+	}
+}
@@ -0,0 +1,208 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.acl;
+
+import io.user.dao.AclRolePermissionDao;
+import io.user.dao.AclUserRoleDao;
+import io.user.entity.AclPermissionDefinitionEntity;
+import io.user.entity.AclRolePermissionEntity;
+import io.user.entity.AclUserRoleEntity;
+import io.user.enums.PermissionCode;
+import io.user.enums.ResourceType;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ACL 全局角色权限矩阵
+ *
+ * 把 tb_acl_role_permissions（角色 × 资源类型 × 权限）与 tb_acl_user_roles 编译成
+ * 用户 -> 每种资源类型一个权限位掩码（PermissionCode#getBit），并按权限格展开
+ * （角色有 EDIT 即同时有 VIEW）。检查时只做一次 Map 查找和位运算，不访问数据库。
+ *
+ * 例如 SUPPORT 角色对所有 TODO 有 VIEW：PermissionCheckAspect 在 OWNER 检查之后、
+ * 逐资源 ACL 查询之前先查此矩阵。
+ *
+ * 启动时加载，定时任务按 collabtask.acl.role.refresh-interval 重新编译，内容变化才替换快照。
+ *
+ * @author System
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AclRoleMatrix {
+
+	private final AclRolePermissionDao aclRolePermissionDao;
+	private final AclUserRoleDao aclUserRoleDao;
+	private final AclPermissionRegistry aclPermissionRegistry;
+
+	private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+	private final LongAdder allowCount = new LongAdder();
+	private final AtomicLong refreshCount = new AtomicLong();
+	private final AtomicLong refreshFailureCount = new AtomicLong();
+	private final AtomicLong swapCount = new AtomicLong();
+	private volatile long lastSwapTime;
+
+	@PostConstruct
+	public void init() {
+		refresh();
+	}
+
+	/**
+	 * 定时刷新（默认 60 秒）
+	 */
+	@Scheduled(
+		fixedDelayString = "${collabtask.acl.role.refresh-interval:60000}",
+		initialDelayString = "${collabtask.acl.role.refresh-interval:60000}"
+	)
+	public void scheduledRefresh() {
+		refresh();
+	}
+
+	/**
+	 * 重新编译角色矩阵
+	 *
+	 * @return true=快照已替换，false=内容未变化或加载失败
+	 */
+	public synchronized boolean refresh() {
+		try {
+			List<AclRolePermissionEntity> rolePermissions = aclRolePermissionDao.selectList(null);
+			List<AclUserRoleEntity> userRoles = aclUserRoleDao.selectList(null);
+
+			Snapshot next = Snapshot.build(rolePermissions, userRoles, aclPermissionRegistry);
+			refreshCount.incrementAndGet();
+
+			if (next.fingerprint.equals(snapshot.fingerprint)) {
+				return false;
+			}
+
+			snapshot = next;
+			swapCount.incrementAndGet();
+			lastSwapTime = System.currentTimeMillis();
+			log.info("ACL 角色矩阵已更新：roles={}, users={}", next.roleMasks.size(), next.userMasks.size());
+			return true;
+		} catch (Exception e) {
+			refreshFailureCount.incrementAndGet();
+			log.error("编译 ACL 角色矩阵失败，继续使用旧快照：users={}", snapshot.userMasks.size(), e);
+			return false;
+		}
+	}
+
+	/**
+	 * 用户通过全局角色对某类资源拥有的权限位掩码
+	 */
+	public int mask(Long userId, ResourceType resourceType) {
+		int[] masks = userId != null ? snapshot.userMasks.get(userId) : null;
+		return masks != null ? masks[resourceType.ordinal()] : 0;
+	}
+
+	/**
+	 * 用户是否通过全局角色拥有该类资源的某个权限
+	 */
+	public boolean allows(Long userId, ResourceType resourceType, PermissionCode permission) {
+		boolean allowed = permission.in(mask(userId, resourceType));
+		if (allowed) {
+			allowCount.increment();
+		}
+		return allowed;
+	}
+
+	/**
+	 * 监控指标
+	 */
+	public Map<String, Object> getStats() {
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("status", "UP");
+		stats.put("roles", snapshot.roleMasks.size());
+		stats.put("users", snapshot.userMasks.size());
+		stats.put("allows", allowCount.sum());
+		stats.put("refreshes", refreshCount.get());
+		stats.put("refreshFailures", refreshFailureCount.get());
+		stats.put("swaps", swapCount.get());
+		stats.put("lastSwapTime", lastSwapTime);
+		return stats;
+	}
+
+	/**
+	 * 不可变快照
+	 */
+	private static final class Snapshot {
+
+		static final Snapshot EMPTY = new Snapshot(Collections.emptyMap(), Collections.emptyMap(), "");
+
+		/** 角色 -> 每种资源类型的权限位掩码（下标为 ResourceType#ordinal） */
+		final Map<String, int[]> roleMasks;
+		/** 用户 -> 每种资源类型的权限位掩码（所有角色按位或） */
+		final Map<Long, int[]> userMasks;
+		final String fingerprint;
+
+		Snapshot(Map<String, int[]> roleMasks, Map<Long, int[]> userMasks, String fingerprint) {
+			this.roleMasks = roleMasks;
+			this.userMasks = userMasks;
+			this.fingerprint = fingerprint;
+		}
+
+		static Snapshot build(List<AclRolePermissionEntity> rolePermissions, List<AclUserRoleEntity> userRoles,
+							  AclPermissionRegistry registry) {
+			// 有序便于比较
+			Map<String, int[]> roleMasks = new TreeMap<>();
+			for (AclRolePermissionEntity row : rolePermissions) {
+				ResourceType resourceType;
+				PermissionCode permission;
+				try {
+					resourceType = ResourceType.fromCode(row.getResourceType());
+					permission = PermissionCode.fromCode(row.getPermissionCode());
+				} catch (IllegalArgumentException e) {
+					log.warn("忽略无法识别的角色权限：roleCode={}, resourceType={}, permissionCode={}",
+						row.getRoleCode(), row.getResourceType(), row.getPermissionCode());
+					continue;
+				}
+
+				// 按权限格展开：有 EDIT 即有 VIEW
+				AclPermissionDefinitionEntity definition = registry.get(resourceType, permission);
+				int implied = definition != null ? registry.impliedMask(definition.getId().longValue()) : permission.getBit();
+				roleMasks.computeIfAbsent(row.getRoleCode(), k -> new int[ResourceType.values().length])
+					[resourceType.ordinal()] |= implied;
+			}
+
+			// 只保留拥有至少一个有效角色权限的用户，有序便于比较
+			Map<Long, int[]> userMasks = new TreeMap<>();
+			for (AclUserRoleEntity userRole : userRoles) {
+				int[] role = roleMasks.get(userRole.getRoleCode());
+				if (role == null) {
+					continue;
+				}
+				int[] user = userMasks.computeIfAbsent(userRole.getUserId(), k -> new int[ResourceType.values().length]);
+				for (int i = 0; i < role.length; i++) {
+					user[i] |= role[i];
+				}
+			}
+
+			// 角色掩码也计入：没有分配给任何用户的角色变化同样要替换快照
+			StringBuilder fingerprint = new StringBuilder();
+			roleMasks.forEach((roleCode, masks) -> fingerprint.append(roleCode).append('=').append(Arrays.toString(masks)).append(';'));
+			fingerprint.append('|');
+			userMasks.forEach((userId, masks) -> fingerprint.append(userId).append('=').append(Arrays.toString(masks)).append(';'));
+
+			return new Snapshot(Collections.unmodifiableMap(roleMasks), Collections.unmodifiableMap(userMasks), fingerprint.toString());
+		}
+	}
+}
@@ -0,0 +1,236 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.acl;
+
+import io.user.common.utils.TransactionUtils;
+import io.user.dao.AclAccessControlDao;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBloomFilter;
+import org.redisson.api.RBucket;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * "有共享" 用户标记（Redis 布隆过滤器）
+ *
+ * 记录可能被共享过 TODO 的用户（直接授权或所在团队被授权）。
+ * 布隆过滤器只有假阳性：mightHaveShares 返回 false 时该用户一定没有共享，
+ * TodoServiceImpl 可以只查自己创建的 TODO，不再 LEFT JOIN ACL 表。
+ *
+ * 1. 授权 / 加入团队时立即写入，事务提交后再写一次（避免与重建交错时丢失）
+ * 2. 撤销不删除（布隆过滤器不支持删除），由定时重建清理
+ * 3. 重建写入新过滤器后切换指针（acl:share:bloom:current）；重建期间的写入同时进入新过滤器
+ * 4. 过滤器未建立或 Redis 异常时一律返回 true，退回联表查询
+ *
+ * @author System
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AclShareMarker {
+
+	private static final String KEY_PREFIX = "acl:share:bloom:";
+	private static final String CURRENT_KEY = KEY_PREFIX + "current";
+	private static final String NEXT_KEY = KEY_PREFIX + "next";
+	private static final String LOCK_KEY = KEY_PREFIX + "rebuild";
+	private static final int REBUILD_BATCH_SIZE = 1000;
+
+	private final RedissonClient redissonClient;
+	private final AclAccessControlDao aclAccessControlDao;
+
+	@Value("${collabtask.acl.share-marker.enabled:true}")
+	private boolean enabled;
+
+	@Value("${collabtask.acl.share-marker.expected-insertions:1000000}")
+	private long expectedInsertions;
+
+	@Value("${collabtask.acl.share-marker.false-probability:0.01}")
+	private double falseProbability;
+
+	@Value("${collabtask.acl.share-marker.lock-lease:300}")
+	private long lockLeaseSeconds;
+
+	private final LongAdder negatives = new LongAdder();
+	private final LongAdder positives = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+	private final AtomicLong rebuildCount = new AtomicLong();
+	private volatile long lastRebuildTime;
+	private volatile long lastRebuildUsers;
+	/** 本节点写入失败后置位，直到下次重建成功前都按有共享处理 */
+	private volatile boolean degraded;
+
+	/**
+	 * 启动后尽快建立过滤器，之后按 rebuild-interval 定时重建（默认 1 小时）
+	 */
+	@Scheduled(
+		fixedDelayString = "${collabtask.acl.share-marker.rebuild-interval:3600000}",
+		initialDelayString = "${collabtask.acl.share-marker.initial-delay:10000}"
+	)
+	public void scheduledRebuild() {
+		if (!enabled) {
+			return;
+		}
+
+		RLock lock = redissonClient.getLock(LOCK_KEY);
+		boolean acquired = false;
+		try {
+			acquired = lock.tryLock(0, lockLeaseSeconds, TimeUnit.SECONDS);
+			if (acquired) {
+				rebuild();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			failures.increment();
+			log.error("重建共享用户布隆过滤器失败", e);
+		} finally {
+			if (acquired && lock.isHeldByCurrentThread()) {
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * 用户是否可能有共享给他的资源
+	 *
+	 * @return false=一定没有，true=可能有（包括过滤器不可用）
+	 */
+	public boolean mightHaveShares(Long userId) {
+		if (!enabled || degraded) {
+			return true;
+		}
+		try {
+			String current = bucket(CURRENT_KEY).get();
+			if (current == null) {
+				return true;
+			}
+			boolean contains = filter(current).contains(userId);
+			if (contains) {
+				positives.increment();
+			} else {
+				negatives.increment();
+			}
+			return contains;
+		} catch (Exception e) {
+			failures.increment();
+			log.warn("读取共享用户布隆过滤器失败，按有共享处理：userId={}", userId, e);
+			return true;
+		}
+	}
+
+	/**
+	 * 标记用户有共享（立即写入 + 事务提交后再写一次）
+	 */
+	public void mark(Collection<Long> userIds) {
+		if (!enabled || userIds.isEmpty()) {
+			return;
+		}
+		List<Long> users = List.copyOf(userIds);
+		add(users);
+		TransactionUtils.afterCommit(() -> add(users));
+	}
+
+	/**
+	 * 标记单个用户
+	 */
+	public void mark(Long userId) {
+		mark(List.of(userId));
+	}
+
+	/**
+	 * 从数据库重建过滤器并切换
+	 */
+	public void rebuild() {
+		long start = System.currentTimeMillis();
+		String name = KEY_PREFIX + start;
+		RBloomFilter<Long> next = filter(name);
+		next.tryInit(expectedInsertions, falseProbability);
+
+		// 先登记 next，重建期间的 mark 同时写入新过滤器
+		bucket(NEXT_KEY).set(name, lockLeaseSeconds, TimeUnit.SECONDS);
+
+		List<Long> userIds = aclAccessControlDao.selectSharedUserIds();
+		for (int i = 0; i < userIds.size(); i += REBUILD_BATCH_SIZE) {
+			next.add(userIds.subList(i, Math.min(i + REBUILD_BATCH_SIZE, userIds.size())));
+		}
+
+		String previous = bucket(CURRENT_KEY).getAndSet(name);
+		bucket(NEXT_KEY).delete();
+		if (previous != null && !previous.equals(name)) {
+			// 延迟删除旧过滤器，读到旧指针的请求仍可完成
+			filter(previous).expire(Duration.ofMinutes(5));
+		}
+
+		degraded = false;
+		rebuildCount.incrementAndGet();
+		lastRebuildTime = start;
+		lastRebuildUsers = userIds.size();
+		log.info("共享用户布隆过滤器已重建：users={}, cost={}ms", userIds.size(), System.currentTimeMillis() - start);
+	}
+
+	/**
+	 * 监控指标
+	 */
+	public Map<String, Object> getStats() {
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("status", "UP");
+		stats.put("enabled", enabled);
+		stats.put("degraded", degraded);
+		stats.put("negatives", negatives.sum());
+		stats.put("positives", positives.sum());
+		stats.put("failures", failures.sum());
+		stats.put("rebuilds", rebuildCount.get());
+		stats.put("lastRebuildTime", lastRebuildTime);
+		stats.put("lastRebuildUsers", lastRebuildUsers);
+		return stats;
+	}
+
+	private void add(List<Long> userIds) {
+		try {
+			String current = bucket(CURRENT_KEY).get();
+			String next = bucket(NEXT_KEY).get();
+			for (String name : new String[]{current, next}) {
+				if (name != null) {
+					filter(name).add(userIds);
+				}
+			}
+		} catch (Exception e) {
+			// 漏写会导致误判为无共享：本节点降级，并尽量撤掉指针让其他节点也退回联表查询
+			failures.increment();
+			degraded = true;
+			log.warn("写入共享用户布隆过滤器失败，等待下次重建：users={}", userIds.size(), e);
+			try {
+				bucket(CURRENT_KEY).delete();
+			} catch (Exception ignored) {
+			}
+		}
+	}
+
+	private RBucket<String> bucket(String key) {
+		return redissonClient.getBucket(key, StringCodec.INSTANCE);
+	}
+
+	private RBloomFilter<Long> filter(String name) {
+		return redissonClient.getBloomFilter(name);
+	}
+}
@@ -9,6 +9,7 @@
 package io.user.aspect;
 
 import io.user.common.annotation.DistributedLock;
+import io.user.common.aspect.AdviceMetadataCache;
 import io.user.common.exception.RenException;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -18,10 +19,13 @@ import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
-import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.stereotype.Component;
@@ -32,6 +36,8 @@ import java.util.concurrent.TimeUnit;
 /**
  * 分布式锁切面
  * 
+ * 锁 key 的 SpEL 表达式按方法只解析一次（MIXED 模式编译），参数名同样预先缓存
+ * 
  * @author System
  */
 @Aspect
@@ -40,25 +46,27 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 public class DistributedLockAspect {
 	
+	/** SpEL 解析器（热点表达式编译为字节码，编译失败时回退解释执行） */
+	private static final ExpressionParser PARSER = new SpelExpressionParser(
+		new SpelParserConfiguration(SpelCompilerMode.MIXED, DistributedLockAspect.class.getClassLoader()));
+	
 	private final RedissonClient redissonClient;
-	private final DefaultParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
-	private final ExpressionParser parser = new SpelExpressionParser();
+	private final AdviceMetadataCache<LockMetadata> metadataCache = new AdviceMetadataCache<>(LockMetadata::resolve);
 	
 	@Around("@annotation(io.user.common.annotation.DistributedLock)")
 	public Object around(ProceedingJoinPoint point) throws Throwable {
 		MethodSignature signature = (MethodSignature) point.getSignature();
-		Method method = signature.getMethod();
-		DistributedLock annotation = method.getAnnotation(DistributedLock.class);
+		LockMetadata metadata = metadataCache.get(signature.getMethod(), point.getTarget().getClass());
 		
 		// 解析锁的key
-		String lockKey = parseLockKey(annotation.key(), method, point.getArgs());
+		String lockKey = parseLockKey(metadata, point.getArgs());
 		
 		RLock lock = redissonClient.getLock(lockKey);
 		boolean acquired = false;
 		
 		try {
 			// 尝试获取锁
-			acquired = lock.tryLock(annotation.waitTime(), annotation.leaseTime(), TimeUnit.SECONDS);
+			acquired = lock.tryLock(metadata.waitTime, metadata.leaseTime, TimeUnit.SECONDS);
 			
 			if (!acquired) {
 				log.warn("获取分布式锁失败：lockKey={}", lockKey);
@@ -85,24 +93,45 @@ public class DistributedLockAspect {
 	/**
 	 * 解析锁的key（支持SpEL表达式）
 	 */
-	private String parseLockKey(String keyExpression, Method method, Object[] args) {
-		// 获取参数名
-		String[] parameterNames = parameterNameDiscoverer.getParameterNames(method);
-		if (parameterNames == null) {
-			return keyExpression;
+	private String parseLockKey(LockMetadata metadata, Object[] args) {
+		String[] parameterNames = metadata.parameterNames;
+		if (parameterNames.length == 0) {
+			return metadata.key;
 		}
 		
-		// 构建SpEL上下文
+		// 构建SpEL上下文（只绑定参数变量，表达式已预先解析）
 		EvaluationContext context = new StandardEvaluationContext();
 		for (int i = 0; i < parameterNames.length; i++) {
 			context.setVariable(parameterNames[i], args[i]);
 		}
 		
-		// 解析表达式
-		Expression expression = parser.parseExpression(keyExpression);
-		Object value = expression.getValue(context);
+		Object value = metadata.keyExpression.getValue(context);
 		
-		return value != null ? value.toString() : keyExpression;
+		return value != null ? value.toString() : metadata.key;
+	}
+	
+	/**
+	 * 方法级元数据（首次拦截时解析）
+	 */
+	private static final class LockMetadata {
+		final String key;
+		final Expression keyExpression;
+		final String[] parameterNames;
+		final long waitTime;
+		final long leaseTime;
+		
+		LockMetadata(DistributedLock annotation, Method method) {
+			this.key = annotation.key();
+			this.keyExpression = PARSER.parseExpression(annotation.key());
+			this.parameterNames = AdviceMetadataCache.parameterNames(method);
+			this.waitTime = annotation.waitTime();
+			this.leaseTime = annotation.leaseTime();
+		}
+		
+		static LockMetadata resolve(Method method, Class<?> targetClass) {
+			Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+			DistributedLock annotation = AnnotatedElementUtils.findMergedAnnotation(specificMethod, DistributedLock.class);
+			return new LockMetadata(annotation, specificMethod);
+		}
 	}
 }
-
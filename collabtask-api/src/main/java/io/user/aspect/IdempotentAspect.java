@@ -9,6 +9,7 @@
 package io.user.aspect;
 
 import io.user.common.annotation.Idempotent;
+import io.user.common.aspect.AdviceMetadataCache;
 import io.user.common.exception.RenException;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
@@ -17,6 +18,8 @@ import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
@@ -37,12 +40,13 @@ import java.util.concurrent.TimeUnit;
 public class IdempotentAspect {
 	
 	private final RedisTemplate<String, String> redisTemplate;
+	private final AdviceMetadataCache<Idempotent> metadataCache = new AdviceMetadataCache<>(IdempotentAspect::resolve);
 	
 	@Around("@annotation(io.user.common.annotation.Idempotent)")
 	public Object around(ProceedingJoinPoint point) throws Throwable {
 		MethodSignature signature = (MethodSignature) point.getSignature();
 		Method method = signature.getMethod();
-		Idempotent annotation = method.getAnnotation(Idempotent.class);
+		Idempotent annotation = metadataCache.get(method, point.getTarget().getClass());
 		
 		// 获取请求信息
 		ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
@@ -83,5 +87,12 @@ public class IdempotentAspect {
 			throw e;
 		}
 	}
+	
+	/**
+	 * 解析方法上的注解（每个方法只执行一次）
+	 */
+	private static Idempotent resolve(Method method, Class<?> targetClass) {
+		Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+		return AnnotatedElementUtils.findMergedAnnotation(specificMethod, Idempotent.class);
+	}
 }
-
@@ -8,7 +8,10 @@
 
 package io.user.aspect;
 
+import io.user.acl.AclRoleMatrix;
 import io.user.common.annotation.RequirePermission;
+import io.user.common.aspect.AdviceMetadataCache;
+import io.user.common.context.ResourceContextHolder;
 import io.user.common.exception.RenException;
 import io.user.dao.TodoDao;
 import io.user.dao.TagDao;
@@ -16,6 +19,7 @@ import io.user.dao.TeamDao;
 import io.user.entity.TodoEntity;
 import io.user.entity.TagEntity;
 import io.user.entity.TeamEntity;
+import io.user.enums.PermissionCode;
 import io.user.enums.ResourceType;
 import io.user.service.AclPermissionService;
 import lombok.AllArgsConstructor;
@@ -24,6 +28,8 @@ import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.stereotype.Component;
 
 import java.lang.reflect.Method;
@@ -35,6 +41,9 @@ import java.lang.reflect.Method;
  * 1. 使用方法参数名称获取参数（需要编译器保留参数名）
  * 2. 支持 OWNER 自动检查
  * 3. 自动记录审计日志
+ * 4. OWNER 检查加载的实体放入 ResourceContextHolder，供 Service 复用
+ * 5. 注解值、参数下标按方法缓存（AdviceMetadataCache），每次调用只按下标取参数
+ * 6. OWNER 之后先查全局角色矩阵（AclRoleMatrix），再回退到逐资源 ACL
  * 
  * @author System
  */
@@ -45,53 +54,51 @@ import java.lang.reflect.Method;
 public class PermissionCheckAspect {
 	
 	private final AclPermissionService aclPermissionService;
+	private final AclRoleMatrix aclRoleMatrix;
 	private final TodoDao todoDao;
 	private final TagDao tagDao;
 	private final TeamDao teamDao;
 	
+	/** 每个方法的注解值、参数下标只解析一次 */
+	private final AdviceMetadataCache<PermissionMetadata> metadataCache = new AdviceMetadataCache<>(PermissionMetadata::resolve);
+	
 	@Around("@annotation(io.user.common.annotation.RequirePermission)")
 	public Object around(ProceedingJoinPoint point) throws Throwable {
 		MethodSignature signature = (MethodSignature) point.getSignature();
-		Method method = signature.getMethod();
-		RequirePermission annotation = method.getAnnotation(RequirePermission.class);
-		
-		// ⭐ 使用 MethodSignature.getParameterNames() 获取参数名
-		String[] parameterNames = signature.getParameterNames();
+		PermissionMetadata metadata = metadataCache.get(signature.getMethod(), point.getTarget().getClass());
 		Object[] args = point.getArgs();
 		
-		Long resourceId = null;
-		Long userId = null;
-		
-		// 查找 resourceId 和 userId
-		for (int i = 0; i < parameterNames.length; i++) {
-			if (parameterNames[i].equals(annotation.resourceIdParam())) {
-				resourceId = (Long) args[i];
-			}
-			if (parameterNames[i].equals(annotation.userIdParam())) {
-				userId = (Long) args[i];
-			}
-		}
+		// 按预先解析的下标取 resourceId 和 userId
+		Long resourceId = metadata.resourceIdIndex >= 0 ? (Long) args[metadata.resourceIdIndex] : null;
+		Long userId = metadata.userIdIndex >= 0 ? (Long) args[metadata.userIdIndex] : null;
 		
 		if (resourceId == null || userId == null) {
 			log.error("权限检查失败：未找到 resourceId={} 或 userId={}", resourceId, userId);
 			throw new RenException("权限检查参数错误");
 		}
 		
-		// 获取枚举的 code 值
-		String resourceTypeCode = annotation.resourceType().getCode();
-		String permissionCode = annotation.permission().getCode();
+		String resourceTypeCode = metadata.resourceTypeCode;
+		String permissionCode = metadata.permissionCode;
 		
 		// ⭐ 步骤1：检查是否是 OWNER
-		if (annotation.checkOwner()) {
-			boolean isOwner = checkOwner(resourceTypeCode, resourceId, userId);
-			if (isOwner) {
+		Object resource = null;
+		if (metadata.checkOwner) {
+			resource = loadResource(resourceTypeCode, resourceId);
+			if (isOwner(resource, userId)) {
 				log.debug("用户是 OWNER，跳过 ACL 权限检查：userId={}, resourceType={}, resourceId={}", 
 					userId, resourceTypeCode, resourceId);
-				return point.proceed();
+				return proceedWithResource(point, resource, resourceId);
 			}
 		}
 		
-		// ⭐ 步骤2：检查 ACL 权限
+		// ⭐ 步骤2：检查全局角色（内存矩阵，不查库）
+		if (aclRoleMatrix.allows(userId, metadata.resourceType, metadata.permission)) {
+			log.debug("全局角色授权通过：userId={}, resourceType={}, resourceId={}, permission={}", 
+				userId, resourceTypeCode, resourceId, permissionCode);
+			return proceedWithResource(point, resource, resourceId);
+		}
+		
+		// ⭐ 步骤3：检查 ACL 权限
 		boolean hasPermission = aclPermissionService.hasPermission(
 			userId, 
 			resourceTypeCode, 
@@ -121,42 +128,102 @@ public class PermissionCheckAspect {
 			userId, resourceTypeCode, resourceId, permissionCode);
 		
 		// 执行方法
-		return point.proceed();
+		return proceedWithResource(point, resource, resourceId);
 	}
 	
 	/**
-	 * 检查是否是资源的 OWNER
+	 * 执行目标方法，期间把已加载的实体放入请求上下文
+	 */
+	private Object proceedWithResource(ProceedingJoinPoint point, Object resource, Long resourceId) throws Throwable {
+		if (resource == null) {
+			return point.proceed();
+		}
+		
+		Object previous = ResourceContextHolder.put(resource.getClass(), resourceId, resource);
+		try {
+			return point.proceed();
+		} finally {
+			ResourceContextHolder.restore(resource.getClass(), resourceId, previous);
+		}
+	}
+	
+	/**
+	 * 加载资源实体
 	 * 
 	 * @param resourceTypeCode 资源类型代码（使用枚举的 code 值）
 	 * @param resourceId 资源ID
-	 * @param userId 用户ID
-	 * @return true=是OWNER，false=不是OWNER
+	 * @return 实体，不存在或类型未知返回 null
 	 */
-	private boolean checkOwner(String resourceTypeCode, Long resourceId, Long userId) {
+	private Object loadResource(String resourceTypeCode, Long resourceId) {
 		try {
 			// ⭐ 使用枚举值进行判断（避免魔法值）
 			if (ResourceType.TODO.getCode().equals(resourceTypeCode)) {
-				TodoEntity todo = todoDao.selectById(resourceId);
-				return todo != null && todo.getUserId().equals(userId);
+				return ResourceContextHolder.getOrLoad(TodoEntity.class, resourceId, todoDao::selectById);
 			}
 			
 			if (ResourceType.TAG.getCode().equals(resourceTypeCode)) {
-				TagEntity tag = tagDao.selectById(resourceId);
-				return tag != null && tag.getUserId().equals(userId);
+				return ResourceContextHolder.getOrLoad(TagEntity.class, resourceId, tagDao::selectById);
 			}
 			
 			if (ResourceType.TEAM.getCode().equals(resourceTypeCode)) {
-				TeamEntity team = teamDao.selectById(resourceId);
-				return team != null && team.getOwnerId().equals(userId);
+				return ResourceContextHolder.getOrLoad(TeamEntity.class, resourceId, teamDao::selectById);
 			}
 			
 			log.warn("未知的资源类型：{}", resourceTypeCode);
-			return false;
+			return null;
 			
 		} catch (Exception e) {
-			log.error("检查 OWNER 失败：resourceType={}, resourceId={}", resourceTypeCode, resourceId, e);
-			return false;
+			log.error("加载资源失败：resourceType={}, resourceId={}", resourceTypeCode, resourceId, e);
+			return null;
+		}
+	}
+	
+	/**
+	 * 检查是否是资源的 OWNER
+	 * 
+	 * @param resource 资源实体（loadResource 的结果）
+	 * @param userId 用户ID
+	 * @return true=是OWNER，false=不是OWNER
+	 */
+	private boolean isOwner(Object resource, Long userId) {
+		if (resource instanceof TodoEntity todo) {
+			return userId.equals(todo.getUserId());
+		}
+		if (resource instanceof TagEntity tag) {
+			return userId.equals(tag.getUserId());
+		}
+		if (resource instanceof TeamEntity team) {
+			return userId.equals(team.getOwnerId());
+		}
+		return false;
+	}
+	
+	/**
+	 * 方法级元数据（首次拦截时解析）
+	 */
+	private static final class PermissionMetadata {
+		final ResourceType resourceType;
+		final PermissionCode permission;
+		final String resourceTypeCode;
+		final String permissionCode;
+		final boolean checkOwner;
+		final int resourceIdIndex;
+		final int userIdIndex;
+		
+		PermissionMetadata(RequirePermission annotation, Method method) {
+			this.resourceType = annotation.resourceType();
+			this.permission = annotation.permission();
+			this.resourceTypeCode = annotation.resourceType().getCode();
+			this.permissionCode = annotation.permission().getCode();
+			this.checkOwner = annotation.checkOwner();
+			this.resourceIdIndex = AdviceMetadataCache.parameterIndex(method, annotation.resourceIdParam());
+			this.userIdIndex = AdviceMetadataCache.parameterIndex(method, annotation.userIdParam());
+		}
+		
+		static PermissionMetadata resolve(Method method, Class<?> targetClass) {
+			Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+			RequirePermission annotation = AnnotatedElementUtils.findMergedAnnotation(specificMethod, RequirePermission.class);
+			return new PermissionMetadata(annotation, specificMethod);
 		}
 	}
 }
-
@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.assembler;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.user.dao.TeamDao;
+import io.user.dao.TodoTagDao;
+import io.user.dao.UserDao;
+import io.user.dto.TagVO;
+import io.user.dto.TodoTagRow;
+import io.user.dto.TodoVO;
+import io.user.entity.TeamEntity;
+import io.user.entity.TodoEntity;
+import io.user.entity.UserEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * TODO VO 组装
+ *
+ * convert 只做实体到 VO 的字段复制；enrich 对一整页 VO 批量补充关联信息：
+ * 收集去重后的创建者 ID、团队 ID，各用一次 IN 查询（只取需要的列）解析后回填
+ * username / teamName。一页 N 条 TODO 固定最多 2 次查询，不再逐条 selectById。
+ *
+ * 所有返回 TodoVO 的接口（单条、列表、团队 TODO）都应经过 enrich。
+ * fillTags 按需（include=tags）用一次 JOIN 查询补充整页 TODO 的标签。
+ *
+ * @author System
+ */
+@Component
+@RequiredArgsConstructor
+public class TodoVOAssembler {
+
+	private final UserDao userDao;
+	private final TeamDao teamDao;
+	private final TodoTagDao todoTagDao;
+
+	/**
+	 * 实体转 VO（不含关联信息）
+	 */
+	public static TodoVO convert(TodoEntity entity) {
+		if (entity == null) {
+			return null;
+		}
+
+		TodoVO vo = new TodoVO();
+		vo.setId(entity.getId());
+		vo.setName(entity.getName());
+		vo.setDescription(entity.getDescription());
+		vo.setDueDate(entity.getDueDate());
+		vo.setStatus(entity.getStatus());
+		vo.setPriority(entity.getPriority());
+		vo.setUserId(entity.getUserId());
+		vo.setTeamId(entity.getTeamId());
+		vo.setCompletedAt(entity.getCompletedAt());
+		vo.setCreateDate(entity.getCreateDate());
+		vo.setUpdateDate(entity.getUpdateDate());
+		return vo;
+	}
+
+	/**
+	 * 批量补充创建者用户名、团队名称
+	 */
+	public void enrich(List<TodoVO> voList) {
+		if (voList.isEmpty()) {
+			return;
+		}
+
+		Map<Long, String> usernames = loadUsernames(voList.stream()
+			.map(TodoVO::getUserId)
+			.filter(Objects::nonNull)
+			.collect(Collectors.toSet()));
+		Map<Long, String> teamNames = loadTeamNames(voList.stream()
+			.map(TodoVO::getTeamId)
+			.filter(Objects::nonNull)
+			.collect(Collectors.toSet()));
+
+		for (TodoVO vo : voList) {
+			if (vo.getUserId() != null) {
+				vo.setUsername(usernames.get(vo.getUserId()));
+			}
+			if (vo.getTeamId() != null) {
+				vo.setTeamName(teamNames.get(vo.getTeamId()));
+			}
+		}
+	}
+
+	/**
+	 * 批量补充标签（一次 tb_todo_tags JOIN tb_tags 查询，内存中按 TODO 分组）
+	 *
+	 * 没有标签的 TODO 得到空列表
+	 */
+	public void fillTags(List<TodoVO> voList) {
+		if (voList.isEmpty()) {
+			return;
+		}
+
+		Set<Long> todoIds = voList.stream().map(TodoVO::getId).collect(Collectors.toSet());
+		Map<Long, List<TagVO>> tagsByTodo = new HashMap<>();
+		for (TodoTagRow row : todoTagDao.selectTagsByTodoIds(todoIds)) {
+			TagVO tag = new TagVO();
+			tag.setId(row.getTagId());
+			tag.setName(row.getName());
+			tag.setColor(row.getColor());
+			tagsByTodo.computeIfAbsent(row.getTodoId(), k -> new ArrayList<>()).add(tag);
+		}
+
+		for (TodoVO vo : voList) {
+			vo.setTags(tagsByTodo.getOrDefault(vo.getId(), new ArrayList<>()));
+		}
+	}
+
+	private Map<Long, String> loadUsernames(Set<Long> userIds) {
+		if (userIds.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		QueryWrapper<UserEntity> wrapper = new QueryWrapper<>();
+		wrapper.select("id", "username").in("id", userIds);
+		return userDao.selectList(wrapper).stream()
+			.filter(user -> user.getUsername() != null)
+			.collect(Collectors.toMap(UserEntity::getId, UserEntity::getUsername));
+	}
+
+	private Map<Long, String> loadTeamNames(Set<Long> teamIds) {
+		if (teamIds.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		QueryWrapper<TeamEntity> wrapper = new QueryWrapper<>();
+		wrapper.select("id", "name").in("id", teamIds);
+		return teamDao.selectList(wrapper).stream()
+			.filter(team -> team.getName() != null)
+			.collect(Collectors.toMap(TeamEntity::getId, TeamEntity::getName));
+	}
+}
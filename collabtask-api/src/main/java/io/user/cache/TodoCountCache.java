@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.cache;
+
+import io.user.common.redis.RedisKeys;
+import io.user.dto.TodoQueryCondition;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * TODO列表总数缓存（countMode = CACHED）
+ * 
+ * 键：用户 + 列表版本号 + 筛选条件摘要（不含排序、分页、游标）。
+ * TODO 写操作递增所有者、操作人和全部被授权用户的版本号，共享变化递增被授权用户的版本号（见 TodoListVersion）。
+ *
+ * @author System
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TodoCountCache {
+	
+	private final StringRedisTemplate stringRedisTemplate;
+	private final TodoListVersion todoListVersion;
+	
+	@Value("${collabtask.todo.count-cache.ttl:60}")
+	private long ttlSeconds;
+	
+	/**
+	 * 读取缓存的总数，未命中时调用 loader 计算并写入
+	 */
+	public long get(TodoQueryCondition condition, Supplier<Long> loader) {
+		long version = todoListVersion.current(condition.getUserId());
+		if (version == TodoListVersion.UNAVAILABLE) {
+			return loader.get();
+		}
+		
+		String key = RedisKeys.getTodoCountKey(condition.getUserId(), version, filterHash(condition));
+		try {
+			String cached = stringRedisTemplate.opsForValue().get(key);
+			if (cached != null) {
+				return Long.parseLong(cached);
+			}
+		} catch (Exception e) {
+			log.warn("读取TODO总数缓存失败：key={}", key, e);
+		}
+		
+		long total = loader.get();
+		try {
+			stringRedisTemplate.opsForValue().set(key, String.valueOf(total), ttlSeconds, TimeUnit.SECONDS);
+		} catch (Exception e) {
+			log.warn("写入TODO总数缓存失败：key={}", key, e);
+		}
+		return total;
+	}
+	
+	/**
+	 * 筛选条件摘要
+	 */
+	private static String filterHash(TodoQueryCondition condition) {
+		String filters = condition.getKeyword() + "|" + condition.getStatus() + "|" + condition.getPriority() + "|"
+			+ condition.getTeamId() + "|" + time(condition.getDueDateStart()) + "|" + time(condition.getDueDateEnd()) + "|"
+			+ condition.getTagIds() + "|" + condition.isTagMatchAll();
+		return DigestUtils.md5DigestAsHex(filters.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	private static Long time(Date date) {
+		return date != null ? date.getTime() : null;
+	}
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.cache;
+
+import io.user.common.page.PageData;
+import io.user.common.redis.RedisKeys;
+import io.user.common.utils.JsonUtils;
+import io.user.dto.TodoQueryDTO;
+import io.user.dto.TodoVO;
+import io.user.enums.TodoCountMode;
+import io.user.enums.TodoSortField;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * TODO列表第一页缓存
+ *
+ * 绝大多数列表请求是反复刷新的第一页。整页结果（含总数、hasMore、权限位掩码）序列化后缓存，
+ * 命中时 selectMyTodosPage 和 countMyTodos 都不执行。
+ *
+ * 键：用户 + 列表版本号 + 规范化后的查询条件摘要。创建 / 修改 / 完成 / 删除 TODO、
+ * 共享授权与撤销、标签变化都会递增版本号（见 TodoListVersion），旧页面自然失效。
+ * TODO 和标签的写操作递增所有者、操作人和全部被授权用户（直接授权 + 团队成员）的版本号；
+ * 只有用户名 / 团队名变化不递增，由 TTL 兜底。
+ *
+ * 只缓存第一页（page = 1 或游标分页的首次请求），关键词搜索不缓存（取值分散，复用率低）。
+ *
+ * @author System
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TodoFirstPageCache {
+
+	private final StringRedisTemplate stringRedisTemplate;
+	private final TodoListVersion todoListVersion;
+
+	@Value("${collabtask.todo.first-page-cache.enabled:true}")
+	private boolean enabled;
+
+	@Value("${collabtask.todo.first-page-cache.ttl:30}")
+	private long ttlSeconds;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+
+	/**
+	 * 该查询是否可以使用第一页缓存
+	 */
+	public boolean isCacheable(TodoQueryDTO dto) {
+		if (!enabled || StringUtils.isNotBlank(dto.getKeyword())) {
+			return false;
+		}
+		return dto.getCursor() != null ? dto.getCursor().isEmpty() : (dto.getPage() == null || dto.getPage() <= 1);
+	}
+
+	/**
+	 * 读取缓存的第一页，未命中时调用 loader 查询并写入
+	 *
+	 * 版本号在查询之前读取：查询期间发生的写操作会递增版本号，这次写入的旧页面不会再被读到
+	 */
+	public PageData<TodoVO> get(TodoQueryDTO dto, Long userId, Supplier<PageData<TodoVO>> loader) {
+		long version = todoListVersion.current(userId);
+		if (version == TodoListVersion.UNAVAILABLE) {
+			return loader.get();
+		}
+
+		String key = RedisKeys.getTodoFirstPageKey(userId, version, queryHash(dto));
+		try {
+			String cached = stringRedisTemplate.opsForValue().get(key);
+			if (cached != null) {
+				hits.increment();
+				return JsonUtils.parseObject(cached, Snapshot.class).toPage();
+			}
+		} catch (Exception e) {
+			failures.increment();
+			log.warn("读取TODO列表第一页缓存失败：key={}", key, e);
+		}
+
+		misses.increment();
+		PageData<TodoVO> page = loader.get();
+		try {
+			stringRedisTemplate.opsForValue().set(key, JsonUtils.toJsonString(Snapshot.of(page)), ttlSeconds, TimeUnit.SECONDS);
+		} catch (Exception e) {
+			failures.increment();
+			log.warn("写入TODO列表第一页缓存失败：key={}", key, e);
+		}
+		return page;
+	}
+
+	/**
+	 * 监控指标
+	 */
+	public Map<String, Object> getStats() {
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("status", "UP");
+		stats.put("enabled", enabled);
+		stats.put("hits", hits.sum());
+		stats.put("misses", misses.sum());
+		stats.put("failures", failures.sum());
+		return stats;
+	}
+
+	/**
+	 * 规范化查询条件摘要：默认值、大小写、标签顺序不同的等价请求命中同一个键
+	 */
+	private static String queryHash(TodoQueryDTO dto) {
+		TreeSet<Long> tagIds = new TreeSet<>();
+		if (dto.getTagId() != null) {
+			tagIds.add(dto.getTagId());
+		}
+		if (dto.getTagIds() != null) {
+			dto.getTagIds().stream().filter(Objects::nonNull).forEach(tagIds::add);
+		}
+
+		String query = dto.getStatus() + "|" + dto.getPriority() + "|" + dto.getTeamId() + "|"
+			+ tagIds + "|" + (tagIds.isEmpty() ? "" : StringUtils.upperCase(dto.getTagMatch())) + "|"
+			+ time(dto.getDueDateStart()) + "|" + time(dto.getDueDateEnd()) + "|"
+			+ TodoSortField.fromCode(dto.getOrderBy()) + "|" + !"asc".equals(dto.getOrderDirection()) + "|"
+			+ dto.getLimit() + "|" + (dto.getCursor() != null) + "|"
+			+ TodoCountMode.fromCode(dto.getCountMode()) + "|" + StringUtils.lowerCase(StringUtils.deleteWhitespace(dto.getInclude()));
+		return DigestUtils.md5DigestAsHex(query.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static Long time(Date date) {
+		return date != null ? date.getTime() : null;
+	}
+
+	/**
+	 * 缓存内容（PageData 没有无参构造，单独序列化）
+	 */
+	@Data
+	private static class Snapshot {
+
+		private List<TodoVO> list;
+		private long total;
+		private String nextCursor;
+		private Boolean hasMore;
+		private String countMode;
+
+		static Snapshot of(PageData<TodoVO> page) {
+			Snapshot snapshot = new Snapshot();
+			snapshot.setList(page.getList());
+			snapshot.setTotal(page.getTotal());
+			snapshot.setNextCursor(page.getNextCursor());
+			snapshot.setHasMore(page.getHasMore());
+			snapshot.setCountMode(page.getCountMode());
+			return snapshot;
+		}
+
+		PageData<TodoVO> toPage() {
+			PageData<TodoVO> page = new PageData<>(list, total);
+			page.setNextCursor(nextCursor);
+			page.setHasMore(hasMore);
+			page.setCountMode(countMode);
+			return page;
+		}
+	}
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.cache;
+
+import io.user.common.redis.RedisKeys;
+import io.user.common.utils.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户TODO列表版本号
+ * 
+ * 用户能看到的TODO集合变化时（创建、修改、删除、共享、撤销共享、团队成员变化）递增，
+ * 列表相关缓存把版本号放进键里，版本变化后旧缓存自然失效，不需要逐个删除。
+ * 
+ * 写入时立即递增一次，事务提交后再递增一次，
+ * 避免提交前并发读到旧数据并以新版本号写回缓存。
+ *
+ * @author System
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TodoListVersion {
+	
+	/** 版本号键过期时间（天），过期后从 0 重新开始，旧缓存的 TTL 远小于此值 */
+	private static final long VERSION_TTL_DAYS = 7;
+	
+	/** 读取失败时返回，调用方应跳过缓存 */
+	public static final long UNAVAILABLE = -1;
+	
+	private final StringRedisTemplate stringRedisTemplate;
+	
+	/**
+	 * 当前版本号
+	 * 
+	 * @return 版本号，Redis 不可用时返回 UNAVAILABLE
+	 */
+	public long current(Long userId) {
+		try {
+			String value = stringRedisTemplate.opsForValue().get(RedisKeys.getTodoListVersionKey(userId));
+			return value != null ? Long.parseLong(value) : 0;
+		} catch (Exception e) {
+			log.warn("读取TODO列表版本号失败：userId={}", userId, e);
+			return UNAVAILABLE;
+		}
+	}
+	
+	/**
+	 * 递增单个用户的列表版本号
+	 */
+	public void bump(Long userId) {
+		if (userId != null) {
+			bump(Set.of(userId));
+		}
+	}
+	
+	/**
+	 * 递增多个用户的列表版本号
+	 */
+	public void bump(Collection<Long> userIds) {
+		if (userIds.isEmpty()) {
+			return;
+		}
+		Set<Long> users = new LinkedHashSet<>(userIds);
+		increment(users);
+		TransactionUtils.afterCommit(() -> increment(users));
+	}
+	
+	private void increment(Set<Long> userIds) {
+		try {
+			stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+				long ttl = TimeUnit.DAYS.toSeconds(VERSION_TTL_DAYS);
+				for (Long userId : userIds) {
+					byte[] key = RedisKeys.getTodoListVersionKey(userId).getBytes(StandardCharsets.UTF_8);
+					connection.stringCommands().incr(key);
+					connection.keyCommands().expire(key, ttl);
+				}
+				return null;
+			});
+		} catch (Exception e) {
+			log.warn("递增TODO列表版本号失败：users={}", userIds.size(), e);
+		}
+	}
+}
@@ -0,0 +1,216 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.cache;
+
+import cn.hutool.cache.impl.LRUCache;
+import io.user.dao.TodoTagDao;
+import io.user.entity.TodoTagEntity;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 用户标签 -> TODO 内存索引（标签多的重度用户）
+ *
+ * 每个用户一份 {标签ID -> 升序 TODO ID 数组}，多标签筛选在内存中做交集（ALL）/ 并集（ANY），
+ * 结果作为候选 ID 交给 TodoDao，不再对每行做 EXISTS。
+ *
+ * 1. 条目记录加载时的 TodoListVersion，版本变化（打标签 / 删标签 / 删除 TODO 都会递增）后重新加载，
+ *    多节点之间不需要额外的失效广播
+ * 2. 关联行数少于 min-rows 的用户 EXISTS 已经足够快，多于 max-rows 的不放进内存，都只记一个空条目走 SQL
+ * 3. 标签不在索引中、候选超过 max-candidates、Redis 不可用时返回 null，调用方退回 EXISTS 半连接
+ *    （调用方已校验筛选标签都属于该用户）
+ *
+ * 用户只能给自己创建的 TODO 打自己的标签，因此索引覆盖了该用户标签的全部关联。
+ *
+ * @author System
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TodoTagIndex {
+
+	private static final long[] EMPTY = new long[0];
+
+	private final TodoTagDao todoTagDao;
+	private final TodoListVersion todoListVersion;
+
+	@Value("${collabtask.todo.tag-index.enabled:true}")
+	private boolean enabled;
+
+	@Value("${collabtask.todo.tag-index.max-users:200}")
+	private int maxUsers;
+
+	@Value("${collabtask.todo.tag-index.min-rows:2000}")
+	private int minRows;
+
+	@Value("${collabtask.todo.tag-index.max-rows:50000}")
+	private int maxRows;
+
+	@Value("${collabtask.todo.tag-index.max-candidates:1000}")
+	private int maxCandidates;
+
+	private LRUCache<Long, Entry> localCache;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder fallbacks = new LongAdder();
+	private final LongAdder loads = new LongAdder();
+
+	@PostConstruct
+	public void init() {
+		localCache = new LRUCache<>(maxUsers);
+	}
+
+	/**
+	 * 按标签求候选 TODO ID
+	 *
+	 * @param matchAll true=交集，false=并集
+	 * @return 升序候选 ID（可能为空列表）；无法用内存索引回答时返回 null
+	 */
+	public List<Long> candidates(Long userId, Collection<Long> tagIds, boolean matchAll) {
+		if (!enabled || tagIds.isEmpty()) {
+			return null;
+		}
+
+		long version = todoListVersion.current(userId);
+		if (version == TodoListVersion.UNAVAILABLE) {
+			fallbacks.increment();
+			return null;
+		}
+
+		Entry entry = localCache.get(userId);
+		if (entry == null || entry.version != version) {
+			entry = load(userId, version);
+			localCache.put(userId, entry);
+		}
+		if (entry.tags == null) {
+			fallbacks.increment();
+			return null;
+		}
+
+		long[] result = null;
+		for (Long tagId : tagIds) {
+			long[] todoIds = entry.tags.get(tagId);
+			if (todoIds == null) {
+				fallbacks.increment();
+				return null;
+			}
+			result = result == null ? todoIds : (matchAll ? intersect(result, todoIds) : union(result, todoIds));
+		}
+		if (result.length > maxCandidates) {
+			fallbacks.increment();
+			return null;
+		}
+
+		hits.increment();
+		List<Long> ids = new ArrayList<>(result.length);
+		for (long id : result) {
+			ids.add(id);
+		}
+		return ids;
+	}
+
+	/**
+	 * 监控指标
+	 */
+	public Map<String, Object> getStats() {
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("status", "UP");
+		stats.put("enabled", enabled);
+		stats.put("users", localCache != null ? localCache.size() : 0);
+		stats.put("hits", hits.sum());
+		stats.put("fallbacks", fallbacks.sum());
+		stats.put("loads", loads.sum());
+		return stats;
+	}
+
+	private Entry load(Long userId, long version) {
+		loads.increment();
+		List<TodoTagEntity> rows = todoTagDao.selectUserTagTodos(userId, maxRows + 1);
+		if (rows.size() < minRows || rows.size() > maxRows) {
+			return new Entry(version, null);
+		}
+
+		Map<Long, List<Long>> grouped = new HashMap<>();
+		for (TodoTagEntity row : rows) {
+			List<Long> todoIds = grouped.computeIfAbsent(row.getTagId(), k -> new ArrayList<>());
+			if (row.getTodoId() != null) {
+				todoIds.add(row.getTodoId());
+			}
+		}
+
+		Map<Long, long[]> tags = new HashMap<>(grouped.size() * 2);
+		grouped.forEach((tagId, todoIds) -> {
+			long[] sorted = todoIds.isEmpty() ? EMPTY : todoIds.stream().mapToLong(Long::longValue).toArray();
+			Arrays.sort(sorted);
+			tags.put(tagId, sorted);
+		});
+		log.debug("标签索引已加载：userId={}, tags={}, rows={}", userId, tags.size(), rows.size());
+		return new Entry(version, tags);
+	}
+
+	private static long[] intersect(long[] a, long[] b) {
+		long[] out = new long[Math.min(a.length, b.length)];
+		int i = 0, j = 0, n = 0;
+		while (i < a.length && j < b.length) {
+			if (a[i] < b[j]) {
+				i++;
+			} else if (a[i] > b[j]) {
+				j++;
+			} else {
+				out[n++] = a[i];
+				i++;
+				j++;
+			}
+		}
+		return Arrays.copyOf(out, n);
+	}
+
+	private static long[] union(long[] a, long[] b) {
+		long[] out = new long[a.length + b.length];
+		int i = 0, j = 0, n = 0;
+		while (i < a.length || j < b.length) {
+			if (j >= b.length || (i < a.length && a[i] < b[j])) {
+				out[n++] = a[i++];
+			} else if (i >= a.length || b[j] < a[i]) {
+				out[n++] = b[j++];
+			} else {
+				out[n++] = a[i];
+				i++;
+				j++;
+			}
+		}
+		return Arrays.copyOf(out, n);
+	}
+
+	/**
+	 * 加载时的版本号 + 标签索引（tags 为 null 表示该用户走 SQL）
+	 */
+	private static final class Entry {
+
+		final long version;
+		final Map<Long, long[]> tags;
+
+		Entry(long version, Map<Long, long[]> tags) {
+			this.version = version;
+			this.tags = tags;
+		}
+	}
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.common.context;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 请求内资源实体上下文（Identity Map）
+ * 
+ * PermissionCheckAspect 做 OWNER 检查时已按主键加载实体，
+ * 放入当前线程后由 Service 直接复用，不再重复 selectById。
+ * 
+ * 生命周期：切面在方法执行前放入、执行后（finally）移除；
+ * AuthorizationInterceptor 在请求结束时再兜底清空，避免线程复用时泄漏。
+ *
+ * @author System
+ */
+public class ResourceContextHolder {
+	
+	private static final ThreadLocal<Map<String, Object>> CONTEXT_HOLDER = ThreadLocal.withInitial(HashMap::new);
+	
+	/**
+	 * 放入实体
+	 * 
+	 * @return 同一键之前的实体（嵌套调用时用于恢复），没有则为 null
+	 */
+	public static Object put(Class<?> type, Long id, Object entity) {
+		return CONTEXT_HOLDER.get().put(key(type, id), entity);
+	}
+	
+	/**
+	 * 获取实体
+	 * 
+	 * @return 当前请求已加载的实体，没有则为 null
+	 */
+	public static <T> T get(Class<T> type, Long id) {
+		Object entity = CONTEXT_HOLDER.get().get(key(type, id));
+		return type.isInstance(entity) ? type.cast(entity) : null;
+	}
+	
+	/**
+	 * 获取实体，当前请求未加载时回源
+	 * 
+	 * @param loader 回源方法（通常为 dao::selectById）
+	 */
+	public static <T> T getOrLoad(Class<T> type, Long id, Function<Long, T> loader) {
+		T entity = get(type, id);
+		return entity != null ? entity : loader.apply(id);
+	}
+	
+	/**
+	 * 恢复为之前的实体（previous 为 null 时移除）
+	 */
+	public static void restore(Class<?> type, Long id, Object previous) {
+		Map<String, Object> context = CONTEXT_HOLDER.get();
+		if (previous != null) {
+			context.put(key(type, id), previous);
+		} else {
+			context.remove(key(type, id));
+			if (context.isEmpty()) {
+				CONTEXT_HOLDER.remove();
+			}
+		}
+	}
+	
+	/**
+	 * 清空当前线程的实体
+	 */
+	public static void clear() {
+		CONTEXT_HOLDER.remove();
+	}
+	
+	private static String key(Class<?> type, Long id) {
+		return type.getName() + ":" + id;
+	}
+}
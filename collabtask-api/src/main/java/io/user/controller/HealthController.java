@@ -10,7 +10,18 @@ package io.user.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import io.user.acl.AclAuditPipeline;
+import io.user.acl.AclDecisionCache;
+import io.user.acl.AclExpirySweeper;
+import io.user.acl.AclPermissionRegistry;
+import io.user.acl.AclRoleMatrix;
+import io.user.acl.AclShareMarker;
+import io.user.cache.TodoFirstPageCache;
+import io.user.cache.TodoTagIndex;
 import io.user.common.utils.Result;
+import io.user.reminder.TodoReminderScheduler;
+import io.user.search.TodoSearchIndex;
+import io.user.sync.TodoChangeFeed;
 import lombok.AllArgsConstructor;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -36,6 +47,17 @@ public class HealthController {
 	
 	private final JdbcTemplate jdbcTemplate;
 	private final RedisTemplate<String, Object> redisTemplate;
+	private final AclPermissionRegistry aclPermissionRegistry;
+	private final AclDecisionCache aclDecisionCache;
+	private final AclAuditPipeline aclAuditPipeline;
+	private final AclRoleMatrix aclRoleMatrix;
+	private final AclExpirySweeper aclExpirySweeper;
+	private final AclShareMarker aclShareMarker;
+	private final TodoSearchIndex todoSearchIndex;
+	private final TodoTagIndex todoTagIndex;
+	private final TodoFirstPageCache todoFirstPageCache;
+	private final TodoReminderScheduler todoReminderScheduler;
+	private final TodoChangeFeed todoChangeFeed;
 	
 	/**
 	 * 健康检查（简单）
@@ -163,6 +185,39 @@ public class HealthController {
 		memory.put("max", runtime.maxMemory() / 1024 / 1024 + "MB");
 		components.put("memory", memory);
 		
+		// ACL权限定义注册表（命中/刷新指标）
+		components.put("aclRegistry", aclPermissionRegistry.getStats());
+		
+		// ACL权限判定缓存（本地/Redis命中、失效广播）
+		components.put("aclDecisionCache", aclDecisionCache.getStats());
+		
+		// ACL审计管道（入队/丢弃/写入计数）
+		components.put("aclAudit", aclAuditPipeline.getStats());
+		
+		// ACL全局角色矩阵
+		components.put("aclRoleMatrix", aclRoleMatrix.getStats());
+		
+		// ACL过期授权清理（清理数量、延迟）
+		components.put("aclExpiry", aclExpirySweeper.getStats());
+		
+		// 有共享用户布隆过滤器（跳过ACL联表的比例）
+		components.put("aclShareMarker", aclShareMarker.getStats());
+		
+		// TODO搜索倒排索引（索引查询/LIKE回退比例、重建）
+		components.put("todoSearch", todoSearchIndex.getStats());
+		
+		// 用户标签内存索引（内存求交/并的命中比例）
+		components.put("todoTagIndex", todoTagIndex.getStats());
+		
+		// TODO列表第一页缓存（命中率）
+		components.put("todoFirstPageCache", todoFirstPageCache.getStats());
+		
+		// TODO到期提醒（认领窗口、时间轮任务数、投递/过期/重复）
+		components.put("todoReminder", todoReminderScheduler.getStats());
+		
+		// TODO增量同步变更流（记录/读取的变化数）
+		components.put("todoChangeFeed", todoChangeFeed.getStats());
+		
 		data.put("components", components);
 		
 		// 判断整体状态
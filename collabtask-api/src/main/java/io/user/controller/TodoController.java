@@ -15,18 +15,32 @@ import io.user.common.annotation.Login;
 import io.user.common.page.PageData;
 import io.user.common.utils.Result;
 import io.user.common.validator.ValidatorUtils;
+import io.user.dto.TodoBatchCreateDTO;
+import io.user.dto.TodoBatchIdsDTO;
+import io.user.dto.TodoBatchResultVO;
+import io.user.dto.TodoBatchShareDTO;
+import io.user.dto.TodoBatchUnshareDTO;
+import io.user.dto.TodoBatchUpdateDTO;
+import io.user.dto.TodoChangesVO;
 import io.user.dto.TodoCreateDTO;
 import io.user.dto.TodoQueryDTO;
 import io.user.dto.TodoShareDTO;
+import io.user.dto.TodoTeamShareDTO;
 import io.user.dto.TodoUpdateDTO;
 import io.user.dto.TodoVO;
 import io.user.enums.PermissionCode;
 import io.user.enums.ResourceType;
+import io.user.enums.TodoExportFormat;
 import io.user.service.AclPermissionService;
 import io.user.service.TodoService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.util.List;
+
 /**
  * TODO 控制器
  *
@@ -76,6 +90,40 @@ public class TodoController {
 		return new Result<PageData<TodoVO>>().ok(page);
 	}
 	
+	/**
+	 * 导出 TODO（流式，按列表筛选条件，不分页）
+	 */
+	@Login
+	@GetMapping("/export")
+	@Operation(summary = "导出 TODO（NDJSON / CSV 流式下载）")
+	public void export(
+		@ModelAttribute TodoQueryDTO dto,
+		@Parameter(description = "导出格式：ndjson（默认）/csv") @RequestParam(required = false) String format,
+		@Parameter(hidden = true) @RequestAttribute("userId") Long userId,
+		HttpServletResponse response
+	) throws IOException {
+		TodoExportFormat exportFormat = TodoExportFormat.fromCode(format);
+		response.setContentType(exportFormat.getContentType());
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=todos." + exportFormat.getExtension());
+		
+		todoService.exportTodos(dto, exportFormat, userId, response.getOutputStream());
+	}
+	
+	/**
+	 * 增量同步（since 之后变化的 TODO，轮询成本与变化量成正比）
+	 */
+	@Login
+	@GetMapping("/changes")
+	@Operation(summary = "获取 TODO 增量变化")
+	public Result<TodoChangesVO> changes(
+		@Parameter(description = "上次返回的 nextSince，首次同步不传") @RequestParam(required = false) Long since,
+		@Parameter(description = "最多返回的变化数（默认100，最大500）") @RequestParam(defaultValue = "100") Integer limit,
+		@Parameter(hidden = true) @RequestAttribute("userId") Long userId
+	) {
+		TodoChangesVO changes = todoService.getTodoChanges(since, limit, userId);
+		return new Result<TodoChangesVO>().ok(changes);
+	}
+	
 	/**
 	 * 获取 TODO 详情
 	 */
@@ -187,11 +235,174 @@ public class TodoController {
 			throw new io.user.common.exception.RenException("只有创建者可以取消共享");
 		}
 		
-		// 撤销所有权限（VIEW + EDIT）
-		aclPermissionService.revokePermission(targetUserId, ResourceType.TODO.getCode(), id, PermissionCode.VIEW.getCode());
-		aclPermissionService.revokePermission(targetUserId, ResourceType.TODO.getCode(), id, PermissionCode.EDIT.getCode());
+		// 撤销所有权限（每个用户只有一行授权，一条 DELETE）
+		aclPermissionService.revokeAllPermissions(targetUserId, ResourceType.TODO.getCode(), id);
+		
+		return new Result().ok("取消共享成功");
+	}
+	
+	/**
+	 * 共享 TODO 给团队
+	 * 
+	 * 只写一条团队授权，团队成员按成员关系自动获得权限
+	 */
+	@Login
+	@PostMapping("/{id}/share/team")
+	@Operation(summary = "共享 TODO 给团队")
+	public Result shareTodoWithTeam(
+		@PathVariable Long id,
+		@RequestBody TodoTeamShareDTO dto,
+		@Parameter(hidden = true) @RequestAttribute("userId") Long userId
+	) {
+		// 验证
+		ValidatorUtils.validateEntity(dto);
+		
+		// 检查是否是TODO的所有者
+		TodoVO todo = todoService.getTodoById(id, userId);
+		if (!todo.getUserId().equals(userId)) {
+			throw new io.user.common.exception.RenException("只有创建者可以共享 TODO");
+		}
+		
+		// 授予团队权限
+		PermissionCode permissionCode = "VIEW".equals(dto.getPermission()) 
+			? PermissionCode.VIEW 
+			: PermissionCode.EDIT;
+		aclPermissionService.grantTeamPermission(
+			dto.getTeamId(),
+			ResourceType.TODO.getCode(),
+			id,
+			permissionCode.getCode(),
+			userId
+		);
+		
+		return new Result().ok("共享成功");
+	}
+	
+	/**
+	 * 取消共享 TODO 给团队
+	 */
+	@Login
+	@DeleteMapping("/{id}/share/team/{teamId}")
+	@Operation(summary = "取消共享 TODO 给团队")
+	public Result unshareTodoWithTeam(
+		@PathVariable Long id,
+		@PathVariable Long teamId,
+		@Parameter(hidden = true) @RequestAttribute("userId") Long userId
+	) {
+		// 检查是否是TODO的所有者
+		TodoVO todo = todoService.getTodoById(id, userId);
+		if (!todo.getUserId().equals(userId)) {
+			throw new io.user.common.exception.RenException("只有创建者可以取消共享");
+		}
+		
+		aclPermissionService.revokeTeamPermissions(teamId, ResourceType.TODO.getCode(), id);
 		
 		return new Result().ok("取消共享成功");
 	}
+	
+	/**
+	 * 批量共享 TODO
+	 * 
+	 * 多个 TODO × 多个用户一次完成：一次归属校验、多行 upsert、一批审计日志
+	 */
+	@Login
+	@PostMapping("/batch/share")
+	@Operation(summary = "批量共享 TODO")
+	public Result<Integer> batchShare(
+		@RequestBody TodoBatchShareDTO dto,
+		@Parameter(hidden = true) @RequestAttribute("userId") Long userId
+	) {
+		// 验证
+		ValidatorUtils.validateEntity(dto);
+		
+		int count = todoService.shareTodos(dto, userId);
+		return new Result<Integer>().ok(count);
+	}
+	
+	/**
+	 * 批量取消共享 TODO
+	 */
+	@Login
+	@PostMapping("/batch/unshare")
+	@Operation(summary = "批量取消共享 TODO")
+	public Result<Integer> batchUnshare(
+		@RequestBody TodoBatchUnshareDTO dto,
+		@Parameter(hidden = true) @RequestAttribute("userId") Long userId
+	) {
+		// 验证
+		ValidatorUtils.validateEntity(dto);
+		
+		int count = todoService.unshareTodos(dto, userId);
+		return new Result<Integer>().ok(count);
+	}
+	
+	/**
+	 * 批量创建 TODO
+	 * 
+	 * 返回与请求顺序一致的逐项结果，单项失败不影响其他项
+	 */
+	@Login
+	@PostMapping("/batch")
+	@Operation(summary = "批量创建 TODO")
+	public Result<List<TodoBatchResultVO>> batchCreate(
+		@RequestBody TodoBatchCreateDTO dto,
+		@Parameter(hidden = true) @RequestAttribute("userId") Long userId
+	) {
+		// 验证
+		ValidatorUtils.validateEntity(dto);
+		
+		List<TodoBatchResultVO> results = todoService.batchCreateTodos(dto, userId);
+		return new Result<List<TodoBatchResultVO>>().ok(results);
+	}
+	
+	/**
+	 * 批量更新 TODO
+	 */
+	@Login
+	@PutMapping("/batch")
+	@Operation(summary = "批量更新 TODO")
+	public Result<List<TodoBatchResultVO>> batchUpdate(
+		@RequestBody TodoBatchUpdateDTO dto,
+		@Parameter(hidden = true) @RequestAttribute("userId") Long userId
+	) {
+		// 验证
+		ValidatorUtils.validateEntity(dto);
+		
+		List<TodoBatchResultVO> results = todoService.batchUpdateTodos(dto, userId);
+		return new Result<List<TodoBatchResultVO>>().ok(results);
+	}
+	
+	/**
+	 * 批量完成 TODO
+	 */
+	@Login
+	@PatchMapping("/batch/complete")
+	@Operation(summary = "批量完成 TODO")
+	public Result<List<TodoBatchResultVO>> batchComplete(
+		@RequestBody TodoBatchIdsDTO dto,
+		@Parameter(hidden = true) @RequestAttribute("userId") Long userId
+	) {
+		// 验证
+		ValidatorUtils.validateEntity(dto);
+		
+		List<TodoBatchResultVO> results = todoService.batchCompleteTodos(dto, userId);
+		return new Result<List<TodoBatchResultVO>>().ok(results);
+	}
+	
+	/**
+	 * 批量删除 TODO
+	 */
+	@Login
+	@PostMapping("/batch/delete")
+	@Operation(summary = "批量删除 TODO")
+	public Result<List<TodoBatchResultVO>> batchDelete(
+		@RequestBody TodoBatchIdsDTO dto,
+		@Parameter(hidden = true) @RequestAttribute("userId") Long userId
+	) {
+		// 验证
+		ValidatorUtils.validateEntity(dto);
+		
+		List<TodoBatchResultVO> results = todoService.batchDeleteTodos(dto, userId);
+		return new Result<List<TodoBatchResultVO>>().ok(results);
+	}
 }
-
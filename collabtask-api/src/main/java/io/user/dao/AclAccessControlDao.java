@@ -11,6 +11,10 @@ package io.user.dao;
 import io.user.common.dao.BaseDao;
 import io.user.entity.AclAccessControlEntity;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Date;
+import java.util.List;
 
 /**
  * ACL 访问控制 DAO
@@ -19,5 +23,49 @@ import org.apache.ibatis.annotations.Mapper;
  */
 @Mapper
 public interface AclAccessControlDao extends BaseDao<AclAccessControlEntity> {
+	
+	/**
+	 * 授权（每个主体、资源只有一行，已存在则替换权限级别并重新激活）
+	 * 
+	 * 依赖唯一键 uk_acl_subject_resource(subject_type, subject_id, resource_type, resource_id)
+	 */
+	int upsertGrant(@Param("acl") AclAccessControlEntity acl);
+	
+	/**
+	 * 批量写入授权（多行 INSERT ... ON DUPLICATE KEY UPDATE）
+	 */
+	int upsertGrantBatch(@Param("list") List<AclAccessControlEntity> list);
+	
+	/**
+	 * 全部有共享的用户ID（直接授权 + 被授权团队的成员），用于重建 AclShareMarker
+	 */
+	List<Long> selectSharedUserIds();
+	
+	/**
+	 * 按 (expires_at, id) 键集分页查询已过期但仍有效的授权
+	 * 
+	 * @param now 当前时间
+	 * @param afterExpiresAt 上一批最后一行的 expires_at（首批为 null）
+	 * @param afterId 上一批最后一行的 id
+	 * @param limit 每批数量
+	 */
+	List<AclAccessControlEntity> selectExpiredBatch(
+		@Param("now") Date now,
+		@Param("afterExpiresAt") Date afterExpiresAt,
+		@Param("afterId") Long afterId,
+		@Param("limit") int limit
+	);
+	
+	/**
+	 * 将已过期的授权置为无效（revoke_reason = 'EXPIRED'）
+	 * 
+	 * @return 实际更新的行数
+	 */
+	int deactivateExpired(@Param("ids") List<Long> ids, @Param("now") Date now);
+	
+	/**
+	 * 最早一条已过期但仍有效的授权的过期时间（用于计算清理延迟）
+	 */
+	Date selectOldestExpired(@Param("now") Date now);
 }
 
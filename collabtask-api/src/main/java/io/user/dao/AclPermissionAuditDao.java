@@ -11,6 +11,9 @@ package io.user.dao;
 import io.user.common.dao.BaseDao;
 import io.user.entity.AclPermissionAuditEntity;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 /**
  * ACL 权限审计 DAO
@@ -19,5 +22,10 @@ import org.apache.ibatis.annotations.Mapper;
  */
 @Mapper
 public interface AclPermissionAuditDao extends BaseDao<AclPermissionAuditEntity> {
+	
+	/**
+	 * 批量插入审计日志（多行 INSERT）
+	 */
+	int insertBatch(@Param("list") List<AclPermissionAuditEntity> list);
 }
 
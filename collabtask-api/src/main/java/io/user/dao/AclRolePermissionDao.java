@@ -0,0 +1,22 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.dao;
+
+import io.user.common.dao.BaseDao;
+import io.user.entity.AclRolePermissionEntity;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * ACL角色权限 DAO
+ *
+ * @author System
+ */
+@Mapper
+public interface AclRolePermissionDao extends BaseDao<AclRolePermissionEntity> {
+}
@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.dao;
+
+import io.user.common.dao.BaseDao;
+import io.user.entity.TodoChangeEntity;
+import io.user.entity.TodoChangeSeqEntity;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * TODO变更流 DAO
+ * 
+ * @author System
+ */
+@Mapper
+public interface TodoChangeDao extends BaseDao<TodoChangeEntity> {
+	
+	/**
+	 * 批量递增用户序号（seq 字段为增量，不存在则插入），行锁持有到事务提交
+	 * 
+	 * 调用方按 user_id 升序传入，并发事务加锁顺序一致
+	 */
+	int incrementSeqBatch(@Param("list") List<TodoChangeSeqEntity> list);
+	
+	/**
+	 * 查询用户当前序号
+	 */
+	List<TodoChangeSeqEntity> selectSeqs(@Param("userIds") Collection<Long> userIds);
+	
+	/**
+	 * 批量写入变化（同一 (用户, TODO) 覆盖为最新序号）
+	 */
+	int upsertBatch(@Param("list") List<TodoChangeEntity> list);
+	
+	/**
+	 * 按序号查询用户在 since 之后的变化
+	 */
+	List<TodoChangeEntity> selectSince(@Param("userId") Long userId, @Param("since") long since, @Param("limit") int limit);
+	
+	/**
+	 * 能看到这些 TODO 的被授权用户（直接授权 + 被授权团队的成员），只填充 userId / todoId
+	 */
+	List<TodoChangeEntity> selectAudience(@Param("todoIds") Collection<Long> todoIds);
+	
+	/**
+	 * 共享给团队的 TODO ID
+	 */
+	List<Long> selectTeamTodoIds(@Param("teamId") Long teamId);
+}
@@ -9,10 +9,13 @@
 package io.user.dao;
 
 import io.user.common.dao.BaseDao;
+import io.user.dto.TodoQueryCondition;
 import io.user.entity.TodoEntity;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -28,32 +31,42 @@ public interface TodoDao extends BaseDao<TodoEntity> {
 	 * 查询我的TODO列表（包含共享给我的）
 	 * 
 	 * v1.1优化：支持查询共享的TODO
+	 * 支持 offset 分页和游标（seek）分页，见 TodoQueryCondition；
+	 * 查询形态由 TodoQueryCondition#plan 决定，见 TodoListPlan
 	 */
-	List<TodoEntity> selectMyTodosPage(
-		@Param("userId") Long userId,
-		@Param("keyword") String keyword,
-		@Param("status") String status,
-		@Param("priority") String priority,
-		@Param("teamId") Long teamId,
-		@Param("dueDateStart") Date dueDateStart,
-		@Param("dueDateEnd") Date dueDateEnd,
-		@Param("orderBy") String orderBy,
-		@Param("orderDirection") String orderDirection,
-		@Param("offset") Long offset,
-		@Param("limit") Integer limit
-	);
+	List<TodoEntity> selectMyTodosPage(TodoQueryCondition condition);
 	
 	/**
 	 * 统计我的TODO数量（包含共享的）
 	 */
-	Long countMyTodos(
-		@Param("userId") Long userId,
-		@Param("keyword") String keyword,
-		@Param("status") String status,
-		@Param("priority") String priority,
-		@Param("teamId") Long teamId,
-		@Param("dueDateStart") Date dueDateStart,
-		@Param("dueDateEnd") Date dueDateEnd
+	Long countMyTodos(TodoQueryCondition condition);
+	
+	/**
+	 * 流式查询我可见的全部TODO（导出使用，不排序、不分页）
+	 * 
+	 * 返回的 Cursor 必须在事务内迭代并关闭，见 TodoExporter
+	 */
+	Cursor<TodoEntity> streamMyTodos(TodoQueryCondition condition);
+	
+	/**
+	 * 批量标记为已完成（跳过已完成的）
+	 * 
+	 * @return 实际更新的行数
+	 */
+	int completeByIds(@Param("ids") Collection<Long> ids, @Param("now") Date now);
+	
+	/**
+	 * 按 (due_date, id) 键集分页查询截止日期在 [start, end) 内的未完成 TODO（到期提醒加载窗口）
+	 * 
+	 * @param afterDueDate 上一批最后一行的 due_date（首批为 null）
+	 * @param afterId 上一批最后一行的 id
+	 * @param limit 每批数量
+	 */
+	List<TodoEntity> selectDueBatch(
+		@Param("start") Date start,
+		@Param("end") Date end,
+		@Param("afterDueDate") Date afterDueDate,
+		@Param("afterId") Long afterId,
+		@Param("limit") int limit
 	);
 }
-
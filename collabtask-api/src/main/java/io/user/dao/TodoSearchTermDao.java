@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.dao;
+
+import io.user.common.dao.BaseDao;
+import io.user.entity.TodoSearchTermEntity;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * TODO搜索倒排索引 DAO
+ * 
+ * @author System
+ */
+@Mapper
+public interface TodoSearchTermDao extends BaseDao<TodoSearchTermEntity> {
+	
+	/**
+	 * 某条 TODO 当前的全部词项
+	 */
+	List<String> selectTermsByTodoId(@Param("todoId") Long todoId);
+	
+	/**
+	 * 批量写入词项（已存在则忽略）
+	 */
+	int insertIgnoreBatch(@Param("list") List<TodoSearchTermEntity> list);
+	
+	/**
+	 * 删除某条 TODO 的部分词项
+	 */
+	int deleteTerms(@Param("todoId") Long todoId, @Param("terms") Collection<String> terms);
+	
+	/**
+	 * 删除一批 TODO 的全部词项（重建使用）
+	 */
+	int deleteByTodoIds(@Param("todoIds") Collection<Long> todoIds);
+}
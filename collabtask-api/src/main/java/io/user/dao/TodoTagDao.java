@@ -9,8 +9,13 @@
 package io.user.dao;
 
 import io.user.common.dao.BaseDao;
+import io.user.dto.TodoTagRow;
 import io.user.entity.TodoTagEntity;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * TODO-标签关联 DAO
@@ -19,5 +24,17 @@ import org.apache.ibatis.annotations.Mapper;
  */
 @Mapper
 public interface TodoTagDao extends BaseDao<TodoTagEntity> {
+	
+	/**
+	 * 用户全部标签及其关联的 TODO（没有 TODO 的标签 todoId 为 null），用于构建 TodoTagIndex
+	 * 
+	 * @param limit 最多返回行数
+	 */
+	List<TodoTagEntity> selectUserTagTodos(@Param("userId") Long userId, @Param("limit") int limit);
+	
+	/**
+	 * 一批 TODO 的关联标签（一次 JOIN 查询，调用方按 todoId 分组）
+	 */
+	List<TodoTagRow> selectTagsByTodoIds(@Param("todoIds") Collection<Long> todoIds);
 }
 
@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量创建 TODO 请求 DTO
+ *
+ * 每一项单独校验，不合法的项在结果中标记失败，其余项一个事务内批量插入
+ *
+ * @author System
+ */
+@Data
+@Schema(description = "批量创建 TODO 请求")
+public class TodoBatchCreateDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	@NotEmpty(message = "TODO 列表不能为空")
+	@Size(max = 100, message = "单次最多创建100个TODO")
+	@Schema(description = "待创建的 TODO 列表", requiredMode = Schema.RequiredMode.REQUIRED)
+	private List<TodoCreateDTO> items;
+
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 按 ID 批量操作 TODO 请求 DTO（批量完成、批量删除）
+ *
+ * @author System
+ */
+@Data
+@Schema(description = "按 ID 批量操作 TODO 请求")
+public class TodoBatchIdsDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	@NotEmpty(message = "TODO ID列表不能为空")
+	@Size(max = 500, message = "单次最多操作500个TODO")
+	@Schema(description = "TODO ID列表", requiredMode = Schema.RequiredMode.REQUIRED)
+	private List<Long> todoIds;
+
+}
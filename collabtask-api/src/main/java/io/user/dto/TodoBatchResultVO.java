@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 批量操作单项结果 VO
+ *
+ * 与请求中的项按顺序一一对应
+ *
+ * @author System
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "批量操作单项结果")
+public class TodoBatchResultVO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	@Schema(description = "请求中的序号（从0开始）")
+	private Integer index;
+
+	@Schema(description = "TODO ID（创建失败时为空）")
+	private Long id;
+
+	@Schema(description = "是否成功")
+	private Boolean success;
+
+	@Schema(description = "失败原因")
+	private String message;
+
+	@Schema(description = "操作后的 TODO（删除成功时为空）")
+	private TodoVO todo;
+
+	public static TodoBatchResultVO ok(int index, Long id, TodoVO todo) {
+		TodoBatchResultVO result = new TodoBatchResultVO();
+		result.setIndex(index);
+		result.setId(id);
+		result.setSuccess(true);
+		result.setTodo(todo);
+		return result;
+	}
+
+	public static TodoBatchResultVO fail(int index, Long id, String message) {
+		TodoBatchResultVO result = new TodoBatchResultVO();
+		result.setIndex(index);
+		result.setId(id);
+		result.setSuccess(false);
+		result.setMessage(message);
+		return result;
+	}
+
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * TODO批量共享请求 DTO
+ *
+ * 把多个 TODO 以同一权限共享给多个用户（笛卡尔积），一个事务内完成
+ *
+ * @author System
+ */
+@Data
+@Schema(description = "TODO批量共享请求")
+public class TodoBatchShareDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	@NotEmpty(message = "TODO ID列表不能为空")
+	@Size(max = 500, message = "单次最多共享500个TODO")
+	@Schema(description = "TODO ID列表（必须都是自己创建的）", requiredMode = Schema.RequiredMode.REQUIRED)
+	private List<Long> todoIds;
+	
+	@NotEmpty(message = "被共享用户ID列表不能为空")
+	@Size(max = 500, message = "单次最多共享给500个用户")
+	@Schema(description = "被共享用户ID列表", requiredMode = Schema.RequiredMode.REQUIRED)
+	private List<Long> targetUserIds;
+	
+	@NotBlank(message = "权限类型不能为空")
+	@Schema(description = "权限类型：VIEW（仅查看）, EDIT（可编辑）", 
+		requiredMode = Schema.RequiredMode.REQUIRED, 
+		example = "VIEW",
+		allowableValues = {"VIEW", "EDIT"})
+	private String permission;
+
+}
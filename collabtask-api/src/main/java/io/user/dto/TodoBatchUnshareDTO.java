@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * TODO批量取消共享请求 DTO
+ *
+ * @author System
+ */
+@Data
+@Schema(description = "TODO批量取消共享请求")
+public class TodoBatchUnshareDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	@NotEmpty(message = "TODO ID列表不能为空")
+	@Size(max = 500, message = "单次最多取消共享500个TODO")
+	@Schema(description = "TODO ID列表（必须都是自己创建的）", requiredMode = Schema.RequiredMode.REQUIRED)
+	private List<Long> todoIds;
+	
+	@NotEmpty(message = "被取消共享用户ID列表不能为空")
+	@Size(max = 500, message = "单次最多取消500个用户的共享")
+	@Schema(description = "被取消共享用户ID列表", requiredMode = Schema.RequiredMode.REQUIRED)
+	private List<Long> targetUserIds;
+
+}
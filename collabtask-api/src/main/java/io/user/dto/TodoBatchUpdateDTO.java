@@ -0,0 +1,48 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量更新 TODO 请求 DTO
+ *
+ * 每一项是 TODO ID + 与单条更新相同的字段（只更新非空字段）
+ *
+ * @author System
+ */
+@Data
+@Schema(description = "批量更新 TODO 请求")
+public class TodoBatchUpdateDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	@NotEmpty(message = "TODO 列表不能为空")
+	@Size(max = 100, message = "单次最多更新100个TODO")
+	@Schema(description = "待更新的 TODO 列表", requiredMode = Schema.RequiredMode.REQUIRED)
+	private List<Item> items;
+
+	@Data
+	@EqualsAndHashCode(callSuper = true)
+	@Schema(description = "批量更新项")
+	public static class Item extends TodoUpdateDTO {
+		private static final long serialVersionUID = 1L;
+
+		@Schema(description = "TODO ID", requiredMode = Schema.RequiredMode.REQUIRED, example = "1")
+		private Long id;
+
+	}
+
+}
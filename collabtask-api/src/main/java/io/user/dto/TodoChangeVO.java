@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * TODO 变化 VO（增量同步）
+ *
+ * op 为 UPSERT 时附带当前的 TODO；DELETE（已删除）/ REVOKE（已不可见）只有 todoId，客户端从本地移除
+ *
+ * @author System
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "TODO 变化")
+public class TodoChangeVO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	@Schema(description = "TODO ID")
+	private Long todoId;
+
+	@Schema(description = "变更序号")
+	private Long seq;
+
+	@Schema(description = "变化类型：UPSERT/DELETE/REVOKE")
+	private String op;
+
+	@Schema(description = "当前的 TODO（op = UPSERT 时返回）")
+	private TodoVO todo;
+
+	public static TodoChangeVO of(Long todoId, Long seq, String op, TodoVO todo) {
+		TodoChangeVO change = new TodoChangeVO();
+		change.setTodoId(todoId);
+		change.setSeq(seq);
+		change.setOp(op);
+		change.setTodo(todo);
+		return change;
+	}
+
+}
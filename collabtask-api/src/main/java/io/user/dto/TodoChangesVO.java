@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * TODO 增量同步结果 VO
+ *
+ * 客户端保存 nextSince，下次请求作为 since 传入；hasMore 为 true 时立即继续拉取。
+ * reset 为 true 表示需要先全量拉取列表（首次同步），之后从 nextSince 开始增量拉取。
+ *
+ * @author System
+ */
+@Data
+@Schema(description = "TODO 增量同步结果")
+public class TodoChangesVO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	@Schema(description = "since 之后的变化（按序号升序，每个 TODO 只返回最新一次）")
+	private List<TodoChangeVO> changes;
+
+	@Schema(description = "下次请求的 since")
+	private Long nextSince;
+
+	@Schema(description = "是否还有更多变化")
+	private Boolean hasMore;
+
+	@Schema(description = "是否需要先全量拉取列表")
+	private Boolean reset;
+
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.dto;
+
+import io.user.common.exception.RenException;
+import io.user.common.utils.JsonUtils;
+import io.user.entity.TodoEntity;
+import io.user.enums.TodoSortField;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * TODO列表游标
+ * 
+ * 编码上一页最后一行的排序值和ID，对客户端不透明（Base64URL(JSON)）。
+ * 同时记录排序字段和方向，换了排序条件的游标直接拒绝。
+ *
+ * @author System
+ */
+@Data
+public class TodoCursor implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	/** 排序字段代码 */
+	private String o;
+	
+	/** 排序方向：asc/desc */
+	private String d;
+	
+	/** 排序值：日期列为毫秒时间戳，整数列为十进制数，其余为字符串，null 表示该行排序列为空 */
+	private String v;
+	
+	/** 最后一行ID */
+	private Long i;
+	
+	/**
+	 * 由最后一行生成游标
+	 */
+	public static String encode(TodoEntity last, TodoSortField sortField, boolean desc) {
+		TodoCursor cursor = new TodoCursor();
+		cursor.setO(sortField.getCode());
+		cursor.setD(desc ? "desc" : "asc");
+		cursor.setI(last.getId());
+		
+		Object value = sortValue(last, sortField);
+		if (value instanceof Date) {
+			cursor.setV(String.valueOf(((Date) value).getTime()));
+		} else if (value != null) {
+			cursor.setV(value.toString());
+		}
+		
+		byte[] json = JsonUtils.toJsonString(cursor).getBytes(StandardCharsets.UTF_8);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+	}
+	
+	/**
+	 * 解析游标并写入查询条件
+	 * 
+	 * @param token 客户端传回的 nextCursor，为空表示第一页
+	 */
+	public static void apply(String token, TodoQueryCondition condition) {
+		if (token == null || token.isEmpty()) {
+			return;
+		}
+		
+		TodoCursor cursor;
+		try {
+			byte[] json = Base64.getUrlDecoder().decode(token);
+			cursor = JsonUtils.parseObject(new String(json, StandardCharsets.UTF_8), TodoCursor.class);
+		} catch (RuntimeException e) {
+			throw new RenException("游标无效");
+		}
+		if (cursor == null || cursor.getI() == null) {
+			throw new RenException("游标无效");
+		}
+		
+		TodoSortField sortField = condition.getSortField();
+		if (!sortField.getCode().equals(cursor.getO()) || !(condition.isDesc() ? "desc" : "asc").equals(cursor.getD())) {
+			throw new RenException("游标与排序条件不匹配");
+		}
+		
+		if (cursor.getV() != null && sortField.isDateValued()) {
+			try {
+				condition.setCursorValue(new Date(Long.parseLong(cursor.getV())));
+			} catch (NumberFormatException e) {
+				throw new RenException("游标无效");
+			}
+		} else if (cursor.getV() != null && sortField.isIntValued()) {
+			try {
+				condition.setCursorValue(Integer.valueOf(cursor.getV()));
+			} catch (NumberFormatException e) {
+				throw new RenException("游标无效");
+			}
+		} else {
+			condition.setCursorValue(cursor.getV());
+		}
+		condition.setCursorId(cursor.getI());
+	}
+	
+	private static Object sortValue(TodoEntity entity, TodoSortField sortField) {
+		switch (sortField) {
+			case DUE_DATE:
+				return entity.getDueDate();
+			case PRIORITY:
+				return entity.getPriorityRank();
+			case STATUS:
+				return entity.getStatus();
+			default:
+				return entity.getCreateDate();
+		}
+	}
+}
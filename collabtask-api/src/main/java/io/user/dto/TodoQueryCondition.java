@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.dto;
+
+import io.user.enums.TodoListPlan;
+import io.user.enums.TodoSortField;
+import lombok.Data;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * TODO列表查询条件（TodoDao 查询参数）
+ * 
+ * 由 TodoQueryDTO 构造，排序列来自 TodoSortField 白名单。
+ * cursorId 不为空时按游标续查（seek），否则按 offset 分页。
+ * plan 决定 TodoDao.xml 使用的查询形态，见 TodoListPlan。
+ *
+ * @author System
+ */
+@Data
+public class TodoQueryCondition {
+	
+	/** 当前用户ID */
+	private Long userId;
+	
+	private String keyword;
+	
+	/** 关键词的搜索词项（见 TodoSearchIndex），为空时关键词走 LIKE 全扫描 */
+	private List<String> searchTerms;
+	
+	private String status;
+	
+	private String priority;
+	
+	private Long teamId;
+	
+	/** 标签筛选（EXISTS 半连接） */
+	private List<Long> tagIds;
+	
+	/** true=包含全部标签，false=包含任一标签 */
+	private boolean tagMatchAll;
+	
+	/** 内存标签索引算出的候选 TODO ID（见 TodoTagIndex），不为空时代替 tagIds 的 EXISTS 条件 */
+	private List<Long> tagTodoIds;
+	
+	private Date dueDateStart;
+	
+	private Date dueDateEnd;
+	
+	/** 排序字段 */
+	private TodoSortField sortField = TodoSortField.CREATE_DATE;
+	
+	/** 是否降序 */
+	private boolean desc = true;
+	
+	private Long offset = 0L;
+	
+	private Integer limit;
+	
+	/** 游标：上一页最后一行的排序值（Date、Integer 或 String，可为 null） */
+	private Object cursorValue;
+	
+	/** 游标：上一页最后一行的ID */
+	private Long cursorId;
+	
+	/** 查询计划 */
+	private TodoListPlan plan = TodoListPlan.UNION;
+	
+	/** 计数上限（每个分支），为空时精确计数，见 TodoCountMode#ESTIMATED */
+	private Integer countCap;
+	
+	/**
+	 * 排序列（供 XML 使用，白名单内的列名）
+	 */
+	public String getSortColumn() {
+		return "t." + sortField.getColumn();
+	}
+	
+	/**
+	 * 不带表别名的排序列（UNION 外层排序使用）
+	 */
+	public String getSortColumnName() {
+		return sortField.getColumn();
+	}
+	
+	/**
+	 * UNION 计划中每个分支需要取的行数：外层 offset 之前的行也可能来自任一分支
+	 */
+	public long getBranchLimit() {
+		return offset + limit;
+	}
+	
+	/**
+	 * 搜索词项数（供 XML 使用：候选 TODO 需命中全部词项）
+	 */
+	public int getSearchTermCount() {
+		return searchTerms != null ? searchTerms.size() : 0;
+	}
+	
+	/**
+	 * 排序方向（供 XML 使用）
+	 */
+	public String getSortDirection() {
+		return desc ? "DESC" : "ASC";
+	}
+}
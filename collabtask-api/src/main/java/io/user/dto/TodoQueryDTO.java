@@ -13,6 +13,7 @@ import lombok.Data;
 
 import java.io.Serializable;
 import java.util.Date;
+import java.util.List;
 
 /**
  * TODO 查询请求 DTO
@@ -39,6 +40,12 @@ public class TodoQueryDTO implements Serializable {
 	@Schema(description = "标签ID筛选", example = "456")
 	private Long tagId;
 	
+	@Schema(description = "多标签筛选（与 tagId 合并，最多20个）", example = "[456, 789]")
+	private List<Long> tagIds;
+	
+	@Schema(description = "多标签匹配方式：ANY（任一标签，默认）/ALL（全部标签）", example = "ANY", allowableValues = {"ANY", "ALL"})
+	private String tagMatch;
+	
 	@Schema(description = "截止日期开始", example = "2025-11-01")
 	private Date dueDateStart;
 	
@@ -56,6 +63,17 @@ public class TodoQueryDTO implements Serializable {
 	
 	@Schema(description = "每页数量", example = "20")
 	private Integer limit = 20;
+	
+	@Schema(description = "游标（传入即使用游标分页并忽略页码：第一页传空字符串，之后传上一页返回的 nextCursor）")
+	private String cursor;
+	
+	@Schema(description = "总数计算方式：EXACT（精确，默认）/CACHED（缓存）/ESTIMATED（上限1000的估算）/NONE（不计数，只返回hasMore）", 
+		example = "EXACT",
+		allowableValues = {"EXACT", "CACHED", "ESTIMATED", "NONE"})
+	private String countMode;
+	
+	@Schema(description = "附加返回内容，逗号分隔：tags（本人创建的 TODO 附带标签）", example = "tags")
+	private String include;
 
 }
 
@@ -0,0 +1,43 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * TODO到期提醒（投递给 ReminderNotifier 的内容）
+ *
+ * @author System
+ */
+@Data
+public class TodoReminder implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	/** TODO ID */
+	private Long todoId;
+
+	/** 接收人（TODO 创建者） */
+	private Long userId;
+
+	/** TODO 名称 */
+	private String todoName;
+
+	/** 截止日期 */
+	private Date dueDate;
+
+	/** 提醒类型：DUE_SOON/DUE_TODAY */
+	private String type;
+
+	/** 计划提醒时间 */
+	private Date remindAt;
+
+}
@@ -0,0 +1,28 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.dto;
+
+import lombok.Data;
+
+/**
+ * TODO 关联标签查询行（tb_todo_tags JOIN tb_tags，TodoTagDao#selectTagsByTodoIds 使用）
+ *
+ * @author System
+ */
+@Data
+public class TodoTagRow {
+	
+	private Long todoId;
+	
+	private Long tagId;
+	
+	private String name;
+	
+	private String color;
+}
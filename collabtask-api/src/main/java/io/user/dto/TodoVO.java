@@ -8,11 +8,13 @@
 
 package io.user.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 
 import java.io.Serializable;
 import java.util.Date;
+import java.util.List;
 
 /**
  * TODO 响应 VO
@@ -62,6 +64,13 @@ public class TodoVO implements Serializable {
 	
 	@Schema(description = "更新时间", example = "2025-11-10 10:30:00")
 	private Date updateDate;
+	
+	@Schema(description = "当前用户的权限位掩码：1=VIEW, 2=EDIT, 4=DELETE, 8=SHARE, 16=OWNER（仅列表接口返回）", example = "31")
+	private Integer permissionMask;
+	
+	@Schema(description = "标签（仅列表接口 include=tags 且为本人创建的 TODO 时返回）")
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private List<TagVO> tags;
 
 }
 
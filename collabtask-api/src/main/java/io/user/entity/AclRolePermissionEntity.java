@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * ACL 角色权限实体类
+ * 
+ * 对应数据库表：tb_acl_role_permissions
+ * 角色对某类资源的全局权限（不针对具体资源ID）
+ * 
+ * @author System
+ */
+@Data
+@TableName("tb_acl_role_permissions")
+public class AclRolePermissionEntity implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	@TableId(type = IdType.AUTO)
+	private Long id;
+	
+	@TableField("role_code")
+	private String roleCode;
+	
+	@TableField("resource_type")
+	private String resourceType;
+	
+	@TableField("permission_code")
+	private String permissionCode;
+	
+	@TableField("create_date")
+	private Date createDate;
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * TODO变更流实体类
+ * 
+ * 对应数据库表：tb_todo_changes（联合主键 (user_id, todo_id)，每个用户每个TODO只保留最新一次变化）
+ * 
+ * @author System
+ */
+@Data
+@TableName("tb_todo_changes")
+public class TodoChangeEntity implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * 用户ID（联合主键之一）
+	 */
+	@TableId(type = IdType.NONE)
+	@TableField("user_id")
+	private Long userId;
+	
+	/**
+	 * TODO ID（联合主键之一）
+	 */
+	@TableField("todo_id")
+	private Long todoId;
+	
+	/**
+	 * 该用户的变更序号（单调递增）
+	 */
+	@TableField("seq")
+	private Long seq;
+	
+	/**
+	 * 变化类型：UPSERT/DELETE/REVOKE
+	 */
+	@TableField("op")
+	private String op;
+	
+	/**
+	 * 变化时间
+	 */
+	@TableField("change_date")
+	private Date changeDate;
+}
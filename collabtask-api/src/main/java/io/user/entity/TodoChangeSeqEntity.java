@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * TODO变更流用户序号实体类
+ * 
+ * 对应数据库表：tb_todo_change_seq
+ * 
+ * @author System
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("tb_todo_change_seq")
+public class TodoChangeSeqEntity implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * 用户ID
+	 */
+	@TableId(type = IdType.INPUT)
+	@TableField("user_id")
+	private Long userId;
+	
+	/**
+	 * 当前最大序号（批量递增时为增量）
+	 */
+	@TableField("seq")
+	private Long seq;
+}
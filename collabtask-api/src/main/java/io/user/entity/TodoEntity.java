@@ -73,6 +73,13 @@ public class TodoEntity implements Serializable {
 	@TableField("priority")
 	private String priority;
 	
+	/**
+	 * 优先级排序权重：LOW=1/MEDIUM=2/HIGH=3/URGENT=4，与 priority 同时写入，见 TodoPriority#rank
+	 * 数据库字段：priority_rank TINYINT NOT NULL DEFAULT 2
+	 */
+	@TableField("priority_rank")
+	private Integer priorityRank;
+	
 	/**
 	 * 创建者ID
 	 * 数据库字段：user_id BIGINT NOT NULL
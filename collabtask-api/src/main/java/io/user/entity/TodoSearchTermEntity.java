@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * TODO搜索词项实体类
+ * 
+ * 对应数据库表：tb_todo_search_terms（倒排索引，联合主键 (term, todo_id)）
+ * 
+ * @author System
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("tb_todo_search_terms")
+public class TodoSearchTermEntity implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * 词项（联合主键之一）
+	 */
+	@TableId(type = IdType.NONE)
+	@TableField("term")
+	private String term;
+	
+	/**
+	 * TODO ID（联合主键之一）
+	 */
+	@TableField("todo_id")
+	private Long todoId;
+}
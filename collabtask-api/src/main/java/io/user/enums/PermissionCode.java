@@ -11,6 +11,8 @@ package io.user.enums;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import java.util.Collection;
+
 /**
  * 权限代码枚举
  * 
@@ -24,19 +26,19 @@ import lombok.Getter;
 public enum PermissionCode {
 	
 	/** 查看权限 */
-	VIEW("VIEW", "查看"),
+	VIEW("VIEW", "查看", 1),
 	
 	/** 编辑权限 */
-	EDIT("EDIT", "编辑"),
+	EDIT("EDIT", "编辑", 1 << 1),
 	
 	/** 删除权限 */
-	DELETE("DELETE", "删除"),
+	DELETE("DELETE", "删除", 1 << 2),
 	
 	/** 分享权限 */
-	SHARE("SHARE", "分享"),
+	SHARE("SHARE", "分享", 1 << 3),
 	
 	/** 所有者权限（最高权限） */
-	OWNER("OWNER", "所有者");
+	OWNER("OWNER", "所有者", 1 << 4);
 	
 	/** 权限代码（数据库存储值） */
 	private final String code;
@@ -44,6 +46,9 @@ public enum PermissionCode {
 	/** 权限名称 */
 	private final String name;
 	
+	/** 权限位（批量权限计算返回的位掩码，前端按位判断） */
+	private final int bit;
+	
 	/**
 	 * 根据code获取枚举
 	 */
@@ -55,5 +60,23 @@ public enum PermissionCode {
 		}
 		throw new IllegalArgumentException("未知的权限代码: " + code);
 	}
+	
+	/**
+	 * 计算权限集合的位掩码
+	 */
+	public static int maskOf(Collection<PermissionCode> permissions) {
+		int mask = 0;
+		for (PermissionCode permission : permissions) {
+			mask |= permission.bit;
+		}
+		return mask;
+	}
+	
+	/**
+	 * 位掩码是否包含该权限
+	 */
+	public boolean in(int mask) {
+		return (mask & bit) != 0;
+	}
 }
 
@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * TODO变更流变化类型
+ * 
+ * 对应数据库表：tb_todo_changes.op
+ *
+ * @author System
+ */
+@Getter
+@AllArgsConstructor
+public enum TodoChangeOp {
+	
+	/** 创建或修改（含完成、新获得访问权限） */
+	UPSERT("UPSERT", "创建或修改"),
+	
+	/** 删除（墓碑） */
+	DELETE("DELETE", "删除"),
+	
+	/** 失去访问权限（撤销共享、退出团队、授权过期；读取时仍可见的按修改返回） */
+	REVOKE("REVOKE", "撤销访问");
+	
+	/** 类型代码 */
+	private final String code;
+	
+	/** 类型名称 */
+	private final String name;
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * TODO列表总数计算方式
+ * 
+ * 所有方式都会多取一行返回 hasMore；最后一页不满时直接由 offset + 行数得出总数，不再计数
+ *
+ * @author System
+ */
+@Getter
+@AllArgsConstructor
+public enum TodoCountMode {
+	
+	/** 精确计数（默认） */
+	EXACT("EXACT", "精确"),
+	
+	/** 精确计数并按 用户 + 筛选条件 缓存，写操作后失效 */
+	CACHED("CACHED", "缓存"),
+	
+	/** 有上限的计数：每个分支最多数到 ESTIMATE_CAP 行，超过时 total 为下限 */
+	ESTIMATED("ESTIMATED", "估算"),
+	
+	/** 不计数，total 为 -1，只返回 hasMore（移动端无限滚动） */
+	NONE("NONE", "不计数");
+	
+	/** ESTIMATED 每个分支最多计数的行数 */
+	public static final int ESTIMATE_CAP = 1000;
+	
+	/** 计数方式代码 */
+	private final String code;
+	
+	/** 计数方式名称 */
+	private final String name;
+	
+	/**
+	 * 根据code获取枚举，为空或未知时精确计数
+	 */
+	public static TodoCountMode fromCode(String code) {
+		for (TodoCountMode mode : values()) {
+			if (mode.code.equalsIgnoreCase(String.valueOf(code))) {
+				return mode;
+			}
+		}
+		return EXACT;
+	}
+}
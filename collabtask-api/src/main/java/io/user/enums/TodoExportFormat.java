@@ -0,0 +1,49 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * TODO导出格式
+ *
+ * @author System
+ */
+@Getter
+@AllArgsConstructor
+public enum TodoExportFormat {
+	
+	/** 每行一个 JSON 对象（默认） */
+	NDJSON("ndjson", "application/x-ndjson;charset=UTF-8", "ndjson"),
+	
+	/** CSV（带 UTF-8 BOM，Excel 可直接打开中文） */
+	CSV("csv", "text/csv;charset=UTF-8", "csv");
+	
+	/** 格式代码 */
+	private final String code;
+	
+	/** 响应 Content-Type */
+	private final String contentType;
+	
+	/** 文件扩展名 */
+	private final String extension;
+	
+	/**
+	 * 根据code获取枚举，为空或未知时返回 NDJSON
+	 */
+	public static TodoExportFormat fromCode(String code) {
+		for (TodoExportFormat format : values()) {
+			if (format.code.equalsIgnoreCase(String.valueOf(code))) {
+				return format;
+			}
+		}
+		return NDJSON;
+	}
+}
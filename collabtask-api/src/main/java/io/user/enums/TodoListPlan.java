@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * TODO列表（我创建的 + 共享给我的）查询计划
+ * 
+ * 对应 TodoDao.xml 中 selectMyTodosPage / countMyTodos 的三种形态
+ *
+ * @author System
+ */
+@Getter
+@AllArgsConstructor
+public enum TodoListPlan {
+	
+	/** 只查我创建的：tb_todos(user_id, 排序列) 索引范围扫描 */
+	OWNED_ONLY("OWNED_ONLY", "仅本人"),
+	
+	/**
+	 * 我创建的、共享给我的两个分支各自走索引并下推 ORDER BY / LIMIT，
+	 * UNION ALL 合并后再排序取页（共享分支排除 user_id = 本人，两分支不重叠）
+	 */
+	UNION("UNION", "分支合并"),
+	
+	/** LEFT JOIN ACL + DISTINCT：页码很深时避免每个分支物化 offset + limit 行 */
+	JOIN("JOIN", "联表去重");
+	
+	/** UNION 计划每个分支最多物化的行数，超过后退回 JOIN（深分页应改用游标） */
+	public static final long UNION_MAX_BRANCH_ROWS = 1000;
+	
+	/** 计划代码 */
+	private final String code;
+	
+	/** 计划名称 */
+	private final String name;
+	
+	/**
+	 * 选择查询计划
+	 * 
+	 * @param mightHaveShares 用户是否可能有共享（见 AclShareMarker）
+	 * @param branchLimit 每个分支需要取的行数（offset + limit）
+	 */
+	public static TodoListPlan choose(boolean mightHaveShares, long branchLimit) {
+		if (!mightHaveShares) {
+			return OWNED_ONLY;
+		}
+		return branchLimit <= UNION_MAX_BRANCH_ROWS ? UNION : JOIN;
+	}
+}
@@ -14,7 +14,7 @@ import lombok.Getter;
 /**
  * TODO优先级枚举
  * 
- * 对应数据库表：tb_todos.priority
+ * 对应数据库表：tb_todos.priority（代码）、tb_todos.priority_rank（排序权重）
  *
  * @author System
  */
@@ -23,16 +23,16 @@ import lombok.Getter;
 public enum TodoPriority {
 	
 	/** 低优先级 */
-	LOW("LOW", "低"),
+	LOW("LOW", "低", 1),
 	
 	/** 中优先级 */
-	MEDIUM("MEDIUM", "中"),
+	MEDIUM("MEDIUM", "中", 2),
 	
 	/** 高优先级 */
-	HIGH("HIGH", "高"),
+	HIGH("HIGH", "高", 3),
 	
 	/** 紧急 */
-	URGENT("URGENT", "紧急");
+	URGENT("URGENT", "紧急", 4);
 	
 	/** 优先级代码 */
 	private final String code;
@@ -40,6 +40,9 @@ public enum TodoPriority {
 	/** 优先级名称 */
 	private final String name;
 	
+	/** 排序权重（越大越紧急），按优先级排序时使用，不能按代码字符串排序 */
+	private final int rank;
+	
 	/**
 	 * 根据code获取枚举
 	 */
@@ -0,0 +1,41 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TODO到期提醒类型
+ * 
+ * 提醒时间 = 截止日期 - offsetMillis
+ *
+ * @author System
+ */
+@Getter
+@AllArgsConstructor
+public enum TodoReminderType {
+	
+	/** 到期前 24 小时 */
+	DUE_SOON("DUE_SOON", "即将到期", TimeUnit.HOURS.toMillis(24)),
+	
+	/** 到期当天（截止时间点） */
+	DUE_TODAY("DUE_TODAY", "今日到期", 0);
+	
+	/** 类型代码 */
+	private final String code;
+	
+	/** 类型名称 */
+	private final String name;
+	
+	/** 提醒时间相对截止日期提前的毫秒数 */
+	private final long offsetMillis;
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * TODO列表排序字段（白名单）
+ * 
+ * 排序列直接拼入 SQL（ORDER BY / 游标条件），只允许这里列出的列；
+ * 同值时按 t.id 同方向排序，保证顺序稳定、游标可续。
+ *
+ * @author System
+ */
+@Getter
+@AllArgsConstructor
+public enum TodoSortField {
+	
+	/** 创建时间（默认） */
+	CREATE_DATE("create_date", "create_date", true, false),
+	
+	/** 截止日期（可为空） */
+	DUE_DATE("due_date", "due_date", true, false),
+	
+	/** 优先级（按 TodoPriority 排序权重，降序即紧急在前） */
+	PRIORITY("priority", "priority_rank", false, true),
+	
+	/** 状态 */
+	STATUS("status", "status", false, false);
+	
+	/** 排序字段代码（请求参数 orderBy） */
+	private final String code;
+	
+	/** tb_todos 列名 */
+	private final String column;
+	
+	/** 是否为日期列（游标中按毫秒时间戳编码） */
+	private final boolean dateValued;
+	
+	/** 是否为整数列（游标中按十进制编码） */
+	private final boolean intValued;
+	
+	/**
+	 * 根据code获取枚举，未知或为空时按创建时间排序
+	 */
+	public static TodoSortField fromCode(String code) {
+		for (TodoSortField field : values()) {
+			if (field.code.equals(code)) {
+				return field;
+			}
+		}
+		return CREATE_DATE;
+	}
+}
@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.user.assembler.TodoVOAssembler;
+import io.user.common.utils.DateUtils;
+import io.user.dao.TodoDao;
+import io.user.dto.TodoQueryCondition;
+import io.user.dto.TodoVO;
+import io.user.entity.TodoEntity;
+import io.user.enums.TodoExportFormat;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * TODO 流式导出（NDJSON / CSV）
+ *
+ * 1. TodoDao#streamMyTodos 返回 MyBatis Cursor（fetchSize = Integer.MIN_VALUE，MySQL 驱动逐行流式读取），
+ *    游标必须在只读事务内迭代，连接在整个导出期间被占用
+ * 2. 每 CHUNK_SIZE 行转换为 VO 并批量补充用户名 / 团队名（TodoVOAssembler），写出后即丢弃；
+ *    流式结果集未读完时同一连接不能执行其他语句，补充查询在 REQUIRES_NEW 事务中使用另一个连接
+ * 3. 输出经固定大小的缓冲区直接写入响应流，每个分块结束时 flush
+ *
+ * 内存占用与导出行数无关，只与分块大小有关。
+ *
+ * @author System
+ */
+@Slf4j
+@Component
+public class TodoExporter {
+
+	/** 每个分块的行数（一次用户名 / 团队名批量查询） */
+	private static final int CHUNK_SIZE = 500;
+
+	/** 输出缓冲区大小 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final String[] CSV_HEADER = {
+		"id", "name", "description", "status", "priority", "dueDate",
+		"userId", "username", "teamId", "teamName", "completedAt", "createDate", "updateDate"
+	};
+
+	private final TodoDao todoDao;
+	private final TodoVOAssembler todoVOAssembler;
+	private final TransactionTemplate transactionTemplate;
+	private final TransactionTemplate enrichTemplate;
+	/** 与接口响应相同的 JSON 格式（日期格式、Long 转字符串） */
+	private final ObjectMapper objectMapper;
+
+	public TodoExporter(TodoDao todoDao, TodoVOAssembler todoVOAssembler,
+						PlatformTransactionManager transactionManager,
+						MappingJackson2HttpMessageConverter jackson2HttpMessageConverter) {
+		this.todoDao = todoDao;
+		this.todoVOAssembler = todoVOAssembler;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setReadOnly(true);
+		this.enrichTemplate = new TransactionTemplate(transactionManager);
+		this.enrichTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.enrichTemplate.setReadOnly(true);
+		this.objectMapper = jackson2HttpMessageConverter.getObjectMapper();
+	}
+
+	/**
+	 * 导出查询条件下可见的全部 TODO
+	 *
+	 * @return 写出的行数；客户端中途断开时返回 -1
+	 */
+	public long export(TodoQueryCondition condition, TodoExportFormat format, OutputStream out) {
+		long start = System.currentTimeMillis();
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+		try {
+			Long rows = transactionTemplate.execute(status -> {
+				try (Cursor<TodoEntity> cursor = todoDao.streamMyTodos(condition)) {
+					writeHeader(writer, format);
+
+					long count = 0;
+					List<TodoEntity> chunk = new ArrayList<>(CHUNK_SIZE);
+					for (TodoEntity todo : cursor) {
+						chunk.add(todo);
+						if (chunk.size() == CHUNK_SIZE) {
+							count += writeChunk(writer, format, chunk);
+							chunk.clear();
+						}
+					}
+					count += writeChunk(writer, format, chunk);
+					writer.flush();
+					return count;
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			log.info("TODO导出完成：userId={}, format={}, rows={}, cost={}ms",
+				condition.getUserId(), format.getCode(), rows, System.currentTimeMillis() - start);
+			return rows != null ? rows : 0;
+		} catch (UncheckedIOException e) {
+			// 响应已经开始写出，无法再返回错误信息
+			log.warn("TODO导出中断：userId={}, format={}", condition.getUserId(), format.getCode(), e);
+			return -1;
+		}
+	}
+
+	private void writeHeader(Writer writer, TodoExportFormat format) throws IOException {
+		if (format == TodoExportFormat.CSV) {
+			// UTF-8 BOM
+			writer.write('\uFEFF');
+			writeCsvLine(writer, CSV_HEADER);
+		}
+	}
+
+	private int writeChunk(Writer writer, TodoExportFormat format, List<TodoEntity> chunk) throws IOException {
+		if (chunk.isEmpty()) {
+			return 0;
+		}
+
+		List<TodoVO> voList = chunk.stream().map(TodoVOAssembler::convert).collect(Collectors.toList());
+		enrichTemplate.executeWithoutResult(status -> todoVOAssembler.enrich(voList));
+
+		for (TodoVO vo : voList) {
+			if (format == TodoExportFormat.CSV) {
+				writeCsvLine(writer, new String[]{
+					str(vo.getId()), vo.getName(), vo.getDescription(), vo.getStatus(), vo.getPriority(),
+					date(vo.getDueDate()), str(vo.getUserId()), vo.getUsername(), str(vo.getTeamId()), vo.getTeamName(),
+					date(vo.getCompletedAt()), date(vo.getCreateDate()), date(vo.getUpdateDate())
+				});
+			} else {
+				writer.write(objectMapper.writeValueAsString(vo));
+				writer.write('\n');
+			}
+		}
+		writer.flush();
+		return voList.size();
+	}
+
+	private static void writeCsvLine(Writer writer, String[] values) throws IOException {
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) {
+				writer.write(',');
+			}
+			writer.write(csv(values[i]));
+		}
+		writer.write("\r\n");
+	}
+
+	/**
+	 * CSV 转义：含逗号 / 引号 / 换行时加引号；以 = + - @ 或制表符 / 回车开头的加单引号前缀，防止表格软件当作公式执行
+	 */
+	private static String csv(String value) {
+		if (value == null || value.isEmpty()) {
+			return "";
+		}
+		String text = value;
+		char first = text.charAt(0);
+		if (first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r') {
+			text = "'" + text;
+		}
+		if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+			return '"' + text.replace("\"", "\"\"") + '"';
+		}
+		return text;
+	}
+
+	private static String str(Long value) {
+		return value != null ? value.toString() : null;
+	}
+
+	private static String date(Date value) {
+		return value != null ? DateUtils.format(value, DateUtils.DATE_TIME_PATTERN) : null;
+	}
+}
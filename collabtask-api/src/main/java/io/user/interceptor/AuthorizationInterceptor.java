@@ -10,6 +10,7 @@ package io.user.interceptor;
 
 import cn.hutool.core.util.StrUtil;
 import io.user.common.annotation.Login;
+import io.user.common.context.ResourceContextHolder;
 import io.user.common.exception.ErrorCode;
 import io.user.common.exception.RenException;
 import io.user.entity.TokenEntity;
@@ -69,4 +70,10 @@ public class AuthorizationInterceptor implements HandlerInterceptor {
 
         return true;
     }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        //清空请求内缓存的资源实体，避免线程复用时泄漏
+        ResourceContextHolder.clear();
+    }
 }
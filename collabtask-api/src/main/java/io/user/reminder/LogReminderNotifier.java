@@ -0,0 +1,37 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.reminder;
+
+import io.user.common.utils.DateUtils;
+import io.user.dto.TodoReminder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 日志提醒投递（本地开发 / 测试使用）
+ *
+ * @author System
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "collabtask.todo.reminder", name = "notifier", havingValue = "log", matchIfMissing = true)
+public class LogReminderNotifier implements ReminderNotifier {
+
+	@Override
+	public void deliver(List<TodoReminder> reminders) {
+		for (TodoReminder reminder : reminders) {
+			log.info("TODO到期提醒：type={}, userId={}, todoId={}, name={}, dueDate={}",
+				reminder.getType(), reminder.getUserId(), reminder.getTodoId(), reminder.getTodoName(),
+				DateUtils.format(reminder.getDueDate(), DateUtils.DATE_TIME_PATTERN));
+		}
+	}
+}
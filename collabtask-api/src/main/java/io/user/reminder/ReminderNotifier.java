@@ -0,0 +1,32 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.reminder;
+
+import io.user.dto.TodoReminder;
+
+import java.util.List;
+
+/**
+ * TODO到期提醒投递
+ *
+ * 由 TodoReminderScheduler 在提醒线程中批量调用（一批可能包含多个用户），实现应尽快返回，
+ * 耗时的推送（邮件、站内信、WebSocket）自行异步化。同一条提醒在集群内只投递一次（Redis 去重）。
+ *
+ * 默认实现为 LogReminderNotifier（collabtask.todo.reminder.notifier=log），
+ * 其他实现注册为 Bean 并把 notifier 配置改为对应的值即可替换。
+ *
+ * @author System
+ */
+public interface ReminderNotifier {
+
+	/**
+	 * 批量投递提醒
+	 */
+	void deliver(List<TodoReminder> reminders);
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.reminder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 分层时间轮（单节点内的提醒定时）
+ *
+ * 第一层每格 tickMillis，共 wheelSize 格；超出本层范围的任务放入上一层（每格 = 下层一圈），逐层扩展。
+ * 只有非空的格子进入按到期时间排序的队列，poll 时弹出到期的格子：推进各层时钟，
+ * 把格子里的任务重新放入时间轮——已到期的返回给调用方，未到期的落入更低一层。
+ *
+ * 加入 / 到期都是 O(1)（队列只按格子排序，格子数有上限），与任务数量无关，
+ * 窗口内成千上万条提醒不需要逐条排序或逐条定时器。
+ *
+ * 非线程安全的部分由 synchronized 保护：加载线程、请求线程加入任务，提醒线程 poll。
+ *
+ * @author System
+ */
+public class ReminderTimingWheel<T extends ReminderTimingWheel.Task> {
+
+	/**
+	 * 时间轮中的任务
+	 */
+	public interface Task {
+
+		/** 到期时间（毫秒时间戳） */
+		long getFireTime();
+
+		/** 已取消的任务到期时直接丢弃 */
+		boolean isCancelled();
+	}
+
+	private final PriorityQueue<Bucket<T>> queue = new PriorityQueue<>((a, b) -> Long.compare(a.expiration, b.expiration));
+	private final Level<T> root;
+	private int size;
+
+	public ReminderTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+		this.root = new Level<>(tickMillis, wheelSize, startMillis, queue);
+	}
+
+	/**
+	 * 加入任务
+	 *
+	 * @return false 表示任务已经到期（不足一格），调用方应立即处理
+	 */
+	public synchronized boolean add(T task) {
+		if (!root.add(task)) {
+			return false;
+		}
+		size++;
+		return true;
+	}
+
+	/**
+	 * 取出到 now 为止到期的任务（已取消的不返回）
+	 */
+	public synchronized List<T> poll(long now) {
+		List<T> expired = new ArrayList<>();
+		Bucket<T> bucket;
+		while ((bucket = queue.peek()) != null && bucket.expiration <= now) {
+			queue.poll();
+			root.advanceClock(bucket.expiration);
+			for (T task : bucket.flush()) {
+				if (task.isCancelled()) {
+					size--;
+				} else if (!root.add(task)) {
+					size--;
+					expired.add(task);
+				}
+			}
+		}
+		return expired;
+	}
+
+	/**
+	 * 时间轮中的任务数（含尚未到期就被取消的）
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * 一层时间轮
+	 */
+	private static final class Level<T extends Task> {
+
+		private final long tickMillis;
+		private final int wheelSize;
+		private final long interval;
+		private final List<Bucket<T>> buckets;
+		private final PriorityQueue<Bucket<T>> queue;
+		private long currentTime;
+		private Level<T> overflow;
+
+		Level(long tickMillis, int wheelSize, long startMillis, PriorityQueue<Bucket<T>> queue) {
+			this.tickMillis = tickMillis;
+			this.wheelSize = wheelSize;
+			this.interval = tickMillis * wheelSize;
+			this.queue = queue;
+			this.currentTime = startMillis - startMillis % tickMillis;
+			this.buckets = new ArrayList<>(wheelSize);
+			for (int i = 0; i < wheelSize; i++) {
+				buckets.add(new Bucket<>());
+			}
+		}
+
+		boolean add(T task) {
+			long expiration = task.getFireTime();
+			if (expiration < currentTime + tickMillis) {
+				return false;
+			}
+			if (expiration < currentTime + interval) {
+				long virtualId = expiration / tickMillis;
+				Bucket<T> bucket = buckets.get((int) (virtualId % wheelSize));
+				bucket.tasks.add(task);
+				// 格子被清空后才会换到期时间，此时它已不在队列中
+				if (bucket.expiration != virtualId * tickMillis) {
+					bucket.expiration = virtualId * tickMillis;
+					queue.add(bucket);
+				}
+				return true;
+			}
+			if (overflow == null) {
+				overflow = new Level<>(interval, wheelSize, currentTime, queue);
+			}
+			return overflow.add(task);
+		}
+
+		void advanceClock(long time) {
+			if (time >= currentTime + tickMillis) {
+				currentTime = time - time % tickMillis;
+				if (overflow != null) {
+					overflow.advanceClock(currentTime);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 一个格子：同一到期时间（按本层精度）的任务
+	 */
+	private static final class Bucket<T> {
+
+		private List<T> tasks = new ArrayList<>();
+		private long expiration = -1;
+
+		List<T> flush() {
+			List<T> flushed = tasks;
+			tasks = new ArrayList<>();
+			expiration = -1;
+			return flushed;
+		}
+	}
+}
@@ -0,0 +1,527 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.reminder;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.user.common.redis.RedisKeys;
+import io.user.dao.TodoDao;
+import io.user.dto.TodoReminder;
+import io.user.entity.TodoEntity;
+import io.user.enums.TodoReminderType;
+import io.user.enums.TodoStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * TODO到期提醒调度
+ *
+ * 1. 时间按 window-size 切成固定窗口。各节点定时用 Redis SET NX 租约认领即将开始的窗口
+ *    （每轮最多 claims-per-round 个，多节点自然分摊），认领后按 (due_date, id) 键集分页
+ *    只加载该窗口内需要提醒的 TODO，放入本节点的分层时间轮（ReminderTimingWheel），
+ *    不轮询整张 tb_todos
+ *    每种提醒类型每轮最多加载 max-per-window / 类型数 条（按截止日期从早到晚），超出的部分保留键集游标，
+ *    在之后的认领轮次中继续加载（加载时已过提醒时间的立即投递），不会丢弃
+ * 2. 窗口结束、全部加载完且提醒线程已处理完后把租约改为 DONE；持有节点宕机时租约在窗口结束后过期，
+ *    其他节点在 catch-up-windows 范围内重新认领并补发
+ * 3. 到期的提醒按批处理：一次 IN 查询校验 TODO 仍未完成且截止日期未变（修改 / 删除 / 完成后
+ *    其他节点上的旧任务在这里丢弃），Redis SET NX 去重后批量交给 ReminderNotifier
+ * 4. 创建 / 修改截止日期后调用 reschedule：取消本节点的旧任务；新的提醒时间落在已被认领的窗口时
+ *    由本节点加入时间轮（窗口尚未认领的，认领时从数据库加载）
+ *
+ * 同一条提醒（TODO + 类型 + 截止日期）在集群内只投递一次；Redis 不可用时不去重（宁可重复不遗漏）。
+ *
+ * @author System
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TodoReminderScheduler {
+
+	private static final String DONE = "DONE";
+
+	private final TodoDao todoDao;
+	private final StringRedisTemplate stringRedisTemplate;
+	private final ReminderNotifier reminderNotifier;
+
+	@Value("${collabtask.todo.reminder.enabled:true}")
+	private boolean enabled;
+
+	@Value("${collabtask.todo.reminder.window-size:300000}")
+	private long windowMillis;
+
+	@Value("${collabtask.todo.reminder.lookahead-windows:3}")
+	private int lookaheadWindows;
+
+	@Value("${collabtask.todo.reminder.catch-up-windows:2}")
+	private int catchUpWindows;
+
+	@Value("${collabtask.todo.reminder.claims-per-round:1}")
+	private int claimsPerRound;
+
+	@Value("${collabtask.todo.reminder.load-batch-size:500}")
+	private int loadBatchSize;
+
+	@Value("${collabtask.todo.reminder.max-per-window:50000}")
+	private int maxPerWindow;
+
+	@Value("${collabtask.todo.reminder.tick:1000}")
+	private long tickMillis;
+
+	@Value("${collabtask.todo.reminder.wheel-size:60}")
+	private int wheelSize;
+
+	@Value("${collabtask.todo.reminder.delivery-batch-size:200}")
+	private int deliveryBatchSize;
+
+	@Value("${collabtask.todo.reminder.lease-grace:120}")
+	private long leaseGraceSeconds;
+
+	@Value("${collabtask.todo.reminder.sent-ttl:172800}")
+	private long sentTtlSeconds;
+
+	private final String nodeId = UUID.randomUUID().toString();
+
+	private ReminderTimingWheel<ReminderTask> wheel;
+	private ScheduledExecutorService ticker;
+
+	/** 本节点持有租约的窗口：窗口序号 -> 提醒线程越过该时间后窗口可以标记 DONE（窗口结束时间与加载完成时间的较大者） */
+	private final Map<Long, Long> claimedWindows = new ConcurrentHashMap<>();
+	/** 超过单轮加载上限、尚未加载完的窗口 */
+	private final Map<Long, WindowLoad> pendingLoads = new ConcurrentHashMap<>();
+	/** 本节点时间轮中的任务（按 TODO 索引，用于 reschedule 取消） */
+	private final Map<Long, List<ReminderTask>> tasksByTodo = new ConcurrentHashMap<>();
+	/** 加入时已到期的任务，由提醒线程下一次 tick 处理 */
+	private final Queue<ReminderTask> overdue = new ConcurrentLinkedQueue<>();
+
+	private volatile long lastTickTime;
+
+	private final LongAdder claimed = new LongAdder();
+	private final LongAdder loaded = new LongAdder();
+	private final LongAdder deferredWindows = new LongAdder();
+	private final LongAdder delivered = new LongAdder();
+	private final LongAdder stale = new LongAdder();
+	private final LongAdder duplicates = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+
+	@PostConstruct
+	public void start() {
+		if (!enabled) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		wheel = new ReminderTimingWheel<>(tickMillis, wheelSize, now);
+		lastTickTime = now;
+		ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "todo-reminder-ticker");
+			thread.setDaemon(true);
+			return thread;
+		});
+		ticker.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * 停止提醒线程，释放未完成窗口的租约（其他节点补发）
+	 */
+	@PreDestroy
+	public void shutdown() {
+		if (ticker == null) {
+			return;
+		}
+		ticker.shutdownNow();
+		pendingLoads.clear();
+		for (Long window : claimedWindows.keySet()) {
+			String key = RedisKeys.getTodoReminderWindowKey(window);
+			try {
+				if (nodeId.equals(stringRedisTemplate.opsForValue().get(key))) {
+					stringRedisTemplate.delete(key);
+				}
+			} catch (Exception e) {
+				log.warn("释放提醒窗口租约失败：window={}", window, e);
+			}
+		}
+		claimedWindows.clear();
+	}
+
+	/**
+	 * 定时认领窗口（默认 30 秒）：先继续加载上一轮未加载完的窗口，再认领新窗口，最后把已处理完的窗口标记为 DONE
+	 */
+	@Scheduled(
+		fixedDelayString = "${collabtask.todo.reminder.claim-interval:30000}",
+		initialDelayString = "${collabtask.todo.reminder.initial-delay:10000}"
+	)
+	public void claimWindows() {
+		if (!enabled) {
+			return;
+		}
+
+		for (WindowLoad load : new ArrayList<>(pendingLoads.values())) {
+			try {
+				continueLoad(load);
+			} catch (Exception e) {
+				failures.increment();
+				log.error("继续加载提醒窗口失败：window={}", load.window, e);
+			}
+		}
+
+		long now = System.currentTimeMillis();
+		long current = now / windowMillis;
+		int claimedThisRound = 0;
+		for (long window = current - catchUpWindows; window <= current + lookaheadWindows && claimedThisRound < claimsPerRound; window++) {
+			if (claimedWindows.containsKey(window)) {
+				continue;
+			}
+
+			long windowEnd = (window + 1) * windowMillis;
+			long leaseMillis = Math.max(windowEnd - now, 0) + TimeUnit.SECONDS.toMillis(leaseGraceSeconds);
+			try {
+				Boolean acquired = stringRedisTemplate.opsForValue()
+					.setIfAbsent(RedisKeys.getTodoReminderWindowKey(window), nodeId, leaseMillis, TimeUnit.MILLISECONDS);
+				if (!Boolean.TRUE.equals(acquired)) {
+					continue;
+				}
+				claimedThisRound++;
+				claimed.increment();
+				claimedWindows.put(window, windowEnd);
+				continueLoad(new WindowLoad(window));
+			} catch (Exception e) {
+				failures.increment();
+				log.error("认领提醒窗口失败：window={}", window, e);
+			}
+		}
+
+		completeWindows();
+	}
+
+	/**
+	 * TODO 创建或截止日期修改后（事务提交后）调用
+	 */
+	public void reschedule(TodoEntity todo) {
+		if (!enabled || todo.getId() == null) {
+			return;
+		}
+
+		List<ReminderTask> previous = tasksByTodo.remove(todo.getId());
+		if (previous != null) {
+			previous.forEach(task -> task.cancelled = true);
+		}
+		if (todo.getDueDate() == null || TodoStatus.COMPLETED.getCode().equals(todo.getStatus())) {
+			return;
+		}
+
+		long now = System.currentTimeMillis();
+		long horizon = (now / windowMillis + lookaheadWindows + 1) * windowMillis;
+		for (TodoReminderType type : TodoReminderType.values()) {
+			long fireTime = todo.getDueDate().getTime() - type.getOffsetMillis();
+			// 已过的提醒不补发；认领范围之外的由之后认领窗口的节点从数据库加载
+			if (fireTime < now || fireTime >= horizon) {
+				continue;
+			}
+			try {
+				if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(RedisKeys.getTodoReminderWindowKey(fireTime / windowMillis)))) {
+					schedule(new ReminderTask(todo.getId(), type, todo.getDueDate().getTime()));
+				}
+			} catch (Exception e) {
+				failures.increment();
+				log.warn("重新调度TODO提醒失败：todoId={}", todo.getId(), e);
+			}
+		}
+	}
+
+	/**
+	 * 监控指标
+	 */
+	public Map<String, Object> getStats() {
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("status", "UP");
+		stats.put("enabled", enabled);
+		stats.put("claimedWindows", claimedWindows.size());
+		stats.put("pending", wheel != null ? wheel.size() : 0);
+		stats.put("claimed", claimed.sum());
+		stats.put("loaded", loaded.sum());
+		stats.put("pendingLoads", pendingLoads.size());
+		stats.put("deferredWindows", deferredWindows.sum());
+		stats.put("delivered", delivered.sum());
+		stats.put("stale", stale.sum());
+		stats.put("duplicates", duplicates.sum());
+		stats.put("failures", failures.sum());
+		stats.put("lastTickTime", lastTickTime);
+		return stats;
+	}
+
+	/**
+	 * 按键集游标加载窗口内需要提醒的 TODO（每种提醒类型一个 due_date 区间、一个游标）
+	 *
+	 * 每种类型本轮最多加载 max-per-window / 类型数 条；未加载完的窗口留在 pendingLoads，下一轮继续
+	 */
+	private void continueLoad(WindowLoad load) {
+		int budget = Math.max(1, maxPerWindow / TodoReminderType.values().length);
+		long windowStart = load.window * windowMillis;
+		int count = 0;
+		for (TypeCursor cursor : load.cursors) {
+			if (cursor.done) {
+				continue;
+			}
+			Date start = new Date(windowStart + cursor.type.getOffsetMillis());
+			Date end = new Date(windowStart + windowMillis + cursor.type.getOffsetMillis());
+
+			int typeCount = 0;
+			while (typeCount < budget) {
+				int limit = Math.min(loadBatchSize, budget - typeCount);
+				List<TodoEntity> rows = todoDao.selectDueBatch(start, end, cursor.afterDueDate, cursor.afterId, limit);
+				for (TodoEntity row : rows) {
+					schedule(new ReminderTask(row.getId(), cursor.type, row.getDueDate().getTime()));
+				}
+				typeCount += rows.size();
+				if (rows.size() < limit) {
+					cursor.done = true;
+					break;
+				}
+				TodoEntity last = rows.get(rows.size() - 1);
+				cursor.afterDueDate = last.getDueDate();
+				cursor.afterId = last.getId();
+			}
+			count += typeCount;
+		}
+		loaded.add(count);
+
+		if (load.isDone()) {
+			pendingLoads.remove(load.window);
+			// 加载完成之后提醒线程至少再跑一轮，才能把窗口标记为 DONE
+			claimedWindows.computeIfPresent(load.window, (window, completeAfter) -> Math.max(completeAfter, System.currentTimeMillis()));
+			log.debug("提醒窗口已加载：window={}, tasks={}", load.window, count);
+		} else if (pendingLoads.put(load.window, load) == null) {
+			deferredWindows.increment();
+			log.info("提醒窗口超过单轮加载上限，其余提醒在后续轮次继续加载：window={}, max={}", load.window, maxPerWindow);
+		}
+	}
+
+	private void schedule(ReminderTask task) {
+		tasksByTodo.computeIfAbsent(task.todoId, k -> new CopyOnWriteArrayList<>()).add(task);
+		if (!wheel.add(task)) {
+			overdue.add(task);
+		}
+	}
+
+	/**
+	 * 提醒线程：取出到期任务并投递
+	 */
+	void tick() {
+		long now = System.currentTimeMillis();
+		try {
+			List<ReminderTask> due = wheel.poll(now);
+			ReminderTask task;
+			while ((task = overdue.poll()) != null) {
+				if (!task.cancelled) {
+					due.add(task);
+				}
+			}
+			for (int i = 0; i < due.size(); i += deliveryBatchSize) {
+				deliver(due.subList(i, Math.min(i + deliveryBatchSize, due.size())));
+			}
+		} catch (Exception e) {
+			failures.increment();
+			log.error("投递TODO提醒失败", e);
+		}
+		lastTickTime = now;
+	}
+
+	/**
+	 * 批量投递：校验 TODO 当前状态 -> Redis 去重 -> ReminderNotifier
+	 */
+	private void deliver(List<ReminderTask> tasks) {
+		for (ReminderTask task : tasks) {
+			tasksByTodo.computeIfPresent(task.todoId, (id, list) -> {
+				list.remove(task);
+				return list.isEmpty() ? null : list;
+			});
+		}
+
+		QueryWrapper<TodoEntity> wrapper = new QueryWrapper<>();
+		wrapper.select("id", "name", "user_id", "due_date", "status")
+			.in("id", tasks.stream().map(task -> task.todoId).distinct().collect(Collectors.toList()));
+		Map<Long, TodoEntity> todos = todoDao.selectList(wrapper).stream()
+			.collect(Collectors.toMap(TodoEntity::getId, Function.identity()));
+
+		List<ReminderTask> valid = new ArrayList<>();
+		for (ReminderTask task : tasks) {
+			TodoEntity todo = todos.get(task.todoId);
+			if (todo == null || todo.getDueDate() == null || todo.getDueDate().getTime() != task.dueMillis
+				|| TodoStatus.COMPLETED.getCode().equals(todo.getStatus())) {
+				stale.increment();
+			} else {
+				valid.add(task);
+			}
+		}
+		if (valid.isEmpty()) {
+			return;
+		}
+
+		List<Boolean> firsts = markSent(valid);
+		List<TodoReminder> reminders = new ArrayList<>(valid.size());
+		for (int i = 0; i < valid.size(); i++) {
+			if (!firsts.get(i)) {
+				duplicates.increment();
+				continue;
+			}
+			ReminderTask task = valid.get(i);
+			TodoEntity todo = todos.get(task.todoId);
+			TodoReminder reminder = new TodoReminder();
+			reminder.setTodoId(todo.getId());
+			reminder.setUserId(todo.getUserId());
+			reminder.setTodoName(todo.getName());
+			reminder.setDueDate(todo.getDueDate());
+			reminder.setType(task.type.getCode());
+			reminder.setRemindAt(new Date(task.fireTime));
+			reminders.add(reminder);
+		}
+		if (!reminders.isEmpty()) {
+			reminderNotifier.deliver(reminders);
+			delivered.add(reminders.size());
+		}
+	}
+
+	/**
+	 * 一次管道写入去重标记（SET NX EX）
+	 *
+	 * @return 与 tasks 一一对应，true=首次投递
+	 */
+	private List<Boolean> markSent(List<ReminderTask> tasks) {
+		try {
+			byte[] value = nodeId.getBytes(StandardCharsets.UTF_8);
+			List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+				for (ReminderTask task : tasks) {
+					byte[] key = RedisKeys.getTodoReminderSentKey(task.todoId, task.type.getCode(), task.dueMillis)
+						.getBytes(StandardCharsets.UTF_8);
+					connection.stringCommands().set(key, value, Expiration.seconds(sentTtlSeconds),
+						RedisStringCommands.SetOption.SET_IF_ABSENT);
+				}
+				return null;
+			});
+			return results.stream().map(Boolean.TRUE::equals).collect(Collectors.toList());
+		} catch (Exception e) {
+			failures.increment();
+			log.warn("写入提醒去重标记失败，本批不去重：size={}", tasks.size(), e);
+			return tasks.stream().map(task -> true).collect(Collectors.toList());
+		}
+	}
+
+	/**
+	 * 提醒线程已越过窗口结束时间的窗口标记为 DONE（保留 sent-ttl，期间不会被再次认领）
+	 */
+	private void completeWindows() {
+		long processedUntil = lastTickTime;
+		claimedWindows.forEach((window, completeAfter) -> {
+			if (processedUntil <= completeAfter || pendingLoads.containsKey(window)) {
+				return;
+			}
+			String key = RedisKeys.getTodoReminderWindowKey(window);
+			try {
+				if (Objects.equals(nodeId, stringRedisTemplate.opsForValue().get(key))) {
+					stringRedisTemplate.opsForValue().set(key, DONE, sentTtlSeconds, TimeUnit.SECONDS);
+				}
+				claimedWindows.remove(window);
+			} catch (Exception e) {
+				failures.increment();
+				log.warn("标记提醒窗口完成失败：window={}", window, e);
+			}
+		});
+	}
+
+	/**
+	 * 一个窗口的加载进度
+	 */
+	private static final class WindowLoad {
+
+		final long window;
+		final List<TypeCursor> cursors = new ArrayList<>();
+
+		WindowLoad(long window) {
+			this.window = window;
+			for (TodoReminderType type : TodoReminderType.values()) {
+				cursors.add(new TypeCursor(type));
+			}
+		}
+
+		boolean isDone() {
+			return cursors.stream().allMatch(cursor -> cursor.done);
+		}
+	}
+
+	/**
+	 * 一种提醒类型的键集游标（上一批最后一行的 due_date, id）
+	 */
+	private static final class TypeCursor {
+
+		final TodoReminderType type;
+		Date afterDueDate;
+		Long afterId;
+		boolean done;
+
+		TypeCursor(TodoReminderType type) {
+			this.type = type;
+		}
+	}
+
+	/**
+	 * 时间轮中的一条提醒
+	 */
+	private static final class ReminderTask implements ReminderTimingWheel.Task {
+
+		final Long todoId;
+		final TodoReminderType type;
+		final long dueMillis;
+		final long fireTime;
+		volatile boolean cancelled;
+
+		ReminderTask(Long todoId, TodoReminderType type, long dueMillis) {
+			this.todoId = todoId;
+			this.type = type;
+			this.dueMillis = dueMillis;
+			this.fireTime = dueMillis - type.getOffsetMillis();
+		}
+
+		@Override
+		public long getFireTime() {
+			return fireTime;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return cancelled;
+		}
+	}
+}
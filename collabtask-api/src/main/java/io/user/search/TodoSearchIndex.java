@@ -0,0 +1,307 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.search;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.user.common.redis.RedisKeys;
+import io.user.dao.TodoDao;
+import io.user.dao.TodoSearchTermDao;
+import io.user.entity.TodoEntity;
+import io.user.entity.TodoSearchTermEntity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * TODO 关键词搜索倒排索引（tb_todo_search_terms）
+ *
+ * 1. 写入：createTodo / updateTodo 在同一事务内同步维护词项（更新时与已有词项做差异），
+ *    删除由外键 ON DELETE CASCADE 清理
+ * 2. 查询：queryTerms 把关键词切成词项，TodoDao.xml 先按词项求候选 ID（半连接），
+ *    候选再经 LIKE 校验和归属/ACL 过滤；返回 null 时退回 LIKE 全扫描
+ * 3. 重建：按 id 键集分页整表重建，完成后写入就绪标记；
+ *    标记不存在（迁移后首次上线、切词规则升级后、手动重建中）或 Redis 不可用时查询一律走 LIKE
+ *
+ * 每批重建在一个事务内完成：SELECT ... FOR UPDATE 锁住这批 TODO，删除并写入词项后才提交。
+ * 并发的 updateTodo 要么先提交（重建读到新文本），要么等这批提交后再按差异更新词项，
+ * 不会出现用旧文本算出的词项覆盖新词项的情况。
+ *
+ * LIKE 校验保证不会多出结果。候选集只覆盖 TodoSearchTokenizer 做的归一化（NFKC、去重音、大小写折叠），
+ * 数据库排序规则中的其他等价关系（例如 æ = ae、可忽略字符）不在其中，这类结果走索引时可能漏掉。
+ *
+ * @author System
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TodoSearchIndex {
+
+	private static final String LOCK_KEY = "todo:search:rebuild";
+
+	/** 单条 INSERT 最多写入的词项数 */
+	private static final int INSERT_BATCH_SIZE = 1000;
+
+	/** 单次查询最多使用的词项数（只是必要条件的子集，不影响正确性） */
+	private static final int MAX_QUERY_TERMS = 16;
+
+	private final TodoDao todoDao;
+	private final TodoSearchTermDao todoSearchTermDao;
+	private final StringRedisTemplate stringRedisTemplate;
+	private final RedissonClient redissonClient;
+	private final PlatformTransactionManager transactionManager;
+
+	@Value("${collabtask.todo.search.enabled:true}")
+	private boolean enabled;
+
+	@Value("${collabtask.todo.search.auto-rebuild:true}")
+	private boolean autoRebuild;
+
+	@Value("${collabtask.todo.search.rebuild-batch-size:500}")
+	private int rebuildBatchSize;
+
+	@Value("${collabtask.todo.search.lock-lease:1800}")
+	private long lockLeaseSeconds;
+
+	/** 就绪标记的本地副本，由 scheduledCheck 定时刷新 */
+	private volatile boolean ready;
+
+	private final LongAdder indexQueries = new LongAdder();
+	private final LongAdder fallbackQueries = new LongAdder();
+	private final LongAdder indexedTodos = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+	private final AtomicLong rebuildCount = new AtomicLong();
+	private volatile long lastRebuildTime;
+	private volatile long lastRebuildTodos;
+	private volatile long lastRebuildDuration;
+
+	/**
+	 * 定时检查就绪标记（默认 60 秒）；未就绪且允许自动重建时抢锁重建
+	 */
+	@Scheduled(
+		fixedDelayString = "${collabtask.todo.search.check-interval:60000}",
+		initialDelayString = "${collabtask.todo.search.initial-delay:10000}"
+	)
+	public void scheduledCheck() {
+		ready = readMarker();
+		if (ready || !autoRebuild) {
+			return;
+		}
+
+		RLock lock = redissonClient.getLock(LOCK_KEY);
+		boolean acquired = false;
+		try {
+			acquired = lock.tryLock(0, lockLeaseSeconds, TimeUnit.SECONDS);
+			if (acquired && !readMarker()) {
+				rebuild();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			failures.increment();
+			log.error("重建TODO搜索索引失败", e);
+		} finally {
+			if (acquired && lock.isHeldByCurrentThread()) {
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * 关键词对应的查询词项
+	 *
+	 * @return 词项列表；索引未启用/未就绪或关键词无法用索引回答时返回 null（调用方退回 LIKE）
+	 */
+	public List<String> queryTerms(String keyword) {
+		if (keyword == null || keyword.isEmpty()) {
+			return null;
+		}
+
+		List<String> terms = enabled && ready ? TodoSearchTokenizer.queryTerms(keyword) : null;
+		if (terms == null) {
+			fallbackQueries.increment();
+			return null;
+		}
+
+		indexQueries.increment();
+		return terms.size() > MAX_QUERY_TERMS ? new ArrayList<>(terms.subList(0, MAX_QUERY_TERMS)) : terms;
+	}
+
+	/**
+	 * 新建 TODO 后写入词项
+	 */
+	public void index(TodoEntity todo) {
+		Set<String> terms = TodoSearchTokenizer.documentTerms(todo.getName(), todo.getDescription());
+		insert(todo.getId(), terms);
+		indexedTodos.increment();
+	}
+
+	/**
+	 * 批量新建 TODO 后写入词项（全部词项合并成多行 INSERT）
+	 */
+	public void indexAll(Collection<TodoEntity> todos) {
+		List<TodoSearchTermEntity> rows = new ArrayList<>();
+		for (TodoEntity todo : todos) {
+			for (String term : TodoSearchTokenizer.documentTerms(todo.getName(), todo.getDescription())) {
+				rows.add(new TodoSearchTermEntity(term, todo.getId()));
+			}
+		}
+		insertRows(rows);
+		indexedTodos.add(todos.size());
+	}
+
+	/**
+	 * 名称或描述修改后更新词项（只写差异部分）
+	 */
+	public void reindex(TodoEntity todo) {
+		Set<String> terms = TodoSearchTokenizer.documentTerms(todo.getName(), todo.getDescription());
+		Set<String> existing = new HashSet<>(todoSearchTermDao.selectTermsByTodoId(todo.getId()));
+
+		List<String> removed = existing.stream().filter(term -> !terms.contains(term)).collect(Collectors.toList());
+		for (int i = 0; i < removed.size(); i += INSERT_BATCH_SIZE) {
+			todoSearchTermDao.deleteTerms(todo.getId(), removed.subList(i, Math.min(i + INSERT_BATCH_SIZE, removed.size())));
+		}
+
+		terms.removeAll(existing);
+		insert(todo.getId(), terms);
+		indexedTodos.increment();
+	}
+
+	/**
+	 * 整表重建（可在维护窗口手动调用）
+	 *
+	 * 先撤掉就绪标记，重建期间查询走 LIKE（其他节点在下一次 check-interval 后切换）；完成后写入标记。
+	 * 每批一个事务，见 rebuildBatch
+	 *
+	 * @return 处理的 TODO 数量
+	 */
+	public long rebuild() {
+		long start = System.currentTimeMillis();
+		stringRedisTemplate.delete(RedisKeys.getTodoSearchReadyKey(TodoSearchTokenizer.VERSION));
+		ready = false;
+
+		TransactionTemplate batchTemplate = new TransactionTemplate(transactionManager);
+		long total = 0;
+		Long afterId = 0L;
+		while (true) {
+			Long from = afterId;
+			List<Long> ids = batchTemplate.execute(status -> rebuildBatch(from));
+			if (ids == null || ids.isEmpty()) {
+				break;
+			}
+
+			total += ids.size();
+			afterId = ids.get(ids.size() - 1);
+			if (ids.size() < rebuildBatchSize) {
+				break;
+			}
+		}
+
+		stringRedisTemplate.opsForValue().set(RedisKeys.getTodoSearchReadyKey(TodoSearchTokenizer.VERSION), String.valueOf(start));
+		ready = true;
+
+		rebuildCount.incrementAndGet();
+		lastRebuildTime = start;
+		lastRebuildTodos = total;
+		lastRebuildDuration = System.currentTimeMillis() - start;
+		log.info("TODO搜索索引已重建：todos={}, cost={}ms", total, lastRebuildDuration);
+		return total;
+	}
+
+	/**
+	 * 监控指标
+	 */
+	public Map<String, Object> getStats() {
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("status", "UP");
+		stats.put("enabled", enabled);
+		stats.put("ready", ready);
+		stats.put("indexQueries", indexQueries.sum());
+		stats.put("fallbackQueries", fallbackQueries.sum());
+		stats.put("indexedTodos", indexedTodos.sum());
+		stats.put("failures", failures.sum());
+		stats.put("rebuilds", rebuildCount.get());
+		stats.put("lastRebuildTime", lastRebuildTime);
+		stats.put("lastRebuildTodos", lastRebuildTodos);
+		stats.put("lastRebuildDuration", lastRebuildDuration);
+		return stats;
+	}
+
+	/**
+	 * 重建一批（在事务内调用）：锁住 afterId 之后的一批 TODO，按当前文本重写词项
+	 *
+	 * 加锁顺序与 updateTodo 一致（先 TODO 行，再词项行）
+	 *
+	 * @return 本批 TODO ID（升序）
+	 */
+	private List<Long> rebuildBatch(Long afterId) {
+		QueryWrapper<TodoEntity> wrapper = new QueryWrapper<>();
+		wrapper.select("id", "name", "description")
+			.gt("id", afterId)
+			.orderByAsc("id")
+			.last("LIMIT " + rebuildBatchSize + " FOR UPDATE");
+		List<TodoEntity> todos = todoDao.selectList(wrapper);
+		if (todos.isEmpty()) {
+			return List.of();
+		}
+
+		List<Long> ids = todos.stream().map(TodoEntity::getId).collect(Collectors.toList());
+		todoSearchTermDao.deleteByTodoIds(ids);
+
+		List<TodoSearchTermEntity> rows = new ArrayList<>();
+		for (TodoEntity todo : todos) {
+			for (String term : TodoSearchTokenizer.documentTerms(todo.getName(), todo.getDescription())) {
+				rows.add(new TodoSearchTermEntity(term, todo.getId()));
+			}
+		}
+		insertRows(rows);
+		return ids;
+	}
+
+	private void insert(Long todoId, Collection<String> terms) {
+		List<TodoSearchTermEntity> rows = terms.stream()
+			.map(term -> new TodoSearchTermEntity(term, todoId))
+			.collect(Collectors.toList());
+		insertRows(rows);
+	}
+
+	private void insertRows(List<TodoSearchTermEntity> rows) {
+		for (int i = 0; i < rows.size(); i += INSERT_BATCH_SIZE) {
+			todoSearchTermDao.insertIgnoreBatch(rows.subList(i, Math.min(i + INSERT_BATCH_SIZE, rows.size())));
+		}
+	}
+
+	private boolean readMarker() {
+		try {
+			return Boolean.TRUE.equals(stringRedisTemplate.hasKey(RedisKeys.getTodoSearchReadyKey(TodoSearchTokenizer.VERSION)));
+		} catch (Exception e) {
+			failures.increment();
+			log.warn("读取TODO搜索索引就绪标记失败，按未就绪处理", e);
+			return false;
+		}
+	}
+}
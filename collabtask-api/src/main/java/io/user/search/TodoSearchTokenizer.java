@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * TODO 搜索切词（n-gram）
+ *
+ * 文本先归一化（NFKC 全角转半角、去掉重音符号、大小写折叠），再按字符类别切成连续片段：
+ * 1. 中日韩文字片段按 2-gram 切分（"项目计划" -> 项目、目计、计划）
+ * 2. 字母数字片段按 3-gram 切分（"report" -> rep、epo、por、ort）
+ * 3. 其他字符（空白、标点）作为分隔符
+ *
+ * 归一化后文档中任意子串（长度不小于 gram）的全部 n-gram 一定都是文档的词项，
+ * 因此在归一化覆盖的范围内，"包含全部查询词项"是 LIKE '%kw%' 的必要条件。
+ * 归一化只近似数据库的不区分大小写/重音排序规则：æ = ae、可忽略字符等排序规则等价不在其中，
+ * 这类写法不同的匹配在走索引时会漏掉。
+ * 查询中存在短于 gram 的片段（单个汉字、一两个字母）时无法用索引回答，返回 null。
+ *
+ * @author System
+ */
+public final class TodoSearchTokenizer {
+
+	/** 切词规则版本：归一化或 gram 规则变化时递增，旧索引的就绪标记随之失效并触发重建 */
+	public static final int VERSION = 2;
+
+	/** 中日韩文字 gram 长度 */
+	static final int CJK_GRAM = 2;
+
+	/** 字母数字 gram 长度 */
+	static final int WORD_GRAM = 3;
+
+	private TodoSearchTokenizer() {
+	}
+
+	/**
+	 * 文档词项（名称 + 描述），短于 gram 的片段不入索引
+	 */
+	public static Set<String> documentTerms(String... texts) {
+		Set<String> terms = new LinkedHashSet<>();
+		for (String text : texts) {
+			for (Run run : runs(text)) {
+				run.addGrams(terms);
+			}
+		}
+		return terms;
+	}
+
+	/**
+	 * 查询词项
+	 *
+	 * @return 去重后的词项；关键词为空或含短于 gram 的片段时返回 null（退回 LIKE）
+	 */
+	public static List<String> queryTerms(String keyword) {
+		List<Run> runs = runs(keyword);
+		if (runs.isEmpty()) {
+			return null;
+		}
+
+		Set<String> terms = new LinkedHashSet<>();
+		for (Run run : runs) {
+			if (run.text.codePointCount(0, run.text.length()) < run.gram()) {
+				return null;
+			}
+			run.addGrams(terms);
+		}
+		return new ArrayList<>(terms);
+	}
+
+	/**
+	 * 归一化：近似 MySQL 不区分大小写/重音的排序规则（见类注释中的例外）
+	 *
+	 * 先转大写再转小写做完整大小写折叠（ß -> SS -> ss，与排序规则中 ß = ss 一致）
+	 */
+	static String normalize(String text) {
+		String folded = Normalizer.normalize(text, Normalizer.Form.NFKC);
+		folded = Normalizer.normalize(folded, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+		return folded.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+	}
+
+	private static List<Run> runs(String text) {
+		List<Run> runs = new ArrayList<>();
+		if (text == null || text.isEmpty()) {
+			return runs;
+		}
+
+		String normalized = normalize(text);
+		StringBuilder current = new StringBuilder();
+		boolean currentCjk = false;
+		for (int i = 0; i < normalized.length(); ) {
+			int codePoint = normalized.codePointAt(i);
+			i += Character.charCount(codePoint);
+
+			boolean cjk = isCjk(codePoint);
+			boolean word = !cjk && Character.isLetterOrDigit(codePoint);
+			if (current.length() > 0 && (!(cjk || word) || cjk != currentCjk)) {
+				runs.add(new Run(current.toString(), currentCjk));
+				current.setLength(0);
+			}
+			if (cjk || word) {
+				current.appendCodePoint(codePoint);
+				currentCjk = cjk;
+			}
+		}
+		if (current.length() > 0) {
+			runs.add(new Run(current.toString(), currentCjk));
+		}
+		return runs;
+	}
+
+	private static boolean isCjk(int codePoint) {
+		Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+		return script == Character.UnicodeScript.HAN
+			|| script == Character.UnicodeScript.HIRAGANA
+			|| script == Character.UnicodeScript.KATAKANA
+			|| script == Character.UnicodeScript.HANGUL;
+	}
+
+	/**
+	 * 同一类别的连续字符
+	 */
+	private static final class Run {
+
+		final String text;
+		final boolean cjk;
+
+		Run(String text, boolean cjk) {
+			this.text = text;
+			this.cjk = cjk;
+		}
+
+		int gram() {
+			return cjk ? CJK_GRAM : WORD_GRAM;
+		}
+
+		void addGrams(Set<String> terms) {
+			int[] codePoints = text.codePoints().toArray();
+			int gram = gram();
+			for (int i = 0; i + gram <= codePoints.length; i++) {
+				terms.add(new String(codePoints, i, gram));
+			}
+		}
+	}
+}
@@ -8,6 +8,13 @@
 
 package io.user.service;
 
+import io.user.enums.PermissionCode;
+import io.user.enums.ResourceType;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * ACL 权限检查 Service
  *
@@ -18,6 +25,8 @@ public interface AclPermissionService {
 	/**
 	 * 检查用户是否有权限
 	 * 
+	 * 同时匹配授予用户本人和授予其所在团队的权限
+	 * 
 	 * @param userId 用户ID
 	 * @param resourceType 资源类型（TODO, TEAM, TAG等）
 	 * @param resourceId 资源ID
@@ -26,9 +35,25 @@ public interface AclPermissionService {
 	 */
 	boolean hasPermission(Long userId, String resourceType, Long resourceId, String permissionCode);
 	
+	/**
+	 * 批量计算用户对多个资源的权限
+	 * 
+	 * 所有权与 ACL 授权各用一次集合查询解析，查询次数与资源数量无关。
+	 * OWNER 拥有全部请求的权限；资源不存在时位掩码为 0。
+	 * 
+	 * @param userId 用户ID
+	 * @param resourceType 资源类型
+	 * @param resourceIds 资源ID集合
+	 * @param permissions 需要计算的权限
+	 * @return 资源ID -> 权限位掩码（见 PermissionCode#getBit），每个请求的资源都有对应条目
+	 */
+	Map<Long, Integer> evaluate(Long userId, ResourceType resourceType, Collection<Long> resourceIds, Set<PermissionCode> permissions);
+	
 	/**
 	 * 授予权限
 	 * 
+	 * 每个 (用户, 资源) 只保留一条授权，重复授权会替换为新的权限级别
+	 * 
 	 * @param targetUserId 被授权用户ID
 	 * @param resourceType 资源类型
 	 * @param resourceId 资源ID
@@ -37,9 +62,40 @@ public interface AclPermissionService {
 	 */
 	void grantPermission(Long targetUserId, String resourceType, Long resourceId, String permissionCode, Long grantedBy);
 	
+	/**
+	 * 授予团队权限
+	 * 
+	 * 只写一行 (TEAM, teamId, 资源) 授权，检查时按成员关系展开，不为每个成员单独授权；
+	 * 授权人必须是该团队成员
+	 * 
+	 * @param teamId 被授权团队ID
+	 * @param resourceType 资源类型
+	 * @param resourceId 资源ID
+	 * @param permissionCode 权限代码
+	 * @param grantedBy 授权人ID
+	 */
+	void grantTeamPermission(Long teamId, String resourceType, Long resourceId, String permissionCode, Long grantedBy);
+	
+	/**
+	 * 批量授予权限（用户 × 资源）
+	 * 
+	 * 一次解析权限定义，多行 upsert 写入，判定缓存与审计日志都按批处理。
+	 * 调用方负责校验资源归属。
+	 * 
+	 * @param targetUserIds 被授权用户ID
+	 * @param resourceType 资源类型
+	 * @param resourceIds 资源ID
+	 * @param permissionCode 权限代码
+	 * @param grantedBy 授权人ID
+	 * @return 写入的授权数（用户数 × 资源数）
+	 */
+	int batchGrantPermissions(Collection<Long> targetUserIds, String resourceType, Collection<Long> resourceIds, String permissionCode, Long grantedBy);
+	
 	/**
 	 * 撤销权限
 	 * 
+	 * 按权限格撤销：蕴含该权限的授权（level 不低于它）都会被删除
+	 * 
 	 * @param targetUserId 被撤销用户ID
 	 * @param resourceType 资源类型
 	 * @param resourceId 资源ID
@@ -47,6 +103,42 @@ public interface AclPermissionService {
 	 */
 	void revokePermission(Long targetUserId, String resourceType, Long resourceId, String permissionCode);
 	
+	/**
+	 * 撤销用户对资源的全部权限（单条 DELETE）
+	 * 
+	 * @param targetUserId 被撤销用户ID
+	 * @param resourceType 资源类型
+	 * @param resourceId 资源ID
+	 */
+	void revokeAllPermissions(Long targetUserId, String resourceType, Long resourceId);
+	
+	/**
+	 * 批量撤销用户对资源的全部权限（用户 × 资源，集合条件 DELETE）
+	 * 
+	 * @param targetUserIds 被撤销用户ID
+	 * @param resourceType 资源类型
+	 * @param resourceIds 资源ID
+	 * @param revokedBy 操作人ID（写入审计日志）
+	 * @return 删除的授权数
+	 */
+	int batchRevokeAllPermissions(Collection<Long> targetUserIds, String resourceType, Collection<Long> resourceIds, Long revokedBy);
+	
+	/**
+	 * 撤销团队对资源的全部权限
+	 * 
+	 * @param teamId 团队ID
+	 * @param resourceType 资源类型
+	 * @param resourceId 资源ID
+	 */
+	void revokeTeamPermissions(Long teamId, String resourceType, Long resourceId);
+	
+	/**
+	 * 撤销团队作为主体的全部授权（团队删除时调用）
+	 * 
+	 * @param teamId 团队ID
+	 */
+	void revokeTeamGrants(Long teamId);
+	
 	/**
 	 * 记录权限审计日志
 	 * 
@@ -10,11 +10,22 @@ package io.user.service;
 
 import io.user.common.service.BaseService;
 import io.user.common.page.PageData;
+import io.user.dto.TodoBatchCreateDTO;
+import io.user.dto.TodoBatchIdsDTO;
+import io.user.dto.TodoBatchResultVO;
+import io.user.dto.TodoBatchShareDTO;
+import io.user.dto.TodoBatchUnshareDTO;
+import io.user.dto.TodoBatchUpdateDTO;
+import io.user.dto.TodoChangesVO;
 import io.user.dto.TodoCreateDTO;
 import io.user.dto.TodoQueryDTO;
 import io.user.dto.TodoUpdateDTO;
 import io.user.dto.TodoVO;
 import io.user.entity.TodoEntity;
+import io.user.enums.TodoExportFormat;
+
+import java.io.OutputStream;
+import java.util.List;
 
 /**
  * TODO Service
@@ -70,6 +81,73 @@ public interface TodoService extends BaseService<TodoEntity> {
 	 * @param userId 当前用户ID
 	 */
 	void deleteTodo(Long id, Long userId);
+	
+	/**
+	 * 批量共享 TODO（TODO × 用户，一个事务）
+	 * @param dto 批量共享请求
+	 * @param userId 当前用户ID（必须是全部 TODO 的创建者）
+	 * @return 写入的授权数
+	 */
+	int shareTodos(TodoBatchShareDTO dto, Long userId);
+	
+	/**
+	 * 批量取消共享 TODO
+	 * @param dto 批量取消共享请求
+	 * @param userId 当前用户ID（必须是全部 TODO 的创建者）
+	 * @return 删除的授权数
+	 */
+	int unshareTodos(TodoBatchUnshareDTO dto, Long userId);
+	
+	/**
+	 * 批量创建 TODO（一个事务；不合法的项标记失败，其余项批量插入）
+	 * @param dto 批量创建请求
+	 * @param userId 创建者ID
+	 * @return 每一项的结果（与请求顺序一致）
+	 */
+	List<TodoBatchResultVO> batchCreateTodos(TodoBatchCreateDTO dto, Long userId);
+	
+	/**
+	 * 批量更新 TODO（一个事务；不存在或没有 EDIT 权限的项标记失败）
+	 * @param dto 批量更新请求
+	 * @param userId 当前用户ID
+	 * @return 每一项的结果（与请求顺序一致）
+	 */
+	List<TodoBatchResultVO> batchUpdateTodos(TodoBatchUpdateDTO dto, Long userId);
+	
+	/**
+	 * 批量完成 TODO（一条 UPDATE；已完成、不存在或没有 EDIT 权限的项标记失败）
+	 * @param dto TODO ID列表
+	 * @param userId 当前用户ID
+	 * @return 每一项的结果（与请求顺序一致）
+	 */
+	List<TodoBatchResultVO> batchCompleteTodos(TodoBatchIdsDTO dto, Long userId);
+	
+	/**
+	 * 批量删除 TODO（一条 DELETE；不存在或没有 DELETE 权限的项标记失败）
+	 * @param dto TODO ID列表
+	 * @param userId 当前用户ID
+	 * @return 每一项的结果（与请求顺序一致）
+	 */
+	List<TodoBatchResultVO> batchDeleteTodos(TodoBatchIdsDTO dto, Long userId);
+	
+	/**
+	 * 流式导出可见的全部 TODO（自己创建的 + 共享给我的，按列表筛选条件过滤，忽略分页和排序）
+	 * @param dto 筛选条件
+	 * @param format 导出格式
+	 * @param userId 当前用户ID
+	 * @param out 输出流（直接写入，不在内存中缓存结果）
+	 * @return 导出的行数，客户端中途断开时为 -1
+	 */
+	long exportTodos(TodoQueryDTO dto, TodoExportFormat format, Long userId, OutputStream out);
+	
+	/**
+	 * 增量同步：since 之后发生变化的 TODO（每个 TODO 只返回最新状态，已删除或已不可见的返回墓碑）
+	 * @param since 上次返回的 nextSince；为空或 0 时只返回当前序号（reset = true），客户端先全量拉取列表
+	 * @param limit 最多返回的变化数
+	 * @param userId 当前用户ID
+	 * @return 变化列表和下次请求的 since
+	 */
+	TodoChangesVO getTodoChanges(Long since, int limit, Long userId);
 
 }
 
@@ -9,20 +9,49 @@
 package io.user.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.user.acl.AclAuditPipeline;
+import io.user.acl.AclDecisionCache;
+import io.user.acl.AclPermissionRegistry;
+import io.user.acl.AclRoleMatrix;
+import io.user.acl.AclShareMarker;
+import io.user.cache.TodoListVersion;
+import io.user.common.exception.RenException;
+import io.user.common.utils.TransactionUtils;
 import io.user.dao.AclAccessControlDao;
-import io.user.dao.AclPermissionAuditDao;
-import io.user.dao.AclPermissionDefinitionDao;
+import io.user.dao.TagDao;
+import io.user.dao.TeamDao;
+import io.user.dao.TeamMemberDao;
+import io.user.dao.TodoDao;
 import io.user.entity.AclAccessControlEntity;
 import io.user.entity.AclPermissionAuditEntity;
 import io.user.entity.AclPermissionDefinitionEntity;
+import io.user.entity.TagEntity;
+import io.user.entity.TeamEntity;
+import io.user.entity.TeamMemberEntity;
+import io.user.entity.TodoEntity;
+import io.user.enums.AclAction;
+import io.user.enums.PermissionCode;
+import io.user.enums.ResourceType;
 import io.user.enums.SubjectType;
+import io.user.enums.TodoChangeOp;
 import io.user.service.AclPermissionService;
+import io.user.sync.TodoChangeFeed;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * ACL 权限检查 Service 实现
@@ -34,101 +63,213 @@ import java.util.Date;
 @Slf4j
 public class AclPermissionServiceImpl implements AclPermissionService {
 	
+	/** IN 列表分批大小，避免超长 SQL */
+	private static final int IN_BATCH_SIZE = 500;
+	
+	/** 单次批量授权的最大行数（用户数 × 资源数） */
+	private static final int MAX_BATCH_GRANTS = 10000;
+	
 	private final AclAccessControlDao aclAccessControlDao;
-	private final AclPermissionAuditDao aclPermissionAuditDao;
-	private final AclPermissionDefinitionDao aclPermissionDefinitionDao;
+	private final AclAuditPipeline aclAuditPipeline;
+	private final AclPermissionRegistry aclPermissionRegistry;
+	private final AclDecisionCache aclDecisionCache;
+	private final AclRoleMatrix aclRoleMatrix;
+	private final AclShareMarker aclShareMarker;
+	private final TodoListVersion todoListVersion;
+	private final TodoDao todoDao;
+	private final TagDao tagDao;
+	private final TeamDao teamDao;
+	private final TeamMemberDao teamMemberDao;
+	private final TodoChangeFeed todoChangeFeed;
 	
 	@Override
 	public boolean hasPermission(Long userId, String resourceType, Long resourceId, String permissionCode) {
-		// 查询ACL表（用户是主体）
+		// 先查判定缓存（本地 + Redis）
+		Boolean cached = aclDecisionCache.get(userId, resourceType, resourceId, permissionCode);
+		if (cached != null) {
+			return cached;
+		}
+		
+		// 权限格：level >= 所需 level 的授权都满足（EDIT 蕴含 VIEW）
+		List<Long> satisfyingIds = aclPermissionRegistry.satisfying(resourceType, permissionCode);
+		
+		if (satisfyingIds.isEmpty()) {
+			return false; // 权限定义不存在
+		}
+		
+		// 查库之前取失效代数：查询期间有撤销提交时放弃写回，避免旧的 ALLOW 留在缓存
+		long generation = aclDecisionCache.generation(userId);
+		
+		// 查询ACL表（用户本人或其所在团队是主体）
 		QueryWrapper<AclAccessControlEntity> wrapper = new QueryWrapper<>();
-		wrapper.eq("subject_type", SubjectType.USER.getCode())
-			.eq("subject_id", userId)
+		matchSubject(wrapper, userId)
 			.eq("resource_type", resourceType)
-			.eq("resource_id", resourceId);
-		
-		// 通过permission_code关联查询permission_id
-		// 先查询permission_id
-		QueryWrapper<AclPermissionDefinitionEntity> permWrapper = new QueryWrapper<>();
-		permWrapper.eq("resource_type", resourceType)
-			.eq("permission_code", permissionCode)
+			.eq("resource_id", resourceId)
+			.in("permission_id", satisfyingIds)
+			// 过期授权由 AclExpirySweeper 置为无效，这里只用 is_active 索引条件
 			.eq("is_active", 1);
-		AclPermissionDefinitionEntity permDef = aclPermissionDefinitionDao.selectOne(permWrapper);
 		
-		if (permDef == null) {
-			return false; // 权限定义不存在
+		// 只取过期时间，用于限制缓存TTL
+		wrapper.select("id", "expires_at");
+		List<AclAccessControlEntity> grants = aclAccessControlDao.selectList(wrapper);
+		
+		boolean allowed = !grants.isEmpty();
+		aclDecisionCache.put(userId, resourceType, resourceId, permissionCode, allowed, latestExpiry(grants), generation);
+		return allowed;
+	}
+	
+	@Override
+	public Map<Long, Integer> evaluate(Long userId, ResourceType resourceType, Collection<Long> resourceIds, Set<PermissionCode> permissions) {
+		Map<Long, Integer> result = new HashMap<>();
+		if (resourceIds == null || resourceIds.isEmpty() || permissions == null || permissions.isEmpty()) {
+			return result;
 		}
 		
-		wrapper.eq("permission_id", permDef.getId().longValue());
-		wrapper.eq("is_active", 1);
+		List<Long> ids = new ArrayList<>(new LinkedHashSet<>(resourceIds));
+		int requestedMask = PermissionCode.maskOf(permissions);
+		// 全局角色对该类资源的权限，适用于所有存在的资源
+		int roleMask = aclRoleMatrix.mask(userId, resourceType) & requestedMask;
 		
-		// 检查是否过期
-		wrapper.and(w -> w.isNull("expires_at").or().gt("expires_at", new Date()));
+		for (int from = 0; from < ids.size(); from += IN_BATCH_SIZE) {
+			List<Long> batch = ids.subList(from, Math.min(from + IN_BATCH_SIZE, ids.size()));
+			
+			// 1. 所有权：一次查询取回 id + 所有者
+			Map<Long, Long> owners = selectOwners(resourceType, batch);
+			
+			List<Long> notOwned = new ArrayList<>();
+			for (Long resourceId : batch) {
+				Long ownerId = owners.get(resourceId);
+				if (ownerId == null) {
+					result.put(resourceId, 0);
+				} else if (ownerId.equals(userId)) {
+					result.put(resourceId, requestedMask);
+				} else {
+					result.put(resourceId, roleMask);
+					notOwned.add(resourceId);
+				}
+			}
+			if (notOwned.isEmpty()) {
+				continue;
+			}
+			
+			// 2. ACL 授权：一次查询取回 (resource_id, permission_id)
+			QueryWrapper<AclAccessControlEntity> wrapper = new QueryWrapper<>();
+			wrapper.select("resource_id", "permission_id");
+			matchSubject(wrapper, userId)
+				.eq("resource_type", resourceType.getCode())
+				.in("resource_id", notOwned)
+				.eq("is_active", 1);
+			
+			for (AclAccessControlEntity grant : aclAccessControlDao.selectList(wrapper)) {
+				// 授权蕴含所有 level 不高于它的权限
+				int granted = aclPermissionRegistry.impliedMask(grant.getPermissionId()) & requestedMask;
+				result.merge(grant.getResourceId(), granted, (a, b) -> a | b);
+			}
+		}
 		
-		Long count = aclAccessControlDao.selectCount(wrapper);
-		return count > 0;
+		return result;
 	}
 	
 	@Override
 	@Transactional(rollbackFor = Exception.class)
 	public void grantPermission(Long targetUserId, String resourceType, Long resourceId, String permissionCode, Long grantedBy) {
-		// 先查询permission_id
-		QueryWrapper<AclPermissionDefinitionEntity> permWrapper = new QueryWrapper<>();
-		permWrapper.eq("resource_type", resourceType)
-			.eq("permission_code", permissionCode)
-			.eq("is_active", 1);
-		AclPermissionDefinitionEntity permDef = aclPermissionDefinitionDao.selectOne(permWrapper);
+		AclPermissionDefinitionEntity permDef = upsertGrant(SubjectType.USER, targetUserId, resourceType, resourceId, permissionCode, grantedBy);
+		
+		// 清理判定缓存并通知其他节点
+		aclDecisionCache.invalidate(targetUserId, resourceType, resourceId);
+		aclShareMarker.mark(targetUserId);
+		bumpTodoLists(resourceType, List.of(targetUserId), List.of(resourceId), TodoChangeOp.UPSERT);
 		
+		log.info("授权成功：userId={}, resourceType={}, resourceId={}, permissionCode={}, permissionId={}", 
+			targetUserId, resourceType, resourceId, permissionCode, permDef.getId());
+	}
+	
+	@Override
+	@Transactional(rollbackFor = Exception.class)
+	public void grantTeamPermission(Long teamId, String resourceType, Long resourceId, String permissionCode, Long grantedBy) {
+		if (teamDao.selectById(teamId) == null) {
+			throw new RenException("团队不存在");
+		}
+		// 与其他团队操作一致：只能共享给自己所在的团队
+		List<Long> memberIds = selectTeamMemberIds(teamId);
+		if (!memberIds.contains(grantedBy)) {
+			throw new RenException("无权限共享给该团队");
+		}
+		
+		AclPermissionDefinitionEntity permDef = upsertGrant(SubjectType.TEAM, teamId, resourceType, resourceId, permissionCode, grantedBy);
+		
+		// 团队授权影响全部成员的判定缓存
+		aclDecisionCache.invalidate(memberIds, resourceType, Collections.singletonList(resourceId));
+		aclShareMarker.mark(memberIds);
+		bumpTodoLists(resourceType, memberIds, List.of(resourceId), TodoChangeOp.UPSERT);
+		
+		log.info("团队授权成功：teamId={}, resourceType={}, resourceId={}, permissionCode={}, permissionId={}", 
+			teamId, resourceType, resourceId, permissionCode, permDef.getId());
+	}
+	
+	@Override
+	@Transactional(rollbackFor = Exception.class)
+	public int batchGrantPermissions(Collection<Long> targetUserIds, String resourceType, Collection<Long> resourceIds, 
+			String permissionCode, Long grantedBy) {
+		List<Long> users = sortedDistinct(targetUserIds);
+		List<Long> resources = sortedDistinct(resourceIds);
+		if (users.isEmpty() || resources.isEmpty()) {
+			return 0;
+		}
+		if ((long) users.size() * resources.size() > MAX_BATCH_GRANTS) {
+			throw new RenException("单次授权数量不能超过" + MAX_BATCH_GRANTS);
+		}
+		
+		// 整批只解析一次permission_id
+		AclPermissionDefinitionEntity permDef = aclPermissionRegistry.find(resourceType, permissionCode);
 		if (permDef == null) {
 			log.error("权限定义不存在：resourceType={}, permissionCode={}", resourceType, permissionCode);
 			throw new RuntimeException("权限定义不存在");
 		}
 		
-		// 检查是否已存在
-		QueryWrapper<AclAccessControlEntity> wrapper = new QueryWrapper<>();
-		wrapper.eq("subject_type", SubjectType.USER.getCode())
-			.eq("subject_id", targetUserId)
-			.eq("resource_type", resourceType)
-			.eq("resource_id", resourceId)
-			.eq("permission_id", permDef.getId().longValue())
-			.eq("is_active", 1);
-		
-		if (aclAccessControlDao.selectCount(wrapper) > 0) {
-			log.warn("权限已存在，跳过授权：userId={}, resourceType={}, resourceId={}, permissionCode={}", 
-				targetUserId, resourceType, resourceId, permissionCode);
-			return;
+		// 按 (主体, 资源) 有序写入，并发批量授权时加锁顺序一致
+		Date now = new Date();
+		List<AclAccessControlEntity> rows = new ArrayList<>(users.size() * resources.size());
+		List<AclPermissionAuditEntity> audits = new ArrayList<>(users.size() * resources.size());
+		for (Long userId : users) {
+			for (Long resourceId : resources) {
+				AclAccessControlEntity acl = new AclAccessControlEntity();
+				acl.setSubjectType(SubjectType.USER.getCode());
+				acl.setSubjectId(userId);
+				acl.setResourceType(resourceType);
+				acl.setResourceId(resourceId);
+				acl.setPermissionId(permDef.getId().longValue());
+				acl.setGrantedBy(grantedBy);
+				acl.setGrantedAt(now);
+				acl.setIsActive(1);
+				acl.setCreateDate(now);
+				rows.add(acl);
+				audits.add(buildAudit(userId, resourceType, resourceId, permissionCode, AclAction.GRANT, grantedBy, now));
+			}
 		}
 		
-		// 创建权限
-		AclAccessControlEntity acl = new AclAccessControlEntity();
-		acl.setSubjectType(SubjectType.USER.getCode());
-		acl.setSubjectId(targetUserId);
-		acl.setResourceType(resourceType);
-		acl.setResourceId(resourceId);
-		acl.setPermissionId(permDef.getId().longValue());
-		// acl.setSourceType("SHARED");  // 数据库表中无此字段
-		acl.setGrantedBy(grantedBy);
-		acl.setGrantedAt(new Date());
-		acl.setIsActive(1);
-		// expiresAt 为 null 表示永久有效
+		for (int i = 0; i < rows.size(); i += IN_BATCH_SIZE) {
+			aclAccessControlDao.upsertGrantBatch(rows.subList(i, Math.min(i + IN_BATCH_SIZE, rows.size())));
+		}
 		
-		aclAccessControlDao.insert(acl);
+		// 判定缓存按 用户 × 资源 一次失效、一条广播
+		aclDecisionCache.invalidate(users, resourceType, resources);
+		aclShareMarker.mark(users);
+		bumpTodoLists(resourceType, users, resources, TodoChangeOp.UPSERT);
+		submitAuditsAfterCommit(audits);
 		
-		log.info("授权成功：userId={}, resourceType={}, resourceId={}, permissionCode={}, permissionId={}", 
-			targetUserId, resourceType, resourceId, permissionCode, permDef.getId());
+		log.info("批量授权成功：users={}, resourceType={}, resources={}, permissionCode={}, permissionId={}", 
+			users.size(), resourceType, resources.size(), permissionCode, permDef.getId());
+		return rows.size();
 	}
 	
 	@Override
 	@Transactional(rollbackFor = Exception.class)
 	public void revokePermission(Long targetUserId, String resourceType, Long resourceId, String permissionCode) {
-		// 先查询permission_id
-		QueryWrapper<AclPermissionDefinitionEntity> permWrapper = new QueryWrapper<>();
-		permWrapper.eq("resource_type", resourceType)
-			.eq("permission_code", permissionCode)
-			.eq("is_active", 1);
-		AclPermissionDefinitionEntity permDef = aclPermissionDefinitionDao.selectOne(permWrapper);
+		// 蕴含该权限的授权都要撤销（撤销 VIEW 也会撤销 EDIT）
+		List<Long> satisfyingIds = aclPermissionRegistry.satisfying(resourceType, permissionCode);
 		
-		if (permDef == null) {
+		if (satisfyingIds.isEmpty()) {
 			log.warn("权限定义不存在，跳过撤销：resourceType={}, permissionCode={}", resourceType, permissionCode);
 			return;
 		}
@@ -138,14 +279,118 @@ public class AclPermissionServiceImpl implements AclPermissionService {
 			.eq("subject_id", targetUserId)
 			.eq("resource_type", resourceType)
 			.eq("resource_id", resourceId)
-			.eq("permission_id", permDef.getId().longValue());
+			.in("permission_id", satisfyingIds);
 		
 		aclAccessControlDao.delete(wrapper);
 		
+		// 清理判定缓存并通知其他节点
+		aclDecisionCache.invalidate(targetUserId, resourceType, resourceId);
+		bumpTodoLists(resourceType, List.of(targetUserId), List.of(resourceId), TodoChangeOp.REVOKE);
+		
 		log.info("撤销权限成功：userId={}, resourceType={}, resourceId={}, permissionCode={}", 
 			targetUserId, resourceType, resourceId, permissionCode);
 	}
 	
+	@Override
+	@Transactional(rollbackFor = Exception.class)
+	public void revokeAllPermissions(Long targetUserId, String resourceType, Long resourceId) {
+		QueryWrapper<AclAccessControlEntity> wrapper = new QueryWrapper<>();
+		wrapper.eq("subject_type", SubjectType.USER.getCode())
+			.eq("subject_id", targetUserId)
+			.eq("resource_type", resourceType)
+			.eq("resource_id", resourceId);
+		
+		aclAccessControlDao.delete(wrapper);
+		
+		// 清理判定缓存并通知其他节点
+		aclDecisionCache.invalidate(targetUserId, resourceType, resourceId);
+		bumpTodoLists(resourceType, List.of(targetUserId), List.of(resourceId), TodoChangeOp.REVOKE);
+		
+		log.info("撤销全部权限成功：userId={}, resourceType={}, resourceId={}", 
+			targetUserId, resourceType, resourceId);
+	}
+	
+	@Override
+	@Transactional(rollbackFor = Exception.class)
+	public int batchRevokeAllPermissions(Collection<Long> targetUserIds, String resourceType, Collection<Long> resourceIds, Long revokedBy) {
+		List<Long> users = sortedDistinct(targetUserIds);
+		List<Long> resources = sortedDistinct(resourceIds);
+		if (users.isEmpty() || resources.isEmpty()) {
+			return 0;
+		}
+		
+		// 先锁定并取出要删除的授权行，只为实际删除的行写审计
+		int deleted = 0;
+		List<AclAccessControlEntity> revoked = new ArrayList<>();
+		for (int i = 0; i < resources.size(); i += IN_BATCH_SIZE) {
+			QueryWrapper<AclAccessControlEntity> wrapper = new QueryWrapper<>();
+			wrapper.select("id", "subject_id", "resource_id")
+				.eq("subject_type", SubjectType.USER.getCode())
+				.in("subject_id", users)
+				.eq("resource_type", resourceType)
+				.in("resource_id", resources.subList(i, Math.min(i + IN_BATCH_SIZE, resources.size())))
+				.last("FOR UPDATE");
+			List<AclAccessControlEntity> rows = aclAccessControlDao.selectList(wrapper);
+			if (rows.isEmpty()) {
+				continue;
+			}
+			deleted += aclAccessControlDao.deleteBatchIds(rows.stream().map(AclAccessControlEntity::getId).collect(Collectors.toList()));
+			revoked.addAll(rows);
+		}
+		
+		aclDecisionCache.invalidate(users, resourceType, resources);
+		bumpTodoLists(resourceType, users, resources, TodoChangeOp.REVOKE);
+		Date now = new Date();
+		List<AclPermissionAuditEntity> audits = new ArrayList<>(revoked.size());
+		for (AclAccessControlEntity row : revoked) {
+			audits.add(buildAudit(row.getSubjectId(), resourceType, row.getResourceId(), "ALL", AclAction.REVOKE, revokedBy, now));
+		}
+		submitAuditsAfterCommit(audits);
+		
+		log.info("批量撤销权限成功：users={}, resourceType={}, resources={}, deleted={}", 
+			users.size(), resourceType, resources.size(), deleted);
+		return deleted;
+	}
+	
+	@Override
+	@Transactional(rollbackFor = Exception.class)
+	public void revokeTeamPermissions(Long teamId, String resourceType, Long resourceId) {
+		QueryWrapper<AclAccessControlEntity> wrapper = new QueryWrapper<>();
+		wrapper.eq("subject_type", SubjectType.TEAM.getCode())
+			.eq("subject_id", teamId)
+			.eq("resource_type", resourceType)
+			.eq("resource_id", resourceId);
+		
+		aclAccessControlDao.delete(wrapper);
+		
+		// 团队授权影响全部成员的判定缓存
+		List<Long> memberIds = selectTeamMemberIds(teamId);
+		aclDecisionCache.invalidate(memberIds, resourceType, Collections.singletonList(resourceId));
+		bumpTodoLists(resourceType, memberIds, List.of(resourceId), TodoChangeOp.REVOKE);
+		
+		log.info("撤销团队权限成功：teamId={}, resourceType={}, resourceId={}", teamId, resourceType, resourceId);
+	}
+	
+	@Override
+	@Transactional(rollbackFor = Exception.class)
+	public void revokeTeamGrants(Long teamId) {
+		QueryWrapper<AclAccessControlEntity> wrapper = new QueryWrapper<>();
+		wrapper.eq("subject_type", SubjectType.TEAM.getCode())
+			.eq("subject_id", teamId);
+		
+		// 共享给团队的 TODO 要在授权删除之前查出（变更流给成员写撤销记录）
+		List<Long> todoIds = todoChangeFeed.teamTodoIds(teamId);
+		int deleted = aclAccessControlDao.delete(wrapper);
+		if (deleted > 0) {
+			List<Long> memberIds = selectTeamMemberIds(teamId);
+			memberIds.forEach(aclDecisionCache::invalidateUser);
+			todoListVersion.bump(memberIds);
+			todoChangeFeed.recordAccess(memberIds, todoIds, TodoChangeOp.REVOKE);
+		}
+		
+		log.info("撤销团队全部授权：teamId={}, count={}", teamId, deleted);
+	}
+	
 	@Override
 	public void auditLog(Long userId, String resourceType, Long resourceId, String permissionCode, String action, String result, String ipAddress) {
 		// 注意：数据库表结构与接口参数不完全匹配，进行字段映射
@@ -161,10 +406,154 @@ public class AclPermissionServiceImpl implements AclPermissionService {
 		audit.setIpAddress(ipAddress);
 		audit.setCreateDate(new Date());
 		
-		aclPermissionAuditDao.insert(audit);
+		// 异步批量写入，不阻塞请求线程
+		aclAuditPipeline.submit(audit);
 		
 		log.info("权限审计：userId={}, resourceType={}, resourceId={}, permissionCode={}, action={}", 
 			userId, resourceType, resourceId, permissionCode, action);
 	}
+	
+	/**
+	 * 授权变更的审计事件在事务提交后才交给异步写入（回滚的授权 / 撤销不留审计）
+	 */
+	private void submitAuditsAfterCommit(List<AclPermissionAuditEntity> audits) {
+		if (!audits.isEmpty()) {
+			TransactionUtils.afterCommit(() -> audits.forEach(aclAuditPipeline::submit));
+		}
+	}
+	
+	/**
+	 * TODO 授权变化后递增相关用户的列表版本号（列表缓存随之失效），并写入变更流（增量同步）
+	 */
+	private void bumpTodoLists(String resourceType, Collection<Long> userIds, Collection<Long> resourceIds, TodoChangeOp op) {
+		if (ResourceType.TODO.getCode().equals(resourceType)) {
+			todoListVersion.bump(userIds);
+			todoChangeFeed.recordAccess(userIds, resourceIds, op);
+		}
+	}
+	
+	/**
+	 * 构造授权 / 撤销审计记录（主体为被授权用户，操作人为授权人）
+	 */
+	private AclPermissionAuditEntity buildAudit(Long userId, String resourceType, Long resourceId, String permissionCode, 
+			AclAction action, Long operatorId, Date now) {
+		AclPermissionAuditEntity audit = new AclPermissionAuditEntity();
+		audit.setSubjectType(SubjectType.USER.getCode());
+		audit.setSubjectId(userId);
+		audit.setResourceType(resourceType);
+		audit.setResourceId(resourceId);
+		audit.setPermissionCode(permissionCode);
+		audit.setAction(action.getCode());
+		audit.setOperatorId(operatorId);
+		audit.setReason("BATCH");
+		audit.setCreateDate(now);
+		return audit;
+	}
+	
+	/**
+	 * 去重、去 null 并排序
+	 */
+	private static List<Long> sortedDistinct(Collection<Long> ids) {
+		if (ids == null) {
+			return Collections.emptyList();
+		}
+		return ids.stream().filter(Objects::nonNull).distinct().sorted().collect(Collectors.toList());
+	}
+	
+	/**
+	 * 写入一条授权（每个主体、资源一行，已存在则替换权限级别）
+	 */
+	private AclPermissionDefinitionEntity upsertGrant(SubjectType subjectType, Long subjectId, String resourceType, Long resourceId, 
+			String permissionCode, Long grantedBy) {
+		// 从内存注册表解析permission_id
+		AclPermissionDefinitionEntity permDef = aclPermissionRegistry.find(resourceType, permissionCode);
+		
+		if (permDef == null) {
+			log.error("权限定义不存在：resourceType={}, permissionCode={}", resourceType, permissionCode);
+			throw new RuntimeException("权限定义不存在");
+		}
+		
+		AclAccessControlEntity acl = new AclAccessControlEntity();
+		acl.setSubjectType(subjectType.getCode());
+		acl.setSubjectId(subjectId);
+		acl.setResourceType(resourceType);
+		acl.setResourceId(resourceId);
+		acl.setPermissionId(permDef.getId().longValue());
+		acl.setGrantedBy(grantedBy);
+		acl.setGrantedAt(new Date());
+		acl.setIsActive(1);
+		acl.setCreateDate(new Date());
+		// expiresAt 为 null 表示永久有效
+		
+		aclAccessControlDao.upsertGrant(acl);
+		return permDef;
+	}
+	
+	/**
+	 * 主体条件：用户本人，或用户所在的团队
+	 * 
+	 * 团队授权在检查时通过 tb_team_members(user_id, team_id) 索引展开，不为每个成员写授权行
+	 */
+	private QueryWrapper<AclAccessControlEntity> matchSubject(QueryWrapper<AclAccessControlEntity> wrapper, Long userId) {
+		return wrapper.and(w -> w
+			.and(u -> u.eq("subject_type", SubjectType.USER.getCode()).eq("subject_id", userId))
+			.or(t -> t.eq("subject_type", SubjectType.TEAM.getCode())
+				.inSql("subject_id", "SELECT team_id FROM tb_team_members WHERE user_id = " + userId.longValue())));
+	}
+	
+	/**
+	 * 团队全部成员ID
+	 */
+	private List<Long> selectTeamMemberIds(Long teamId) {
+		QueryWrapper<TeamMemberEntity> wrapper = new QueryWrapper<>();
+		wrapper.select("user_id").eq("team_id", teamId);
+		return teamMemberDao.selectList(wrapper).stream()
+			.map(TeamMemberEntity::getUserId)
+			.collect(Collectors.toList());
+	}
+	
+	/**
+	 * 批量查询资源所有者
+	 * 
+	 * @return 资源ID -> 所有者ID（不存在的资源不在结果中）
+	 */
+	private Map<Long, Long> selectOwners(ResourceType resourceType, List<Long> resourceIds) {
+		Map<Long, Long> owners = new HashMap<>();
+		switch (resourceType) {
+			case TODO:
+				QueryWrapper<TodoEntity> todoWrapper = new QueryWrapper<>();
+				todoWrapper.select("id", "user_id").in("id", resourceIds);
+				todoDao.selectList(todoWrapper).forEach(t -> owners.put(t.getId(), t.getUserId()));
+				break;
+			case TAG:
+				QueryWrapper<TagEntity> tagWrapper = new QueryWrapper<>();
+				tagWrapper.select("id", "user_id").in("id", resourceIds);
+				tagDao.selectList(tagWrapper).forEach(t -> owners.put(t.getId(), t.getUserId()));
+				break;
+			case TEAM:
+				QueryWrapper<TeamEntity> teamWrapper = new QueryWrapper<>();
+				teamWrapper.select("id", "owner_id").in("id", resourceIds);
+				teamDao.selectList(teamWrapper).forEach(t -> owners.put(t.getId(), t.getOwnerId()));
+				break;
+			default:
+				log.warn("未知的资源类型：{}", resourceType);
+		}
+		return owners;
+	}
+	
+	/**
+	 * 多条授权中最晚的过期时间（任意一条永久有效则返回 null）
+	 */
+	private Date latestExpiry(List<AclAccessControlEntity> grants) {
+		Date latest = null;
+		for (AclAccessControlEntity grant : grants) {
+			if (grant.getExpiresAt() == null) {
+				return null;
+			}
+			if (latest == null || grant.getExpiresAt().after(latest)) {
+				latest = grant.getExpiresAt();
+			}
+		}
+		return latest;
+	}
 }
-
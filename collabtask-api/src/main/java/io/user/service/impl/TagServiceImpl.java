@@ -9,6 +9,8 @@
 package io.user.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.user.cache.TodoListVersion;
+import io.user.common.context.ResourceContextHolder;
 import io.user.common.exception.RenException;
 import io.user.common.service.impl.BaseServiceImpl;
 import io.user.dao.*;
@@ -18,12 +20,16 @@ import io.user.common.annotation.Idempotent;
 import io.user.enums.PermissionCode;
 import io.user.enums.ResourceType;
 import io.user.service.TagService;
+import io.user.sync.TodoChangeFeed;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -38,6 +44,8 @@ public class TagServiceImpl extends BaseServiceImpl<TagDao, TagEntity> implement
 	private final TagDao tagDao;
 	private final TodoTagDao todoTagDao;
 	private final TodoDao todoDao;
+	private final TodoListVersion todoListVersion;
+	private final TodoChangeFeed todoChangeFeed;
 	
 	@Override
 	@Transactional(rollbackFor = Exception.class)
@@ -97,7 +105,7 @@ public class TagServiceImpl extends BaseServiceImpl<TagDao, TagEntity> implement
 	public TagVO updateTag(Long id, TagUpdateDTO dto, Long userId) {
 		// ✅ 切面已自动检查权限（OWNER）
 		
-		TagEntity tag = tagDao.selectById(id);
+		TagEntity tag = ResourceContextHolder.getOrLoad(TagEntity.class, id, tagDao::selectById);
 		if (tag == null) {
 			throw new RenException("标签不存在");
 		}
@@ -121,6 +129,9 @@ public class TagServiceImpl extends BaseServiceImpl<TagDao, TagEntity> implement
 		tag.setUpdateDate(new Date());
 		tagDao.updateById(tag);
 		
+		// 列表缓存中的标签名称 / 颜色失效
+		bumpTaggedLists(tag.getUserId(), selectTaggedTodoIds(id));
+		
 		return convertToVO(tag);
 	}
 	
@@ -134,18 +145,22 @@ public class TagServiceImpl extends BaseServiceImpl<TagDao, TagEntity> implement
 	public void deleteTag(Long id, Long userId) {
 		// ✅ 切面已自动检查权限（OWNER）
 		
-		TagEntity tag = tagDao.selectById(id);
+		TagEntity tag = ResourceContextHolder.getOrLoad(TagEntity.class, id, tagDao::selectById);
 		if (tag == null) {
 			throw new RenException("标签不存在");
 		}
 		
-		// 删除关联关系
+		// 删除关联关系（先查出打了该标签的 TODO）
+		List<Long> todoIds = selectTaggedTodoIds(id);
 		QueryWrapper<TodoTagEntity> wrapper = new QueryWrapper<>();
 		wrapper.eq("tag_id", id);
 		todoTagDao.delete(wrapper);
 		
 		// 删除标签
 		tagDao.deleteById(id);
+		
+		// 按标签筛选的列表 / 标签索引失效
+		bumpTaggedLists(userId, todoIds);
 	}
 	
 	@Override
@@ -182,6 +197,7 @@ public class TagServiceImpl extends BaseServiceImpl<TagDao, TagEntity> implement
 		todoTag.setTagId(tagId);
 		todoTag.setCreateDate(new Date());
 		todoTagDao.insert(todoTag);
+		bumpTaggedLists(userId, List.of(todoId));
 	}
 	
 	@Override
@@ -200,6 +216,7 @@ public class TagServiceImpl extends BaseServiceImpl<TagDao, TagEntity> implement
 		QueryWrapper<TodoTagEntity> wrapper = new QueryWrapper<>();
 		wrapper.eq("todo_id", todoId).eq("tag_id", tagId);
 		todoTagDao.delete(wrapper);
+		bumpTaggedLists(userId, List.of(todoId));
 	}
 	
 	@Override
@@ -252,5 +269,25 @@ public class TagServiceImpl extends BaseServiceImpl<TagDao, TagEntity> implement
 		
 		return vo;
 	}
+	
+	/**
+	 * 打了该标签的 TODO
+	 */
+	private List<Long> selectTaggedTodoIds(Long tagId) {
+		QueryWrapper<TodoTagEntity> wrapper = new QueryWrapper<>();
+		wrapper.select("todo_id").eq("tag_id", tagId);
+		return todoTagDao.selectList(wrapper).stream()
+			.map(TodoTagEntity::getTodoId)
+			.collect(Collectors.toList());
+	}
+	
+	/**
+	 * 标签变化后递增列表版本号：标签所有者 + 这些 TODO 的全部被授权用户（与 TODO 写操作的受众相同）
+	 */
+	private void bumpTaggedLists(Long ownerId, Collection<Long> todoIds) {
+		Set<Long> userIds = new HashSet<>(todoChangeFeed.audience(todoIds));
+		userIds.add(ownerId);
+		todoListVersion.bump(userIds);
+	}
 }
 
@@ -9,6 +9,10 @@
 package io.user.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.user.acl.AclDecisionCache;
+import io.user.acl.AclShareMarker;
+import io.user.cache.TodoListVersion;
+import io.user.common.context.ResourceContextHolder;
 import io.user.common.exception.RenException;
 import io.user.common.page.PageData;
 import io.user.common.service.impl.BaseServiceImpl;
@@ -18,8 +22,11 @@ import io.user.common.annotation.Idempotent;
 import io.user.entity.*;
 import io.user.enums.PermissionCode;
 import io.user.enums.ResourceType;
+import io.user.enums.TodoChangeOp;
+import io.user.service.AclPermissionService;
 import io.user.service.TeamService;
 import io.user.service.TodoService;
+import io.user.sync.TodoChangeFeed;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -43,6 +50,11 @@ public class TeamServiceImpl extends BaseServiceImpl<TeamDao, TeamEntity> implem
 	private final TeamMemberDao teamMemberDao;
 	private final UserDao userDao;
 	private final TodoService todoService;
+	private final AclPermissionService aclPermissionService;
+	private final AclDecisionCache aclDecisionCache;
+	private final AclShareMarker aclShareMarker;
+	private final TodoListVersion todoListVersion;
+	private final TodoChangeFeed todoChangeFeed;
 	
 	@Override
 	@Transactional(rollbackFor = Exception.class)
@@ -115,7 +127,7 @@ public class TeamServiceImpl extends BaseServiceImpl<TeamDao, TeamEntity> implem
 	public TeamVO updateTeam(Long id, TeamUpdateDTO dto, Long userId) {
 		// ✅ 切面已自动检查权限（OWNER）
 		
-		TeamEntity team = teamDao.selectById(id);
+		TeamEntity team = ResourceContextHolder.getOrLoad(TeamEntity.class, id, teamDao::selectById);
 		if (team == null) {
 			throw new RenException("团队不存在");
 		}
@@ -143,11 +155,14 @@ public class TeamServiceImpl extends BaseServiceImpl<TeamDao, TeamEntity> implem
 	public void deleteTeam(Long id, Long userId) {
 		// ✅ 切面已自动检查权限（OWNER）
 		
-		TeamEntity team = teamDao.selectById(id);
+		TeamEntity team = ResourceContextHolder.getOrLoad(TeamEntity.class, id, teamDao::selectById);
 		if (team == null) {
 			throw new RenException("团队不存在");
 		}
 		
+		// 撤销授予该团队的权限（需在删除成员前，用于失效成员的判定缓存）
+		aclPermissionService.revokeTeamGrants(id);
+		
 		// 删除团队成员
 		QueryWrapper<TeamMemberEntity> wrapper = new QueryWrapper<>();
 		wrapper.eq("team_id", id);
@@ -189,6 +204,13 @@ public class TeamServiceImpl extends BaseServiceImpl<TeamDao, TeamEntity> implem
 		member.setUserId(memberId);
 		member.setCreateDate(new Date());
 		teamMemberDao.insert(member);
+		
+		// 成员关系变化，团队授权的判定结果随之变化
+		aclDecisionCache.invalidateUser(memberId);
+		// 团队可能有共享，新成员标记为"有共享"（多余的标记由定时重建清理）
+		aclShareMarker.mark(memberId);
+		todoListVersion.bump(memberId);
+		todoChangeFeed.recordTeamMembership(teamId, memberId, TodoChangeOp.UPSERT);
 	}
 	
 	@Override
@@ -213,6 +235,11 @@ public class TeamServiceImpl extends BaseServiceImpl<TeamDao, TeamEntity> implem
 		QueryWrapper<TeamMemberEntity> wrapper = new QueryWrapper<>();
 		wrapper.eq("team_id", teamId).eq("user_id", memberId);
 		teamMemberDao.delete(wrapper);
+		
+		// 成员关系变化，团队授权的判定结果随之变化
+		aclDecisionCache.invalidateUser(memberId);
+		todoListVersion.bump(memberId);
+		todoChangeFeed.recordTeamMembership(teamId, memberId, TodoChangeOp.REVOKE);
 	}
 	
 	@Override
@@ -8,30 +8,72 @@
 
 package io.user.service.impl;
 
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.user.acl.AclShareMarker;
+import io.user.assembler.TodoVOAssembler;
+import io.user.cache.TodoCountCache;
+import io.user.cache.TodoFirstPageCache;
+import io.user.cache.TodoListVersion;
+import io.user.cache.TodoTagIndex;
+import io.user.common.context.ResourceContextHolder;
 import io.user.common.exception.RenException;
 import io.user.common.service.impl.BaseServiceImpl;
 import io.user.common.page.PageData;
+import io.user.common.utils.TransactionUtils;
+import io.user.dao.TagDao;
 import io.user.dao.TodoDao;
-import io.user.dao.UserDao;
+import io.user.dto.TodoBatchCreateDTO;
+import io.user.dto.TodoBatchIdsDTO;
+import io.user.dto.TodoBatchResultVO;
+import io.user.dto.TodoBatchShareDTO;
+import io.user.dto.TodoBatchUnshareDTO;
+import io.user.dto.TodoBatchUpdateDTO;
+import io.user.dto.TodoChangeVO;
+import io.user.dto.TodoChangesVO;
 import io.user.dto.TodoCreateDTO;
+import io.user.dto.TodoCursor;
+import io.user.dto.TodoQueryCondition;
 import io.user.dto.TodoQueryDTO;
 import io.user.dto.TodoUpdateDTO;
 import io.user.dto.TodoVO;
+import io.user.export.TodoExporter;
+import io.user.entity.TagEntity;
+import io.user.entity.TodoChangeEntity;
 import io.user.entity.TodoEntity;
-import io.user.entity.UserEntity;
 import io.user.common.annotation.Idempotent;
 import io.user.enums.PermissionCode;
 import io.user.enums.ResourceType;
+import io.user.enums.TodoChangeOp;
+import io.user.enums.TodoCountMode;
+import io.user.enums.TodoExportFormat;
+import io.user.enums.TodoListPlan;
 import io.user.enums.TodoPriority;
+import io.user.enums.TodoSortField;
 import io.user.enums.TodoStatus;
+import io.user.reminder.TodoReminderScheduler;
+import io.user.search.TodoSearchIndex;
+import io.user.service.AclPermissionService;
 import io.user.service.TodoService;
+import io.user.sync.TodoChangeFeed;
 import lombok.AllArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -43,27 +85,46 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class TodoServiceImpl extends BaseServiceImpl<TodoDao, TodoEntity> implements TodoService {
 	
+	/** 共享 TODO 需要批量计算的权限（OWNER 只能来自所有权，不通过 ACL 计算） */
+	private static final Set<PermissionCode> SHARED_PERMISSIONS =
+		EnumSet.of(PermissionCode.VIEW, PermissionCode.EDIT, PermissionCode.DELETE, PermissionCode.SHARE);
+	
+	/** 所有者的权限位掩码 */
+	private static final int OWNER_MASK = PermissionCode.maskOf(EnumSet.allOf(PermissionCode.class));
+	
+	/** 单次查询最多筛选的标签数 */
+	private static final int MAX_FILTER_TAGS = 20;
+	
+	/** 增量同步单次最多返回的变化数 */
+	private static final int MAX_CHANGES = 500;
+	
 	private final TodoDao todoDao;
-	private final UserDao userDao;
+	private final TodoVOAssembler todoVOAssembler;
+	private final AclPermissionService aclPermissionService;
+	private final AclShareMarker aclShareMarker;
+	private final TodoCountCache todoCountCache;
+	private final TodoListVersion todoListVersion;
+	private final TodoSearchIndex todoSearchIndex;
+	private final TodoTagIndex todoTagIndex;
+	private final TodoFirstPageCache todoFirstPageCache;
+	private final TodoExporter todoExporter;
+	private final TodoReminderScheduler todoReminderScheduler;
+	private final TodoChangeFeed todoChangeFeed;
+	private final TagDao tagDao;
 	
 	@Override
 	@Transactional(rollbackFor = Exception.class)
 	@Idempotent(timeout = 300)  // v1.2: 幂等性控制（5分钟内防重复提交）
 	public TodoVO createTodo(TodoCreateDTO dto, Long userId) {
 		// 创建 TODO 实体
-		TodoEntity todo = new TodoEntity();
-		todo.setName(dto.getName());
-		todo.setDescription(dto.getDescription());
-		todo.setDueDate(dto.getDueDate());
-		todo.setPriority(StringUtils.isNotBlank(dto.getPriority()) ? dto.getPriority() : TodoPriority.MEDIUM.getCode());
-		todo.setStatus(TodoStatus.NOT_STARTED.getCode());
-		todo.setUserId(userId);
-		todo.setTeamId(dto.getTeamId());
-		todo.setCreateDate(new Date());
-		todo.setUpdateDate(new Date());
+		TodoEntity todo = newTodo(dto, userId, new Date());
 		
 		// 保存到数据库
 		todoDao.insert(todo);
+		todoSearchIndex.index(todo);
+		todoListVersion.bump(userId);
+		todoChangeFeed.recordAccess(List.of(userId), List.of(todo.getId()), TodoChangeOp.UPSERT);
+		rescheduleReminders(List.of(todo));
 		
 		// TODO: 自动授予 OWNER 权限（ACL 功能开发后添加）
 		// aclManagementService.grantPermission(userId, "TODO", todo.getId(), "OWNER");
@@ -74,44 +135,73 @@ public class TodoServiceImpl extends BaseServiceImpl<TodoDao, TodoEntity> implem
 	
 	@Override
 	public PageData<TodoVO> getTodoList(TodoQueryDTO dto, Long userId) {
+		// 第一页走缓存，命中时不查列表也不计数
+		if (todoFirstPageCache.isCacheable(dto)) {
+			return todoFirstPageCache.get(dto, userId, () -> loadTodoList(dto, userId));
+		}
+		return loadTodoList(dto, userId);
+	}
+	
+	/**
+	 * 查询TODO列表
+	 */
+	private PageData<TodoVO> loadTodoList(TodoQueryDTO dto, Long userId) {
 		// v1.1优化：查询自己创建的 + 共享给我的TODO
 		// 使用自定义SQL联表查询ACL权限表
+		TodoQueryCondition condition = buildCondition(dto, userId);
+		int limit = dto.getLimit();
 		
-		// 计算偏移量
-		long offset = (dto.getPage() - 1) * dto.getLimit();
-		
-		// 调用自定义查询方法
-		List<TodoEntity> todoList = todoDao.selectMyTodosPage(
-			userId,
-			dto.getKeyword(),
-			dto.getStatus(),
-			dto.getPriority(),
-			dto.getTeamId(),
-			dto.getDueDateStart(),
-			dto.getDueDateEnd(),
-			StringUtils.isNotBlank(dto.getOrderBy()) ? dto.getOrderBy() : "create_date",
-			dto.getOrderDirection(),
-			offset,
-			dto.getLimit()
-		);
+		boolean cursorMode = dto.getCursor() != null;
+		if (cursorMode) {
+			// 游标分页：从上一页最后一行之后 seek
+			TodoCursor.apply(dto.getCursor(), condition);
+			condition.setOffset(0L);
+		} else {
+			// 计算偏移量
+			condition.setOffset((long) (dto.getPage() - 1) * limit);
+		}
+		// 多取一行判断是否还有下一页
+		condition.setLimit(limit + 1);
+		
+		// 无共享只查本人；否则两个分支 UNION，页码很深时退回联表
+		condition.setPlan(TodoListPlan.choose(aclShareMarker.mightHaveShares(userId), condition.getBranchLimit()));
+		
+		List<TodoEntity> todoList = todoDao.selectMyTodosPage(condition);
+		boolean hasMore = todoList.size() > limit;
+		if (hasMore) {
+			todoList = todoList.subList(0, limit);
+		}
+		
+		String nextCursor = null;
+		if (cursorMode && hasMore) {
+			nextCursor = TodoCursor.encode(todoList.get(todoList.size() - 1), condition.getSortField(), condition.isDesc());
+		}
 		
 		// 统计总数
-		Long total = todoDao.countMyTodos(
-			userId,
-			dto.getKeyword(),
-			dto.getStatus(),
-			dto.getPriority(),
-			dto.getTeamId(),
-			dto.getDueDateStart(),
-			dto.getDueDateEnd()
-		);
+		TodoCountMode countMode = TodoCountMode.fromCode(dto.getCountMode());
+		long total = countTotal(condition, countMode, cursorMode, todoList.size(), hasMore);
 		
-		// 转换为 VO
+		// 转换为 VO，创建者 / 团队名称整页批量补充
 		List<TodoVO> voList = todoList.stream()
-				.map(this::convertToVO)
+				.map(TodoVOAssembler::convert)
 				.collect(Collectors.toList());
+		todoVOAssembler.enrich(voList);
 		
-		return new PageData<>(voList, total);
+		// 批量计算当前用户对每条 TODO 的权限，前端无需逐条再查
+		fillPermissionMask(voList, userId);
+		
+		// include=tags：本人创建的 TODO 附带标签（与 TagService#getTodoTags 的可见范围一致）
+		if (includes(dto, "tags")) {
+			todoVOAssembler.fillTags(voList.stream()
+					.filter(vo -> userId.equals(vo.getUserId()))
+					.collect(Collectors.toList()));
+		}
+		
+		PageData<TodoVO> page = new PageData<>(voList, total);
+		page.setNextCursor(nextCursor);
+		page.setHasMore(hasMore);
+		page.setCountMode(countMode.getCode());
+		return page;
 	}
 	
 	@Override
@@ -123,7 +213,7 @@ public class TodoServiceImpl extends BaseServiceImpl<TodoDao, TodoEntity> implem
 	public TodoVO getTodoById(Long id, Long userId) {
 		// ✅ 切面已自动检查权限（OWNER + ACL）
 		
-		TodoEntity todo = todoDao.selectById(id);
+		TodoEntity todo = ResourceContextHolder.getOrLoad(TodoEntity.class, id, todoDao::selectById);
 		
 		if (todo == null) {
 			throw new RenException("记录不存在");
@@ -143,37 +233,26 @@ public class TodoServiceImpl extends BaseServiceImpl<TodoDao, TodoEntity> implem
 	public TodoVO updateTodo(Long id, TodoUpdateDTO dto, Long userId) {
 		// ✅ 切面已自动检查权限（OWNER + ACL）
 		
-		TodoEntity todo = todoDao.selectById(id);
+		TodoEntity todo = ResourceContextHolder.getOrLoad(TodoEntity.class, id, todoDao::selectById);
 		
 		if (todo == null) {
 			throw new RenException("记录不存在");
 		}
 		
 		// 更新字段
-		if (StringUtils.isNotBlank(dto.getName())) {
-			todo.setName(dto.getName());
-		}
-		if (dto.getDescription() != null) {
-			todo.setDescription(dto.getDescription());
-		}
-		if (dto.getDueDate() != null) {
-			todo.setDueDate(dto.getDueDate());
-		}
-		if (StringUtils.isNotBlank(dto.getStatus())) {
-			todo.setStatus(dto.getStatus());
-			// 如果状态改为 COMPLETED，记录完成时间
-			if ("COMPLETED".equals(dto.getStatus()) && todo.getCompletedAt() == null) {
-				todo.setCompletedAt(new Date());
-			}
-		}
-		if (StringUtils.isNotBlank(dto.getPriority())) {
-			todo.setPriority(dto.getPriority());
-		}
-		
-		todo.setUpdateDate(new Date());
+		boolean dueChanged = dueDateChanged(todo, dto);
+		boolean textChanged = applyUpdate(todo, dto, new Date());
 		
 		// 保存
 		todoDao.updateById(todo);
+		if (textChanged) {
+			todoSearchIndex.reindex(todo);
+		}
+		if (dueChanged) {
+			rescheduleReminders(List.of(todo));
+		}
+		// 所有者、操作人和全部被授权用户（直接授权 + 团队成员）的列表缓存失效
+		todoListVersion.bump(todoChangeFeed.recordTodos(List.of(todo), userId, TodoChangeOp.UPSERT));
 		
 		return convertToVO(todo);
 	}
@@ -188,7 +267,7 @@ public class TodoServiceImpl extends BaseServiceImpl<TodoDao, TodoEntity> implem
 	public TodoVO completeTodo(Long id, Long userId) {
 		// ✅ 切面已自动检查权限（OWNER + ACL）
 		
-		TodoEntity todo = todoDao.selectById(id);
+		TodoEntity todo = ResourceContextHolder.getOrLoad(TodoEntity.class, id, todoDao::selectById);
 		
 		if (todo == null) {
 			throw new RenException("记录不存在");
@@ -205,6 +284,7 @@ public class TodoServiceImpl extends BaseServiceImpl<TodoDao, TodoEntity> implem
 		todo.setUpdateDate(new Date());
 		
 		todoDao.updateById(todo);
+		todoListVersion.bump(todoChangeFeed.recordTodos(List.of(todo), userId, TodoChangeOp.UPSERT));
 		
 		return convertToVO(todo);
 	}
@@ -220,58 +300,586 @@ public class TodoServiceImpl extends BaseServiceImpl<TodoDao, TodoEntity> implem
 	public void deleteTodo(Long id, Long userId) {
 		// ✅ 切面已自动检查权限（OWNER + ACL）
 		
-		TodoEntity todo = todoDao.selectById(id);
+		TodoEntity todo = ResourceContextHolder.getOrLoad(TodoEntity.class, id, todoDao::selectById);
 		
 		if (todo == null) {
 			throw new RenException("记录不存在");
 		}
 		
+		// 墓碑先于删除写入：被授权用户要在授权记录级联删除之前查出
+		Set<Long> audience = todoChangeFeed.recordTodos(List.of(todo), userId, TodoChangeOp.DELETE);
+		
 		// 删除TODO
 		todoDao.deleteById(id);
+		todoListVersion.bump(audience);
 		
 		// 数据库外键级联删除会自动清理：
 		// - tb_todo_tags 中的关联记录（ON DELETE CASCADE）
+		// - tb_todo_search_terms 中的搜索词项（ON DELETE CASCADE）
 		// - tb_acl_access_control 中的权限记录（ON DELETE CASCADE）
 	}
 	
+	@Override
+	@Transactional(rollbackFor = Exception.class)
+	public int shareTodos(TodoBatchShareDTO dto, Long userId) {
+		checkOwnedAll(dto.getTodoIds(), userId, "只有创建者可以共享 TODO");
+		
+		PermissionCode permissionCode = "VIEW".equals(dto.getPermission()) 
+			? PermissionCode.VIEW 
+			: PermissionCode.EDIT;
+		return aclPermissionService.batchGrantPermissions(
+			dto.getTargetUserIds(),
+			ResourceType.TODO.getCode(),
+			dto.getTodoIds(),
+			permissionCode.getCode(),
+			userId
+		);
+	}
+	
+	@Override
+	@Transactional(rollbackFor = Exception.class)
+	public int unshareTodos(TodoBatchUnshareDTO dto, Long userId) {
+		checkOwnedAll(dto.getTodoIds(), userId, "只有创建者可以取消共享");
+		
+		return aclPermissionService.batchRevokeAllPermissions(
+			dto.getTargetUserIds(),
+			ResourceType.TODO.getCode(),
+			dto.getTodoIds(),
+			userId
+		);
+	}
+	
+	@Override
+	@Transactional(rollbackFor = Exception.class)
+	@Idempotent(timeout = 300)
+	public List<TodoBatchResultVO> batchCreateTodos(TodoBatchCreateDTO dto, Long userId) {
+		List<TodoCreateDTO> items = dto.getItems();
+		TodoBatchResultVO[] results = new TodoBatchResultVO[items.size()];
+		
+		Date now = new Date();
+		List<TodoEntity> todos = new ArrayList<>();
+		List<Integer> indexes = new ArrayList<>();
+		for (int i = 0; i < items.size(); i++) {
+			TodoCreateDTO item = items.get(i);
+			if (item == null || StringUtils.isBlank(item.getName())) {
+				results[i] = TodoBatchResultVO.fail(i, null, "TODO 名称不能为空");
+				continue;
+			}
+			try {
+				todos.add(newTodo(item, userId, now));
+			} catch (RenException e) {
+				results[i] = TodoBatchResultVO.fail(i, null, e.getMsg());
+				continue;
+			}
+			indexes.add(i);
+		}
+		
+		if (!todos.isEmpty()) {
+			// JDBC 批量插入，自增 ID 回填到实体；词项合并写入
+			insertBatch(todos);
+			todoSearchIndex.indexAll(todos);
+			todoListVersion.bump(userId);
+			todoChangeFeed.recordAccess(List.of(userId), todos.stream().map(TodoEntity::getId).collect(Collectors.toList()), TodoChangeOp.UPSERT);
+			rescheduleReminders(todos);
+		}
+		
+		List<TodoVO> voList = convertToVOList(todos);
+		for (int j = 0; j < todos.size(); j++) {
+			int index = indexes.get(j);
+			results[index] = TodoBatchResultVO.ok(index, todos.get(j).getId(), voList.get(j));
+		}
+		return Arrays.asList(results);
+	}
+	
+	@Override
+	@Transactional(rollbackFor = Exception.class)
+	public List<TodoBatchResultVO> batchUpdateTodos(TodoBatchUpdateDTO dto, Long userId) {
+		List<TodoBatchUpdateDTO.Item> items = dto.getItems();
+		TodoBatchResultVO[] results = new TodoBatchResultVO[items.size()];
+		
+		List<Long> ids = items.stream().filter(Objects::nonNull).map(TodoBatchUpdateDTO.Item::getId).collect(Collectors.toList());
+		Map<Long, TodoEntity> todoMap = loadTodos(ids);
+		Set<Long> permitted = permittedIds(todoMap.values(), userId, PermissionCode.EDIT);
+		
+		Date now = new Date();
+		Set<Long> seen = new HashSet<>();
+		List<TodoEntity> updated = new ArrayList<>();
+		List<TodoEntity> textChanged = new ArrayList<>();
+		List<TodoEntity> dueChanged = new ArrayList<>();
+		List<Integer> indexes = new ArrayList<>();
+		for (int i = 0; i < items.size(); i++) {
+			TodoBatchUpdateDTO.Item item = items.get(i);
+			Long id = item != null ? item.getId() : null;
+			String error = checkItem(id, todoMap, permitted, seen);
+			if (error != null) {
+				results[i] = TodoBatchResultVO.fail(i, id, error);
+				continue;
+			}
+			
+			TodoEntity todo = todoMap.get(id);
+			boolean dueDateChanged = dueDateChanged(todo, item);
+			try {
+				if (applyUpdate(todo, item, now)) {
+					textChanged.add(todo);
+				}
+			} catch (RenException e) {
+				results[i] = TodoBatchResultVO.fail(i, id, e.getMsg());
+				continue;
+			}
+			if (dueDateChanged) {
+				dueChanged.add(todo);
+			}
+			updated.add(todo);
+			indexes.add(i);
+		}
+		
+		if (!updated.isEmpty()) {
+			updateBatchById(updated);
+			textChanged.forEach(todoSearchIndex::reindex);
+			rescheduleReminders(dueChanged);
+			todoListVersion.bump(todoChangeFeed.recordTodos(updated, userId, TodoChangeOp.UPSERT));
+		}
+		
+		List<TodoVO> voList = convertToVOList(updated);
+		for (int j = 0; j < updated.size(); j++) {
+			int index = indexes.get(j);
+			results[index] = TodoBatchResultVO.ok(index, updated.get(j).getId(), voList.get(j));
+		}
+		return Arrays.asList(results);
+	}
+	
+	@Override
+	@Transactional(rollbackFor = Exception.class)
+	public List<TodoBatchResultVO> batchCompleteTodos(TodoBatchIdsDTO dto, Long userId) {
+		List<Long> ids = dto.getTodoIds();
+		TodoBatchResultVO[] results = new TodoBatchResultVO[ids.size()];
+		
+		Map<Long, TodoEntity> todoMap = loadTodos(ids);
+		Set<Long> permitted = permittedIds(todoMap.values(), userId, PermissionCode.EDIT);
+		
+		Set<Long> seen = new HashSet<>();
+		List<TodoEntity> completed = new ArrayList<>();
+		List<Integer> indexes = new ArrayList<>();
+		for (int i = 0; i < ids.size(); i++) {
+			Long id = ids.get(i);
+			String error = checkItem(id, todoMap, permitted, seen);
+			if (error == null && TodoStatus.COMPLETED.getCode().equals(todoMap.get(id).getStatus())) {
+				error = "TODO 已经完成";
+			}
+			if (error != null) {
+				results[i] = TodoBatchResultVO.fail(i, id, error);
+				continue;
+			}
+			completed.add(todoMap.get(id));
+			indexes.add(i);
+		}
+		
+		if (!completed.isEmpty()) {
+			// 一条 UPDATE ... WHERE id IN (...) 完成全部
+			Date now = new Date();
+			todoDao.completeByIds(completed.stream().map(TodoEntity::getId).collect(Collectors.toList()), now);
+			for (TodoEntity todo : completed) {
+				todo.setStatus(TodoStatus.COMPLETED.getCode());
+				todo.setCompletedAt(now);
+				todo.setUpdateDate(now);
+			}
+			todoListVersion.bump(todoChangeFeed.recordTodos(completed, userId, TodoChangeOp.UPSERT));
+		}
+		
+		List<TodoVO> voList = convertToVOList(completed);
+		for (int j = 0; j < completed.size(); j++) {
+			int index = indexes.get(j);
+			results[index] = TodoBatchResultVO.ok(index, completed.get(j).getId(), voList.get(j));
+		}
+		return Arrays.asList(results);
+	}
+	
+	@Override
+	@Transactional(rollbackFor = Exception.class)
+	public List<TodoBatchResultVO> batchDeleteTodos(TodoBatchIdsDTO dto, Long userId) {
+		List<Long> ids = dto.getTodoIds();
+		TodoBatchResultVO[] results = new TodoBatchResultVO[ids.size()];
+		
+		Map<Long, TodoEntity> todoMap = loadTodos(ids);
+		Set<Long> permitted = permittedIds(todoMap.values(), userId, PermissionCode.DELETE);
+		
+		Set<Long> seen = new HashSet<>();
+		List<TodoEntity> deleted = new ArrayList<>();
+		for (int i = 0; i < ids.size(); i++) {
+			Long id = ids.get(i);
+			String error = checkItem(id, todoMap, permitted, seen);
+			if (error != null) {
+				results[i] = TodoBatchResultVO.fail(i, id, error);
+				continue;
+			}
+			deleted.add(todoMap.get(id));
+			results[i] = TodoBatchResultVO.ok(i, id, null);
+		}
+		
+		if (!deleted.isEmpty()) {
+			Set<Long> audience = todoChangeFeed.recordTodos(deleted, userId, TodoChangeOp.DELETE);
+			// 一条 DELETE ... WHERE id IN (...)，关联数据由外键级联清理（见 deleteTodo）
+			todoDao.deleteBatchIds(deleted.stream().map(TodoEntity::getId).collect(Collectors.toList()));
+			todoListVersion.bump(audience);
+		}
+		return Arrays.asList(results);
+	}
+	
+	@Override
+	public long exportTodos(TodoQueryDTO dto, TodoExportFormat format, Long userId, OutputStream out) {
+		TodoQueryCondition condition = buildCondition(dto, userId);
+		// 无共享只扫本人的 TODO，否则两个分支 UNION ALL（流式查询不需要 JOIN 计划）
+		condition.setPlan(aclShareMarker.mightHaveShares(userId) ? TodoListPlan.UNION : TodoListPlan.OWNED_ONLY);
+		return todoExporter.export(condition, format, out);
+	}
+	
+	@Override
+	public TodoChangesVO getTodoChanges(Long since, int limit, Long userId) {
+		TodoChangesVO result = new TodoChangesVO();
+		result.setChanges(new ArrayList<>());
+		result.setHasMore(false);
+		result.setReset(false);
+		
+		// 首次同步（或变更流未启用）：只返回当前序号，客户端全量拉取列表后从这里开始增量拉取
+		if (since == null || since <= 0 || !todoChangeFeed.isEnabled()) {
+			result.setNextSince(todoChangeFeed.head(userId));
+			result.setReset(true);
+			return result;
+		}
+		
+		int size = Math.max(1, Math.min(limit, MAX_CHANGES));
+		List<TodoChangeEntity> rows = todoChangeFeed.changesSince(userId, since, size + 1);
+		boolean hasMore = rows.size() > size;
+		if (hasMore) {
+			rows = rows.subList(0, size);
+		}
+		if (rows.isEmpty()) {
+			// since 超过当前序号（序号被重置或来自其他环境）时要求全量拉取
+			long head = todoChangeFeed.head(userId);
+			result.setNextSince(since > head ? head : since);
+			result.setReset(since > head);
+			return result;
+		}
+		
+		// 墓碑以外的行按当前数据和权限决定返回内容：仍可见的返回最新 TODO，否则返回墓碑
+		List<Long> ids = rows.stream()
+			.filter(row -> !TodoChangeOp.DELETE.getCode().equals(row.getOp()))
+			.map(TodoChangeEntity::getTodoId)
+			.collect(Collectors.toList());
+		Map<Long, TodoEntity> todoMap = loadTodos(ids);
+		Set<Long> visible = permittedIds(todoMap.values(), userId, PermissionCode.VIEW);
+		
+		List<TodoVO> voList = convertToVOList(ids.stream()
+			.filter(visible::contains)
+			.map(todoMap::get)
+			.collect(Collectors.toList()));
+		fillPermissionMask(voList, userId);
+		Map<Long, TodoVO> voMap = voList.stream().collect(Collectors.toMap(TodoVO::getId, Function.identity()));
+		
+		for (TodoChangeEntity row : rows) {
+			TodoVO todo = voMap.get(row.getTodoId());
+			String op = todo != null ? TodoChangeOp.UPSERT.getCode()
+				: (todoMap.containsKey(row.getTodoId()) ? TodoChangeOp.REVOKE : TodoChangeOp.DELETE).getCode();
+			result.getChanges().add(TodoChangeVO.of(row.getTodoId(), row.getSeq(), op, todo));
+		}
+		result.setNextSince(rows.get(rows.size() - 1).getSeq());
+		result.setHasMore(hasMore);
+		return result;
+	}
+	
 	// ==================== 辅助方法 ====================
 	
 	/**
-	 * 转换为 VO
+	 * 新建 TODO 实体（优先级默认 MEDIUM，状态 NOT_STARTED）
 	 */
-	private TodoVO convertToVO(TodoEntity entity) {
-		if (entity == null) {
-			return null;
-		}
-		
-		TodoVO vo = new TodoVO();
-		vo.setId(entity.getId());
-		vo.setName(entity.getName());
-		vo.setDescription(entity.getDescription());
-		vo.setDueDate(entity.getDueDate());
-		vo.setStatus(entity.getStatus());
-		vo.setPriority(entity.getPriority());
-		vo.setUserId(entity.getUserId());
-		vo.setTeamId(entity.getTeamId());
-		vo.setCompletedAt(entity.getCompletedAt());
-		vo.setCreateDate(entity.getCreateDate());
-		vo.setUpdateDate(entity.getUpdateDate());
-		
-		// 查询创建者用户名
-		UserEntity user = userDao.selectById(entity.getUserId());
-		if (user != null) {
-			vo.setUsername(user.getUsername());
-		}
-		
-		// TODO: 查询团队名称（团队功能开发后添加）
-		// if (entity.getTeamId() != null) {
-		//     TeamEntity team = teamDao.selectById(entity.getTeamId());
-		//     if (team != null) {
-		//         vo.setTeamName(team.getName());
-		//     }
-		// }
+	private static TodoEntity newTodo(TodoCreateDTO dto, Long userId, Date now) {
+		TodoEntity todo = new TodoEntity();
+		todo.setName(dto.getName());
+		todo.setDescription(dto.getDescription());
+		todo.setDueDate(dto.getDueDate());
+		setPriority(todo, StringUtils.isNotBlank(dto.getPriority()) ? parsePriority(dto.getPriority()) : TodoPriority.MEDIUM);
+		todo.setStatus(TodoStatus.NOT_STARTED.getCode());
+		todo.setUserId(userId);
+		todo.setTeamId(dto.getTeamId());
+		todo.setCreateDate(now);
+		todo.setUpdateDate(now);
+		return todo;
+	}
+	
+	/**
+	 * 把更新请求中的非空字段写入实体
+	 * 
+	 * @return 名称或描述是否变化（需要更新搜索词项）
+	 */
+	private static boolean applyUpdate(TodoEntity todo, TodoUpdateDTO dto, Date now) {
+		// 先校验，避免实体被改了一半
+		TodoPriority priority = StringUtils.isNotBlank(dto.getPriority()) ? parsePriority(dto.getPriority()) : null;
+		
+		boolean textChanged = false;
+		if (StringUtils.isNotBlank(dto.getName()) && !dto.getName().equals(todo.getName())) {
+			todo.setName(dto.getName());
+			textChanged = true;
+		}
+		if (dto.getDescription() != null && !dto.getDescription().equals(todo.getDescription())) {
+			todo.setDescription(dto.getDescription());
+			textChanged = true;
+		}
+		if (dto.getDueDate() != null) {
+			todo.setDueDate(dto.getDueDate());
+		}
+		if (StringUtils.isNotBlank(dto.getStatus())) {
+			todo.setStatus(dto.getStatus());
+			// 如果状态改为 COMPLETED，记录完成时间
+			if ("COMPLETED".equals(dto.getStatus()) && todo.getCompletedAt() == null) {
+				todo.setCompletedAt(now);
+			}
+		}
+		if (priority != null) {
+			setPriority(todo, priority);
+		}
+		
+		todo.setUpdateDate(now);
+		return textChanged;
+	}
+	
+	/**
+	 * 更新请求是否修改了截止日期
+	 */
+	private static boolean dueDateChanged(TodoEntity todo, TodoUpdateDTO dto) {
+		return dto.getDueDate() != null
+			&& (todo.getDueDate() == null || todo.getDueDate().getTime() != dto.getDueDate().getTime());
+	}
+	
+	/**
+	 * 截止日期变化后重新调度到期提醒（事务提交后执行，回滚时不生效）
+	 */
+	private void rescheduleReminders(List<TodoEntity> todos) {
+		List<TodoEntity> withDueDate = todos.stream().filter(todo -> todo.getDueDate() != null).collect(Collectors.toList());
+		if (!withDueDate.isEmpty()) {
+			TransactionUtils.afterCommit(() -> withDueDate.forEach(todoReminderScheduler::reschedule));
+		}
+	}
+	
+	/**
+	 * 优先级代码和排序权重总是一起写入（按优先级排序走 priority_rank 索引）
+	 */
+	private static void setPriority(TodoEntity todo, TodoPriority priority) {
+		todo.setPriority(priority.getCode());
+		todo.setPriorityRank(priority.getRank());
+	}
+	
+	private static TodoPriority parsePriority(String code) {
+		try {
+			return TodoPriority.fromCode(code);
+		} catch (IllegalArgumentException e) {
+			throw new RenException("优先级无效：" + code);
+		}
+	}
+	
+	/**
+	 * 批量加载 TODO（一次 IN 查询）
+	 */
+	private Map<Long, TodoEntity> loadTodos(List<Long> ids) {
+		List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+		if (distinctIds.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		return todoDao.selectBatchIds(distinctIds).stream()
+			.collect(Collectors.toMap(TodoEntity::getId, Function.identity()));
+	}
+	
+	/**
+	 * 批量权限判断：自己创建的直接通过，共享的 TODO 一次批量计算（与 @RequirePermission 的 OWNER + ACL 规则一致）
+	 * 
+	 * @return 有指定权限的 TODO ID
+	 */
+	private Set<Long> permittedIds(Collection<TodoEntity> todos, Long userId, PermissionCode permission) {
+		Set<Long> permitted = new HashSet<>();
+		List<Long> sharedIds = new ArrayList<>();
+		for (TodoEntity todo : todos) {
+			if (userId.equals(todo.getUserId())) {
+				permitted.add(todo.getId());
+			} else {
+				sharedIds.add(todo.getId());
+			}
+		}
+		if (!sharedIds.isEmpty()) {
+			aclPermissionService.evaluate(userId, ResourceType.TODO, sharedIds, EnumSet.of(permission))
+				.forEach((id, mask) -> {
+					if (permission.in(mask)) {
+						permitted.add(id);
+					}
+				});
+		}
+		return permitted;
+	}
+	
+	/**
+	 * 批量操作单项校验
+	 * 
+	 * @return 失败原因，可以执行时返回 null
+	 */
+	private static String checkItem(Long id, Map<Long, TodoEntity> todoMap, Set<Long> permitted, Set<Long> seen) {
+		if (id == null) {
+			return "TODO ID不能为空";
+		}
+		if (!todoMap.containsKey(id)) {
+			return "记录不存在";
+		}
+		if (!permitted.contains(id)) {
+			return "权限不足";
+		}
+		if (!seen.add(id)) {
+			return "TODO ID重复";
+		}
+		return null;
+	}
+	
+	/**
+	 * 列表查询条件（排序字段走白名单，默认按创建时间降序）
+	 */
+	private TodoQueryCondition buildCondition(TodoQueryDTO dto, Long userId) {
+		TodoQueryCondition condition = new TodoQueryCondition();
+		condition.setUserId(userId);
+		condition.setKeyword(dto.getKeyword());
+		// 能用倒排索引回答时先按词项取候选，否则为 null 走 LIKE
+		condition.setSearchTerms(todoSearchIndex.queryTerms(dto.getKeyword()));
+		condition.setStatus(dto.getStatus());
+		condition.setPriority(dto.getPriority());
+		condition.setTeamId(dto.getTeamId());
+		applyTagFilter(condition, dto, userId);
+		condition.setDueDateStart(dto.getDueDateStart());
+		condition.setDueDateEnd(dto.getDueDateEnd());
+		condition.setSortField(TodoSortField.fromCode(dto.getOrderBy()));
+		condition.setDesc(!"asc".equals(dto.getOrderDirection()));
+		return condition;
+	}
+	
+	/**
+	 * 标签筛选：tagId 与 tagIds 合并去重（排序后作为缓存键的一部分），只允许本人的标签；
+	 * 重度用户优先用内存标签索引求候选 ID，否则走 EXISTS 半连接
+	 */
+	private void applyTagFilter(TodoQueryCondition condition, TodoQueryDTO dto, Long userId) {
+		Set<Long> tagIds = new TreeSet<>();
+		if (dto.getTagId() != null) {
+			tagIds.add(dto.getTagId());
+		}
+		if (dto.getTagIds() != null) {
+			dto.getTagIds().stream().filter(Objects::nonNull).forEach(tagIds::add);
+		}
+		if (tagIds.isEmpty()) {
+			return;
+		}
+		if (tagIds.size() > MAX_FILTER_TAGS) {
+			throw new RenException("标签筛选最多 " + MAX_FILTER_TAGS + " 个");
+		}
+		// 只能按自己的标签筛选：他人的标签 ID 可以用来探测共享给自己的 TODO 上打了哪些标签
+		QueryWrapper<TagEntity> wrapper = new QueryWrapper<>();
+		wrapper.eq("user_id", userId).in("id", tagIds);
+		if (tagDao.selectCount(wrapper) < tagIds.size()) {
+			throw new RenException("标签不存在");
+		}
 		
+		condition.setTagIds(new ArrayList<>(tagIds));
+		condition.setTagMatchAll("ALL".equalsIgnoreCase(dto.getTagMatch()));
+		condition.setTagTodoIds(todoTagIndex.candidates(userId, condition.getTagIds(), condition.isTagMatchAll()));
+	}
+	
+	/**
+	 * include 参数（逗号分隔）是否包含指定项
+	 */
+	private static boolean includes(TodoQueryDTO dto, String item) {
+		if (StringUtils.isBlank(dto.getInclude())) {
+			return false;
+		}
+		for (String part : dto.getInclude().split(",")) {
+			if (item.equalsIgnoreCase(part.trim())) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * 按计数方式计算总数
+	 * 
+	 * offset 分页的最后一页（没有更多且本页有数据，或第一页）总数就是 offset + 本页行数，不再查库
+	 */
+	private long countTotal(TodoQueryCondition condition, TodoCountMode countMode, boolean cursorMode, int rows, boolean hasMore) {
+		if (countMode == TodoCountMode.NONE) {
+			return -1;
+		}
+		if (!cursorMode && !hasMore && (rows > 0 || condition.getOffset() == 0)) {
+			return condition.getOffset() + rows;
+		}
+		
+		switch (countMode) {
+			case CACHED:
+				return todoCountCache.get(condition, () -> todoDao.countMyTodos(condition));
+			case ESTIMATED:
+				condition.setCountCap(TodoCountMode.ESTIMATE_CAP);
+				return todoDao.countMyTodos(condition);
+			default:
+				return todoDao.countMyTodos(condition);
+		}
+	}
+	
+	/**
+	 * 校验全部 TODO 都由当前用户创建（一次 IN 查询）
+	 */
+	private void checkOwnedAll(List<Long> todoIds, Long userId, String message) {
+		List<Long> ids = todoIds.stream().distinct().collect(Collectors.toList());
+		
+		QueryWrapper<TodoEntity> wrapper = new QueryWrapper<>();
+		wrapper.in("id", ids).eq("user_id", userId);
+		if (todoDao.selectCount(wrapper) != ids.size()) {
+			throw new RenException(message);
+		}
+	}
+	
+	/**
+	 * 填充权限位掩码
+	 * 
+	 * 自己创建的直接给 OWNER 全部权限；共享的 TODO 一次批量计算
+	 */
+	private void fillPermissionMask(List<TodoVO> voList, Long userId) {
+		List<Long> sharedIds = new ArrayList<>();
+		for (TodoVO vo : voList) {
+			if (userId.equals(vo.getUserId())) {
+				vo.setPermissionMask(OWNER_MASK);
+			} else {
+				sharedIds.add(vo.getId());
+			}
+		}
+		if (sharedIds.isEmpty()) {
+			return;
+		}
+		
+		Map<Long, Integer> masks = aclPermissionService.evaluate(userId, ResourceType.TODO, sharedIds, SHARED_PERMISSIONS);
+		for (TodoVO vo : voList) {
+			if (vo.getPermissionMask() == null) {
+				vo.setPermissionMask(masks.getOrDefault(vo.getId(), 0));
+			}
+		}
+	}
+	
+	/**
+	 * 转换为 VO（批量，关联信息一次补充）
+	 */
+	private List<TodoVO> convertToVOList(List<TodoEntity> entities) {
+		List<TodoVO> voList = entities.stream().map(TodoVOAssembler::convert).collect(Collectors.toList());
+		todoVOAssembler.enrich(voList);
+		return voList;
+	}
+	
+	/**
+	 * 转换为 VO（单条）
+	 */
+	private TodoVO convertToVO(TodoEntity entity) {
+		TodoVO vo = TodoVOAssembler.convert(entity);
+		if (vo != null) {
+			todoVOAssembler.enrich(List.of(vo));
+		}
 		return vo;
 	}
 }
-
@@ -0,0 +1,244 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.sync;
+
+import io.user.dao.TodoChangeDao;
+import io.user.entity.TodoChangeEntity;
+import io.user.entity.TodoChangeSeqEntity;
+import io.user.entity.TodoEntity;
+import io.user.enums.TodoChangeOp;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * TODO 变更流（增量同步）
+ *
+ * 1. 写入：TODO 创建 / 修改 / 完成 / 删除、共享授权 / 撤销、团队成员变化时，在同一事务内
+ *    给每个受影响的用户分配新序号（tb_todo_change_seq 按增量累加），并把 (用户, TODO) 的最新变化
+ *    覆盖写入 tb_todo_changes；删除保留墓碑
+ * 2. 受影响的用户：所有者 + 操作人 + 被授权用户（直接授权和被授权团队的成员，按 idx_acl_resource 查询），
+ *    同时返回给调用方递增这些用户的列表版本号（列表缓存失效）
+ * 3. 读取：按 (user_id, seq) 范围扫描 since 之后的行，客户端拉取成本与变化量成正比，与 TODO 总数无关
+ *
+ * 序号行的行锁持有到事务提交，同一用户的变化按序号顺序提交：读到序号 N 时小于 N 的变化都已可见，
+ * 客户端记住的 since 之后不会再插入更小的序号。用户按 ID 升序加锁，批量写入之间加锁顺序一致。
+ *
+ * 变更行只记录"哪个 TODO 变了"，读取时再按当前数据和权限决定返回内容（见 TodoService#getTodoChanges）。
+ *
+ * @author System
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TodoChangeFeed {
+
+	/** 单条 SQL 最多处理的用户数 / 变更行数 / TODO 数 */
+	private static final int BATCH_SIZE = 500;
+
+	private final TodoChangeDao todoChangeDao;
+
+	@Value("${collabtask.todo.change-feed.enabled:true}")
+	private boolean enabled;
+
+	private final LongAdder recordedChanges = new LongAdder();
+	private final LongAdder reads = new LongAdder();
+	private final LongAdder readRows = new LongAdder();
+
+	/**
+	 * 记录 TODO 内容变化（所有者、操作人和全部被授权用户）
+	 *
+	 * 删除 TODO 时必须在 DELETE 之前调用：授权记录随 TODO 级联删除后就查不到被授权用户了
+	 *
+	 * @return 受影响的用户（变更流关闭时同样查询并返回），调用方据此递增列表版本号
+	 */
+	@Transactional(rollbackFor = Exception.class)
+	public Set<Long> recordTodos(Collection<TodoEntity> todos, Long operatorId, TodoChangeOp op) {
+		if (todos.isEmpty()) {
+			return Collections.emptySet();
+		}
+
+		Map<Long, Set<Long>> changes = new TreeMap<>();
+		List<Long> todoIds = new ArrayList<>(todos.size());
+		for (TodoEntity todo : todos) {
+			add(changes, todo.getUserId(), todo.getId());
+			add(changes, operatorId, todo.getId());
+			todoIds.add(todo.getId());
+		}
+		for (TodoChangeEntity row : selectAudience(todoIds)) {
+			add(changes, row.getUserId(), row.getTodoId());
+		}
+		if (enabled) {
+			write(changes, op);
+		}
+		return new TreeSet<>(changes.keySet());
+	}
+
+	/**
+	 * TODO 的被授权用户（直接授权 + 被授权团队的成员，不含所有者）
+	 */
+	public Set<Long> audience(Collection<Long> todoIds) {
+		return selectAudience(new ArrayList<>(todoIds)).stream()
+			.map(TodoChangeEntity::getUserId)
+			.collect(Collectors.toCollection(TreeSet::new));
+	}
+
+	/**
+	 * 记录访问权限变化（用户 × TODO）
+	 */
+	@Transactional(rollbackFor = Exception.class)
+	public void recordAccess(Collection<Long> userIds, Collection<Long> todoIds, TodoChangeOp op) {
+		if (!enabled || userIds.isEmpty() || todoIds.isEmpty()) {
+			return;
+		}
+
+		Map<Long, Set<Long>> changes = new TreeMap<>();
+		for (Long userId : userIds) {
+			for (Long todoId : todoIds) {
+				add(changes, userId, todoId);
+			}
+		}
+		write(changes, op);
+	}
+
+	/**
+	 * 记录访问权限变化（用户 -> TODO ID，每个用户的 TODO 各不相同时使用）
+	 */
+	@Transactional(rollbackFor = Exception.class)
+	public void recordAccess(Map<Long, ? extends Collection<Long>> userTodos, TodoChangeOp op) {
+		if (!enabled || userTodos.isEmpty()) {
+			return;
+		}
+
+		Map<Long, Set<Long>> changes = new TreeMap<>();
+		userTodos.forEach((userId, todoIds) -> todoIds.forEach(todoId -> add(changes, userId, todoId)));
+		write(changes, op);
+	}
+
+	/**
+	 * 记录团队成员变化：共享给该团队的 TODO 对加入 / 退出的成员出现或消失
+	 */
+	@Transactional(rollbackFor = Exception.class)
+	public void recordTeamMembership(Long teamId, Long memberId, TodoChangeOp op) {
+		if (!enabled) {
+			return;
+		}
+		recordAccess(List.of(memberId), teamTodoIds(teamId), op);
+	}
+
+	/**
+	 * 共享给团队的 TODO ID（撤销团队授权时需在删除授权之前查询）
+	 */
+	public List<Long> teamTodoIds(Long teamId) {
+		return enabled ? todoChangeDao.selectTeamTodoIds(teamId) : List.of();
+	}
+
+	/**
+	 * since 之后的变化（按序号升序）
+	 */
+	public List<TodoChangeEntity> changesSince(Long userId, long since, int limit) {
+		List<TodoChangeEntity> rows = todoChangeDao.selectSince(userId, since, limit);
+		reads.increment();
+		readRows.add(rows.size());
+		return rows;
+	}
+
+	/**
+	 * 用户当前的最大序号（没有任何变化时为 0）
+	 */
+	public long head(Long userId) {
+		List<TodoChangeSeqEntity> seqs = todoChangeDao.selectSeqs(List.of(userId));
+		return seqs.isEmpty() ? 0 : seqs.get(0).getSeq();
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * 监控指标
+	 */
+	public Map<String, Object> getStats() {
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("status", "UP");
+		stats.put("enabled", enabled);
+		stats.put("recordedChanges", recordedChanges.sum());
+		stats.put("reads", reads.sum());
+		stats.put("readRows", readRows.sum());
+		return stats;
+	}
+
+	/**
+	 * 分配序号并写入变更行
+	 *
+	 * 每个用户一次递增 k（k 为该用户本次变化的 TODO 数），读回累加后的序号 head，
+	 * 本次变化依次使用 head - k + 1 .. head
+	 */
+	private void write(Map<Long, Set<Long>> changes, TodoChangeOp op) {
+		Date now = new Date();
+		List<Long> userIds = new ArrayList<>(changes.keySet());
+		for (int i = 0; i < userIds.size(); i += BATCH_SIZE) {
+			List<Long> batch = userIds.subList(i, Math.min(i + BATCH_SIZE, userIds.size()));
+			todoChangeDao.incrementSeqBatch(batch.stream()
+				.map(userId -> new TodoChangeSeqEntity(userId, (long) changes.get(userId).size()))
+				.collect(Collectors.toList()));
+			Map<Long, Long> heads = todoChangeDao.selectSeqs(batch).stream()
+				.collect(Collectors.toMap(TodoChangeSeqEntity::getUserId, TodoChangeSeqEntity::getSeq));
+
+			List<TodoChangeEntity> rows = new ArrayList<>();
+			for (Long userId : batch) {
+				Set<Long> todoIds = changes.get(userId);
+				long seq = heads.get(userId) - todoIds.size();
+				for (Long todoId : todoIds) {
+					TodoChangeEntity row = new TodoChangeEntity();
+					row.setUserId(userId);
+					row.setTodoId(todoId);
+					row.setSeq(++seq);
+					row.setOp(op.getCode());
+					row.setChangeDate(now);
+					rows.add(row);
+				}
+			}
+			for (int j = 0; j < rows.size(); j += BATCH_SIZE) {
+				todoChangeDao.upsertBatch(rows.subList(j, Math.min(j + BATCH_SIZE, rows.size())));
+			}
+			recordedChanges.add(rows.size());
+		}
+		log.debug("TODO变更已记录：users={}, op={}", userIds.size(), op.getCode());
+	}
+
+	private List<TodoChangeEntity> selectAudience(List<Long> todoIds) {
+		List<TodoChangeEntity> rows = new ArrayList<>();
+		for (int i = 0; i < todoIds.size(); i += BATCH_SIZE) {
+			rows.addAll(todoChangeDao.selectAudience(todoIds.subList(i, Math.min(i + BATCH_SIZE, todoIds.size()))));
+		}
+		return rows;
+	}
+
+	private static void add(Map<Long, Set<Long>> changes, Long userId, Long todoId) {
+		if (userId != null && todoId != null) {
+			changes.computeIfAbsent(userId, k -> new TreeSet<>()).add(todoId);
+		}
+	}
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.benchmark;
+
+import io.user.common.annotation.DistributedLock;
+import io.user.common.annotation.RequirePermission;
+import io.user.common.aspect.AdviceMetadataCache;
+import io.user.enums.PermissionCode;
+import io.user.enums.ResourceType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 切面元数据解析基准测试：每次反射解析 vs AdviceMetadataCache
+ * 
+ * 对应 PermissionCheckAspect（注解 + 参数名扫描）与 DistributedLockAspect（SpEL key）的热路径。
+ * 不在单元测试中执行，手动运行：直接执行 main 方法（需 test classpath）。
+ *
+ * @author System
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdviceMetadataBenchmark {
+	
+	private final DefaultParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+	
+	private Method method;
+	private Object[] args;
+	private AdviceMetadataCache<Metadata> metadataCache;
+	
+	@Setup
+	public void setup() throws NoSuchMethodException {
+		method = SampleService.class.getMethod("updateTodo", Long.class, String.class, Long.class);
+		args = new Object[]{42L, "name", 7L};
+		metadataCache = new AdviceMetadataCache<>(Metadata::resolve);
+	}
+	
+	/**
+	 * 改造前：每次调用 getAnnotation、扫描参数名、重新解析 SpEL
+	 */
+	@Benchmark
+	public Object reflective() {
+		RequirePermission permission = method.getAnnotation(RequirePermission.class);
+		String[] parameterNames = parameterNameDiscoverer.getParameterNames(method);
+		
+		Long resourceId = null;
+		Long userId = null;
+		for (int i = 0; i < parameterNames.length; i++) {
+			if (parameterNames[i].equals(permission.resourceIdParam())) {
+				resourceId = (Long) args[i];
+			}
+			if (parameterNames[i].equals(permission.userIdParam())) {
+				userId = (Long) args[i];
+			}
+		}
+		
+		DistributedLock lock = method.getAnnotation(DistributedLock.class);
+		EvaluationContext context = new StandardEvaluationContext();
+		for (int i = 0; i < parameterNames.length; i++) {
+			context.setVariable(parameterNames[i], args[i]);
+		}
+		Object key = new SpelExpressionParser().parseExpression(lock.key()).getValue(context);
+		
+		return resourceId + userId + String.valueOf(key);
+	}
+	
+	/**
+	 * 改造后：元数据按方法缓存，按下标取参数，表达式预先解析
+	 */
+	@Benchmark
+	public Object cached() {
+		Metadata metadata = metadataCache.get(method, SampleService.class);
+		
+		Long resourceId = (Long) args[metadata.resourceIdIndex];
+		Long userId = (Long) args[metadata.userIdIndex];
+		
+		EvaluationContext context = new StandardEvaluationContext();
+		for (int i = 0; i < metadata.parameterNames.length; i++) {
+			context.setVariable(metadata.parameterNames[i], args[i]);
+		}
+		Object key = metadata.keyExpression.getValue(context);
+		
+		return resourceId + userId + String.valueOf(key);
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+			.include(AdviceMetadataBenchmark.class.getSimpleName())
+			.build()).run();
+	}
+	
+	/**
+	 * 与切面中的元数据结构一致
+	 */
+	static final class Metadata {
+		private static final SpelExpressionParser PARSER = new SpelExpressionParser(
+			new SpelParserConfiguration(SpelCompilerMode.MIXED, Metadata.class.getClassLoader()));
+		
+		final int resourceIdIndex;
+		final int userIdIndex;
+		final String[] parameterNames;
+		final Expression keyExpression;
+		
+		Metadata(Method method) {
+			RequirePermission permission = method.getAnnotation(RequirePermission.class);
+			this.resourceIdIndex = AdviceMetadataCache.parameterIndex(method, permission.resourceIdParam());
+			this.userIdIndex = AdviceMetadataCache.parameterIndex(method, permission.userIdParam());
+			this.parameterNames = AdviceMetadataCache.parameterNames(method);
+			this.keyExpression = PARSER.parseExpression(method.getAnnotation(DistributedLock.class).key());
+		}
+		
+		static Metadata resolve(Method method, Class<?> targetClass) {
+			return new Metadata(method);
+		}
+	}
+	
+	/**
+	 * 被拦截的示例方法
+	 */
+	public static class SampleService {
+		
+		@RequirePermission(resourceType = ResourceType.TODO, permission = PermissionCode.EDIT)
+		@DistributedLock(key = "'todo:edit:' + #id")
+		public void updateTodo(Long id, String name, Long userId) {
+		}
+	}
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.cache;
+
+import io.user.dao.TodoTagDao;
+import io.user.entity.TodoTagEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * TodoTagIndex 单元测试
+ *
+ * @author System
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("标签内存索引单元测试")
+public class TodoTagIndexTest {
+
+    @Mock
+    private TodoTagDao todoTagDao;
+
+    @Mock
+    private TodoListVersion todoListVersion;
+
+    @InjectMocks
+    private TodoTagIndex todoTagIndex;
+
+    private Long userId;
+    private List<TodoTagEntity> rows;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(todoTagIndex, "enabled", true);
+        ReflectionTestUtils.setField(todoTagIndex, "maxUsers", 10);
+        ReflectionTestUtils.setField(todoTagIndex, "minRows", 1);
+        ReflectionTestUtils.setField(todoTagIndex, "maxRows", 1000);
+        ReflectionTestUtils.setField(todoTagIndex, "maxCandidates", 1000);
+        todoTagIndex.init();
+
+        userId = 1L;
+        // 标签 1 -> {1, 3, 5}，标签 2 -> {2, 4}，标签 3 -> {3, 4, 5, 6}，标签 4 没有关联的 TODO
+        rows = new ArrayList<>();
+        addRows(1L, 5L, 1L, 3L);
+        addRows(2L, 4L, 2L);
+        addRows(3L, 6L, 3L, 5L, 4L);
+        addRows(4L, (Long) null);
+    }
+
+    @Test
+    @DisplayName("重叠的标签：ALL 取交集，ANY 取并集（升序去重）")
+    void testCandidates_Overlapping() {
+        // Given
+        stubIndex(1L);
+
+        // When & Then
+        assertEquals(List.of(3L, 5L), todoTagIndex.candidates(userId, List.of(1L, 3L), true));
+        assertEquals(List.of(1L, 3L, 4L, 5L, 6L), todoTagIndex.candidates(userId, List.of(1L, 3L), false));
+        assertEquals(List.of(4L), todoTagIndex.candidates(userId, List.of(2L, 3L), true));
+        assertEquals(List.of(), todoTagIndex.candidates(userId, List.of(1L, 2L, 3L), true));
+    }
+
+    @Test
+    @DisplayName("不相交的标签：ALL 为空列表，ANY 为全部")
+    void testCandidates_Disjoint() {
+        // Given
+        stubIndex(1L);
+
+        // When & Then
+        assertEquals(List.of(), todoTagIndex.candidates(userId, List.of(1L, 2L), true));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), todoTagIndex.candidates(userId, List.of(1L, 2L), false));
+    }
+
+    @Test
+    @DisplayName("空集合：没有关联TODO的标签参与 ALL 结果为空，参与 ANY 不影响结果；不筛选标签返回 null")
+    void testCandidates_Empty() {
+        // Given
+        stubIndex(1L);
+
+        // When & Then
+        assertEquals(List.of(), todoTagIndex.candidates(userId, List.of(4L), false));
+        assertEquals(List.of(), todoTagIndex.candidates(userId, List.of(1L, 4L), true));
+        assertEquals(List.of(1L, 3L, 5L), todoTagIndex.candidates(userId, List.of(4L, 1L), false));
+        assertNull(todoTagIndex.candidates(userId, List.of(), true));
+    }
+
+    @Test
+    @DisplayName("索引中没有的标签、候选超过上限时返回 null（退回 EXISTS）")
+    void testCandidates_Fallback() {
+        // Given
+        stubIndex(1L);
+
+        // When & Then
+        assertNull(todoTagIndex.candidates(userId, List.of(1L, 99L), false));
+
+        ReflectionTestUtils.setField(todoTagIndex, "maxCandidates", 3);
+        assertNull(todoTagIndex.candidates(userId, List.of(3L), false));
+        assertEquals(List.of(1L, 3L, 5L), todoTagIndex.candidates(userId, List.of(1L), false));
+    }
+
+    @Test
+    @DisplayName("列表版本号变化后重新加载，Redis 不可用时不查索引")
+    void testCandidates_ReloadOnVersionChange() {
+        // Given
+        when(todoListVersion.current(userId)).thenReturn(1L, 1L, 2L, TodoListVersion.UNAVAILABLE);
+        when(todoTagDao.selectUserTagTodos(userId, 1001)).thenReturn(rows);
+
+        // When
+        todoTagIndex.candidates(userId, List.of(1L), false);
+        todoTagIndex.candidates(userId, List.of(1L), false);
+        todoTagIndex.candidates(userId, List.of(1L), false);
+        List<Long> unavailable = todoTagIndex.candidates(userId, List.of(1L), false);
+
+        // Then
+        verify(todoTagDao, times(2)).selectUserTagTodos(userId, 1001);
+        assertNull(unavailable);
+    }
+
+    @Test
+    @DisplayName("关联行数少于 min-rows 的用户不建索引")
+    void testCandidates_BelowMinRows() {
+        // Given
+        ReflectionTestUtils.setField(todoTagIndex, "minRows", 100);
+        stubIndex(1L);
+
+        // When & Then
+        assertNull(todoTagIndex.candidates(userId, List.of(1L), false));
+    }
+
+    private void stubIndex(long version) {
+        when(todoListVersion.current(userId)).thenReturn(version);
+        when(todoTagDao.selectUserTagTodos(userId, 1001)).thenReturn(rows);
+    }
+
+    private void addRows(Long tagId, Long... todoIds) {
+        for (Long todoId : todoIds) {
+            TodoTagEntity row = new TodoTagEntity();
+            row.setTagId(tagId);
+            row.setTodoId(todoId);
+            rows.add(row);
+        }
+    }
+}
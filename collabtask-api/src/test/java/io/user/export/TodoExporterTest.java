@@ -0,0 +1,190 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.user.assembler.TodoVOAssembler;
+import io.user.dao.TodoDao;
+import io.user.dto.TodoQueryCondition;
+import io.user.dto.TodoVO;
+import io.user.entity.TodoEntity;
+import io.user.enums.TodoExportFormat;
+import org.apache.ibatis.cursor.Cursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * TodoExporter 单元测试
+ *
+ * @author System
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TODO导出单元测试")
+public class TodoExporterTest {
+
+    private static final String CSV_HEADER =
+        "id,name,description,status,priority,dueDate,userId,username,teamId,teamName,completedAt,createDate,updateDate";
+
+    @Mock
+    private TodoDao todoDao;
+
+    @Mock
+    private TodoVOAssembler todoVOAssembler;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private Cursor<TodoEntity> cursor;
+
+    private TodoExporter todoExporter;
+
+    private TodoQueryCondition condition;
+
+    @BeforeEach
+    void setUp() {
+        todoExporter = new TodoExporter(todoDao, todoVOAssembler, transactionManager, new MappingJackson2HttpMessageConverter());
+        condition = new TodoQueryCondition();
+        condition.setUserId(1L);
+        when(todoDao.streamMyTodos(condition)).thenReturn(cursor);
+    }
+
+    @Test
+    @DisplayName("CSV：UTF-8 BOM、表头，含逗号 / 引号 / 换行的字段加引号")
+    void testExportCsv_Quoting() {
+        // Given
+        stream(todo(1L, "a,b", null), todo(2L, "say \"hi\"", "line1\nline2"), todo(3L, "plain", "crlf\r\n"));
+
+        // When
+        String csv = export(TodoExportFormat.CSV, 3);
+
+        // Then
+        assertTrue(csv.startsWith("\uFEFF" + CSV_HEADER + "\r\n"));
+        List<String> lines = csvLines(csv);
+        assertTrue(lines.get(0).startsWith("1,\"a,b\",,NOT_STARTED,"));
+        assertTrue(lines.get(1).startsWith("2,\"say \"\"hi\"\"\",\"line1\nline2\","));
+        assertTrue(lines.get(2).startsWith("3,plain,\"crlf\r\n\","));
+    }
+
+    @Test
+    @DisplayName("CSV：以 = + - @ 制表符 回车开头的字段加单引号前缀")
+    void testExportCsv_FormulaPrefix() {
+        // Given
+        stream(todo(1L, "=SUM(A1:A9)", "+1"), todo(2L, "-2", "@cmd"), todo(3L, "\tx", "\rx"), todo(4L, "a=b", "1-2"));
+
+        // When
+        List<String> lines = csvLines(export(TodoExportFormat.CSV, 4));
+
+        // Then
+        assertTrue(lines.get(0).startsWith("1,'=SUM(A1:A9),'+1,"));
+        assertTrue(lines.get(1).startsWith("2,'-2,'@cmd,"));
+        // 回车同时触发加引号
+        assertTrue(lines.get(2).startsWith("3,'\tx,\"'\rx\","));
+        // 不在开头的符号不处理
+        assertTrue(lines.get(3).startsWith("4,a=b,1-2,"));
+    }
+
+    @Test
+    @DisplayName("NDJSON：每行一个完整 JSON 对象，字段内的换行被转义")
+    void testExportNdjson_LineFraming() throws Exception {
+        // Given
+        stream(todo(1L, "first", "line1\nline2"), todo(2L, "second", null));
+
+        // When
+        String ndjson = export(TodoExportFormat.NDJSON, 2);
+
+        // Then
+        assertTrue(ndjson.endsWith("\n"));
+        String[] lines = ndjson.split("\n");
+        assertEquals(2, lines.length);
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("first", first.get("name").asText());
+        assertEquals("line1\nline2", first.get("description").asText());
+        assertEquals("second", objectMapper.readTree(lines[1]).get("name").asText());
+    }
+
+    @Test
+    @DisplayName("分块：500 行一块补充用户名，跨块边界的行都被补充")
+    @SuppressWarnings("unchecked")
+    void testExport_EnrichAcrossChunkBoundary() throws Exception {
+        // Given
+        List<TodoEntity> todos = new ArrayList<>();
+        for (long id = 1; id <= 501; id++) {
+            todos.add(todo(id, "todo-" + id, null));
+        }
+        when(cursor.iterator()).thenReturn(todos.iterator());
+        doAnswer(invocation -> {
+            List<TodoVO> voList = invocation.getArgument(0);
+            voList.forEach(vo -> vo.setUsername("user-" + vo.getId()));
+            return null;
+        }).when(todoVOAssembler).enrich(anyList());
+
+        // When
+        String ndjson = export(TodoExportFormat.NDJSON, 501);
+
+        // Then
+        ArgumentCaptor<List<TodoVO>> captor = ArgumentCaptor.forClass(List.class);
+        verify(todoVOAssembler, times(2)).enrich(captor.capture());
+        assertEquals(500, captor.getAllValues().get(0).size());
+        assertEquals(1, captor.getAllValues().get(1).size());
+
+        String[] lines = ndjson.split("\n");
+        assertEquals(501, lines.length);
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertEquals("user-500", objectMapper.readTree(lines[499]).get("username").asText());
+        assertEquals("user-501", objectMapper.readTree(lines[500]).get("username").asText());
+    }
+
+    private String export(TodoExportFormat format, long expectedRows) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(expectedRows, todoExporter.export(condition, format, out));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private void stream(TodoEntity... todos) {
+        when(cursor.iterator()).thenReturn(List.of(todos).iterator());
+    }
+
+    /**
+     * 去掉 BOM 和表头后的数据行（字段内可能含换行，按行首的 id 切分）
+     */
+    private List<String> csvLines(String csv) {
+        String body = csv.substring(("\uFEFF" + CSV_HEADER + "\r\n").length());
+        return List.of(body.split("\r\n(?=\\d+,)"));
+    }
+
+    private TodoEntity todo(Long id, String name, String description) {
+        TodoEntity todo = new TodoEntity();
+        todo.setId(id);
+        todo.setName(name);
+        todo.setDescription(description);
+        todo.setStatus("NOT_STARTED");
+        todo.setPriority("MEDIUM");
+        todo.setUserId(1L);
+        return todo;
+    }
+}
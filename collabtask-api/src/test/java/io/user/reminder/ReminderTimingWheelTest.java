@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.reminder;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ReminderTimingWheel 单元测试
+ *
+ * 时间轮精度 10ms、每层 10 格：第一层覆盖 100ms，第二层 1s，第三层 10s
+ *
+ * @author System
+ */
+@DisplayName("提醒时间轮单元测试")
+public class ReminderTimingWheelTest {
+
+    private static final long TICK = 10;
+    private static final int WHEEL_SIZE = 10;
+
+    @Test
+    @DisplayName("加入后在所在格子的开始时间到期，之前不返回")
+    void testAddAndPoll() {
+        ReminderTimingWheel<TestTask> wheel = new ReminderTimingWheel<>(TICK, WHEEL_SIZE, 0);
+        TestTask task = new TestTask(25);
+
+        assertTrue(wheel.add(task));
+        assertEquals(1, wheel.size());
+        assertTrue(wheel.poll(19).isEmpty());
+        assertEquals(List.of(task), wheel.poll(20));
+        assertEquals(0, wheel.size());
+        assertTrue(wheel.poll(100).isEmpty());
+    }
+
+    @Test
+    @DisplayName("已到期（不足一格）的任务加入失败，由调用方立即处理")
+    void testAdd_PastDue() {
+        ReminderTimingWheel<TestTask> wheel = new ReminderTimingWheel<>(TICK, WHEEL_SIZE, 0);
+
+        assertFalse(wheel.add(new TestTask(5)));
+        assertFalse(wheel.add(new TestTask(-100)));
+        assertEquals(0, wheel.size());
+
+        // 时钟推进后，当前格子内的时间同样视为已到期
+        wheel.add(new TestTask(500));
+        wheel.poll(500);
+        assertFalse(wheel.add(new TestTask(505)));
+        assertTrue(wheel.add(new TestTask(510)));
+    }
+
+    @Test
+    @DisplayName("超出第一层范围的任务进入上层，逐层降级后按第一层精度到期")
+    void testOverflowCascade() {
+        ReminderTimingWheel<TestTask> wheel = new ReminderTimingWheel<>(TICK, WHEEL_SIZE, 0);
+        TestTask far = new TestTask(1234);
+
+        assertTrue(wheel.add(far));
+        // 上层格子到期时任务降到下层，不提前返回
+        assertTrue(wheel.poll(999).isEmpty());
+        assertTrue(wheel.poll(1200).isEmpty());
+        assertTrue(wheel.poll(1229).isEmpty());
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(far), wheel.poll(1230));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("取消的任务到期时丢弃，不返回")
+    void testCancel() {
+        ReminderTimingWheel<TestTask> wheel = new ReminderTimingWheel<>(TICK, WHEEL_SIZE, 0);
+        TestTask cancelled = new TestTask(55);
+        TestTask kept = new TestTask(57);
+        wheel.add(cancelled);
+        wheel.add(kept);
+
+        cancelled.cancelled = true;
+
+        assertEquals(List.of(kept), wheel.poll(100));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("大量随机任务：每个都到期一次，且不早于所在格子、不晚于下一次 poll")
+    void testRandomTasks() {
+        ReminderTimingWheel<TestTask> wheel = new ReminderTimingWheel<>(TICK, WHEEL_SIZE, 0);
+        Random random = new Random(42);
+        List<TestTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            TestTask task = new TestTask(TICK + random.nextInt(50000));
+            tasks.add(task);
+            assertTrue(wheel.add(task));
+        }
+
+        long step = 7;
+        Map<TestTask, Long> firedAt = new IdentityHashMap<>();
+        for (long now = 0; now <= 51000; now += step) {
+            for (TestTask task : wheel.poll(now)) {
+                assertNull(firedAt.put(task, now), "重复到期");
+            }
+        }
+
+        assertEquals(tasks.size(), firedAt.size());
+        assertEquals(0, wheel.size());
+        for (TestTask task : tasks) {
+            long now = firedAt.get(task);
+            assertTrue(now >= task.fireTime - task.fireTime % TICK, "提前到期：" + task.fireTime);
+            assertTrue(now < task.fireTime + step, "延迟到期：" + task.fireTime);
+        }
+    }
+
+    private static final class TestTask implements ReminderTimingWheel.Task {
+
+        final long fireTime;
+        boolean cancelled;
+
+        TestTask(long fireTime) {
+            this.fireTime = fireTime;
+        }
+
+        @Override
+        public long getFireTime() {
+            return fireTime;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
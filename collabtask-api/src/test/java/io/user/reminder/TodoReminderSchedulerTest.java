@@ -0,0 +1,279 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.reminder;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.user.common.redis.RedisKeys;
+import io.user.dao.TodoDao;
+import io.user.dto.TodoReminder;
+import io.user.entity.TodoEntity;
+import io.user.enums.TodoReminderType;
+import io.user.enums.TodoStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * TodoReminderScheduler 单元测试
+ *
+ * 窗口和时间轮精度都设为 1 小时，提醒线程在测试期间不会自行运行，由测试直接调用 tick()；
+ * 测试数据放在上一个窗口（已过去），加载后进入 overdue，下一次 tick 投递
+ *
+ * @author System
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TODO到期提醒调度单元测试")
+public class TodoReminderSchedulerTest {
+
+    private static final long WINDOW = TimeUnit.HOURS.toMillis(1);
+
+    @Mock
+    private TodoDao todoDao;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private ReminderNotifier reminderNotifier;
+
+    @InjectMocks
+    private TodoReminderScheduler scheduler;
+
+    /** selectDueBatch 的数据源 */
+    private final List<TodoEntity> fixture = new ArrayList<>();
+    /** setIfAbsent 认领过的窗口 key（按调用顺序） */
+    private final List<String> claimedKeys = new ArrayList<>();
+
+    private long previousWindowStart;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(scheduler, "enabled", true);
+        ReflectionTestUtils.setField(scheduler, "windowMillis", WINDOW);
+        ReflectionTestUtils.setField(scheduler, "tickMillis", WINDOW);
+        ReflectionTestUtils.setField(scheduler, "wheelSize", 60);
+        ReflectionTestUtils.setField(scheduler, "lookaheadWindows", 0);
+        ReflectionTestUtils.setField(scheduler, "catchUpWindows", 1);
+        ReflectionTestUtils.setField(scheduler, "claimsPerRound", 1);
+        ReflectionTestUtils.setField(scheduler, "loadBatchSize", 500);
+        ReflectionTestUtils.setField(scheduler, "maxPerWindow", 50000);
+        ReflectionTestUtils.setField(scheduler, "deliveryBatchSize", 200);
+        ReflectionTestUtils.setField(scheduler, "leaseGraceSeconds", 120L);
+        ReflectionTestUtils.setField(scheduler, "sentTtlSeconds", 172800L);
+        scheduler.start();
+
+        previousWindowStart = (System.currentTimeMillis() / WINDOW - 1) * WINDOW;
+
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(todoDao.selectDueBatch(any(), any(), any(), any(), anyInt())).thenAnswer(invocation -> selectDueBatch(
+            invocation.getArgument(0), invocation.getArgument(1),
+            invocation.getArgument(2), invocation.getArgument(3), invocation.getArgument(4)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    @DisplayName("认领窗口：租约被其他节点持有的窗口跳过，只加载认领成功的窗口")
+    void testClaimWindows_SkipsHeldWindow() {
+        // Given：上一个、当前、下一个窗口，第一个已被其他节点持有
+        ReflectionTestUtils.setField(scheduler, "lookaheadWindows", 1);
+        ReflectionTestUtils.setField(scheduler, "claimsPerRound", 3);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), anyLong(), any(TimeUnit.class))).thenAnswer(invocation -> {
+            claimedKeys.add(invocation.getArgument(0));
+            return claimedKeys.size() > 1;
+        });
+
+        // When
+        scheduler.claimWindows();
+
+        // Then
+        assertEquals(3, claimedKeys.size());
+        ArgumentCaptor<Date> starts = ArgumentCaptor.forClass(Date.class);
+        verify(todoDao, atLeastOnce()).selectDueBatch(starts.capture(), any(), any(), any(), anyInt());
+        // DUE_TODAY 的加载区间从窗口开始时间起算
+        List<String> loadedKeys = starts.getAllValues().stream()
+            .map(start -> RedisKeys.getTodoReminderWindowKey(start.getTime() / WINDOW))
+            .collect(Collectors.toList());
+        assertFalse(loadedKeys.contains(claimedKeys.get(0)));
+        assertTrue(loadedKeys.containsAll(claimedKeys.subList(1, 3)));
+
+        Map<String, Object> stats = scheduler.getStats();
+        assertEquals(2L, stats.get("claimed"));
+        assertEquals(2, stats.get("claimedWindows"));
+    }
+
+    @Test
+    @DisplayName("投递：去重标记已存在的提醒不再投递")
+    void testDeliver_DedupeBySentKey() {
+        // Given
+        TodoEntity first = addTodo(1L, 10);
+        addTodo(2L, 20);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(todoDao.selectList(any(QueryWrapper.class))).thenReturn(new ArrayList<>(fixture));
+        when(stringRedisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.<Object>of(true, false));
+
+        // When
+        scheduler.claimWindows();
+        scheduler.tick();
+
+        // Then
+        List<TodoReminder> reminders = captureDelivered();
+        assertEquals(1, reminders.size());
+        assertEquals(first.getId(), reminders.get(0).getTodoId());
+        assertEquals(TodoReminderType.DUE_TODAY.getCode(), reminders.get(0).getType());
+        assertEquals(first.getDueDate(), reminders.get(0).getRemindAt());
+
+        Map<String, Object> stats = scheduler.getStats();
+        assertEquals(1L, stats.get("delivered"));
+        assertEquals(1L, stats.get("duplicates"));
+    }
+
+    @Test
+    @DisplayName("投递：已完成或截止日期已修改的TODO在投递前丢弃")
+    void testDeliver_RevalidatesBeforeDelivery() {
+        // Given：加载后一个被完成、一个截止日期被修改
+        TodoEntity completed = addTodo(1L, 10);
+        TodoEntity moved = addTodo(2L, 20);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        scheduler.claimWindows();
+
+        TodoEntity completedNow = copy(completed);
+        completedNow.setStatus(TodoStatus.COMPLETED.getCode());
+        TodoEntity movedNow = copy(moved);
+        movedNow.setDueDate(new Date(moved.getDueDate().getTime() + WINDOW));
+        when(todoDao.selectList(any(QueryWrapper.class))).thenReturn(List.of(completedNow, movedNow));
+
+        // When
+        scheduler.tick();
+
+        // Then
+        verify(stringRedisTemplate, never()).executePipelined(any(RedisCallback.class));
+        verify(reminderNotifier, never()).deliver(any());
+        assertEquals(2L, scheduler.getStats().get("stale"));
+    }
+
+    @Test
+    @DisplayName("超过单轮加载上限：剩余提醒在下一轮继续加载，全部投递后窗口才标记完成")
+    void testClaimWindows_DefersOverCapLoad() throws InterruptedException {
+        // Given：每种类型每轮最多 2 条，窗口内有 3 条
+        ReflectionTestUtils.setField(scheduler, "maxPerWindow", 2 * TodoReminderType.values().length);
+        addTodo(1L, 10);
+        addTodo(2L, 20);
+        addTodo(3L, 30);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), anyLong(), any(TimeUnit.class))).thenAnswer(invocation -> {
+            claimedKeys.add(invocation.getArgument(0));
+            return true;
+        });
+
+        // When：第一轮只加载 2 条
+        scheduler.claimWindows();
+
+        // Then
+        Map<String, Object> stats = scheduler.getStats();
+        assertEquals(2L, stats.get("loaded"));
+        assertEquals(1, stats.get("pendingLoads"));
+        assertEquals(1L, stats.get("deferredWindows"));
+        String previousKey = claimedKeys.get(0);
+        assertEquals(RedisKeys.getTodoReminderWindowKey(previousWindowStart / WINDOW), previousKey);
+
+        // When：第二轮加载剩余的 1 条
+        scheduler.claimWindows();
+
+        // Then：加载完成，但提醒线程还没有处理，不能标记完成
+        stats = scheduler.getStats();
+        assertEquals(3L, stats.get("loaded"));
+        assertEquals(0, stats.get("pendingLoads"));
+        assertEquals(1L, stats.get("deferredWindows"));
+        verify(valueOperations, never()).set(eq(previousKey), eq("DONE"), anyLong(), any(TimeUnit.class));
+
+        // When：提醒线程投递后再一轮
+        when(todoDao.selectList(any(QueryWrapper.class))).thenReturn(new ArrayList<>(fixture));
+        when(stringRedisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.<Object>of(true, true, true));
+        Thread.sleep(2);
+        scheduler.tick();
+        when(valueOperations.get(previousKey)).thenReturn((String) ReflectionTestUtils.getField(scheduler, "nodeId"));
+        scheduler.claimWindows();
+
+        // Then
+        assertEquals(List.of(1L, 2L, 3L), captureDelivered().stream().map(TodoReminder::getTodoId).collect(Collectors.toList()));
+        verify(valueOperations).set(previousKey, "DONE", 172800L, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 上一个窗口内的 TODO（DUE_TODAY 提醒落在该窗口）
+     */
+    private TodoEntity addTodo(Long id, int minute) {
+        TodoEntity todo = new TodoEntity();
+        todo.setId(id);
+        todo.setName("TODO " + id);
+        todo.setUserId(100L);
+        todo.setStatus(TodoStatus.NOT_STARTED.getCode());
+        todo.setDueDate(new Date(previousWindowStart + TimeUnit.MINUTES.toMillis(minute)));
+        fixture.add(todo);
+        return todo;
+    }
+
+    private TodoEntity copy(TodoEntity todo) {
+        TodoEntity copy = new TodoEntity();
+        copy.setId(todo.getId());
+        copy.setName(todo.getName());
+        copy.setUserId(todo.getUserId());
+        copy.setStatus(todo.getStatus());
+        copy.setDueDate(todo.getDueDate());
+        return copy;
+    }
+
+    /**
+     * 模拟 TodoDao.selectDueBatch：[start, end) 内、(due_date, id) 大于游标的前 limit 行
+     */
+    private List<TodoEntity> selectDueBatch(Date start, Date end, Date afterDueDate, Long afterId, int limit) {
+        return fixture.stream()
+            .filter(todo -> !todo.getDueDate().before(start) && todo.getDueDate().before(end))
+            .filter(todo -> afterDueDate == null || todo.getDueDate().after(afterDueDate)
+                || (todo.getDueDate().equals(afterDueDate) && todo.getId() > afterId))
+            .sorted(Comparator.comparing(TodoEntity::getDueDate).thenComparing(TodoEntity::getId))
+            .limit(limit)
+            .collect(Collectors.toList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<TodoReminder> captureDelivered() {
+        ArgumentCaptor<List<TodoReminder>> captor = ArgumentCaptor.forClass(List.class);
+        verify(reminderNotifier, atLeastOnce()).deliver(captor.capture());
+        return captor.getAllValues().stream().flatMap(List::stream).collect(Collectors.toList());
+    }
+}
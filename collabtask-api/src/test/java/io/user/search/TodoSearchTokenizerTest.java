@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ *
+ * https://www.collabtask.io
+ *
+ * 版权所有，侵权必究！
+ */
+
+package io.user.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TodoSearchTokenizer 单元测试
+ *
+ * @author System
+ */
+@DisplayName("TODO搜索切词单元测试")
+public class TodoSearchTokenizerTest {
+
+    @Test
+    @DisplayName("中文按2-gram、字母数字按3-gram切分")
+    void testDocumentTerms_Grams() {
+        assertEquals(List.of("项目", "目计", "计划"), new ArrayList<>(TodoSearchTokenizer.documentTerms("项目计划")));
+        assertEquals(List.of("rep", "epo", "por", "ort"), new ArrayList<>(TodoSearchTokenizer.documentTerms("Report")));
+    }
+
+    @Test
+    @DisplayName("边界：恰好 gram 长度的片段只有一个词项，短于 gram 的片段不入索引")
+    void testDocumentTerms_Edges() {
+        assertEquals(Set.of("abc"), TodoSearchTokenizer.documentTerms("abc"));
+        assertEquals(Set.of("项目"), TodoSearchTokenizer.documentTerms("项目"));
+        assertTrue(TodoSearchTokenizer.documentTerms("ab").isEmpty());
+        assertTrue(TodoSearchTokenizer.documentTerms("项").isEmpty());
+        assertTrue(TodoSearchTokenizer.documentTerms("", null).isEmpty());
+
+        // 中文与字母数字之间、标点处断开，不跨片段组 gram
+        assertEquals(Set.of("项目"), TodoSearchTokenizer.documentTerms("AI项目"));
+        assertEquals(Set.of("foo", "bar"), TodoSearchTokenizer.documentTerms("foo-bar"));
+    }
+
+    @Test
+    @DisplayName("短查询：任一片段短于 gram 时返回 null（退回 LIKE）")
+    void testQueryTerms_ShortQueries() {
+        assertNull(TodoSearchTokenizer.queryTerms(null));
+        assertNull(TodoSearchTokenizer.queryTerms(""));
+        assertNull(TodoSearchTokenizer.queryTerms("  ,. "));
+        assertNull(TodoSearchTokenizer.queryTerms("ab"));
+        assertNull(TodoSearchTokenizer.queryTerms("项"));
+        assertNull(TodoSearchTokenizer.queryTerms("项目 ab"));
+
+        assertEquals(List.of("rep"), TodoSearchTokenizer.queryTerms("rep"));
+        assertEquals(List.of("项目", "rep", "epo"), TodoSearchTokenizer.queryTerms("项目 repo"));
+    }
+
+    @Test
+    @DisplayName("归一化：全角、重音、大小写（含 ß = ss）折叠后词项相同")
+    void testNormalize() {
+        assertEquals(TodoSearchTokenizer.documentTerms("report"), TodoSearchTokenizer.documentTerms("ＲＥＰＯＲＴ"));
+        assertEquals(TodoSearchTokenizer.documentTerms("cafe"), TodoSearchTokenizer.documentTerms("Café"));
+        assertEquals(TodoSearchTokenizer.documentTerms("strasse"), TodoSearchTokenizer.documentTerms("Straße"));
+        assertEquals(TodoSearchTokenizer.queryTerms("STRASSE"), TodoSearchTokenizer.queryTerms("straße"));
+    }
+
+    @Test
+    @DisplayName("文档任意子串的查询词项都包含在文档词项中（候选集不漏）")
+    void testQueryTermsAreSubsetOfDocumentTerms() {
+        String text = "周报 Weekly-Report 2024 项目计划";
+        Set<String> documentTerms = TodoSearchTokenizer.documentTerms(text);
+        for (int from = 0; from < text.length(); from++) {
+            for (int to = from + 1; to <= text.length(); to++) {
+                List<String> queryTerms = TodoSearchTokenizer.queryTerms(text.substring(from, to));
+                if (queryTerms != null) {
+                    assertTrue(documentTerms.containsAll(queryTerms), text.substring(from, to));
+                }
+            }
+        }
+    }
+}
@@ -9,6 +9,7 @@
 package io.user.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.user.cache.TodoListVersion;
 import io.user.common.exception.RenException;
 import io.user.dao.TagDao;
 import io.user.dao.TodoDao;
@@ -20,6 +21,7 @@ import io.user.entity.TagEntity;
 import io.user.entity.TodoEntity;
 import io.user.entity.TodoTagEntity;
 import io.user.service.impl.TagServiceImpl;
+import io.user.sync.TodoChangeFeed;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -31,6 +33,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -54,6 +57,12 @@ public class TagServiceTest {
     @Mock
     private TodoDao todoDao;
 
+    @Mock
+    private TodoListVersion todoListVersion;
+
+    @Mock
+    private TodoChangeFeed todoChangeFeed;
+
     @InjectMocks
     private TagServiceImpl tagService;
 
@@ -194,6 +203,10 @@ public class TagServiceTest {
         when(tagDao.selectCount(any(QueryWrapper.class))).thenReturn(0L);
         when(tagDao.updateById(any(TagEntity.class))).thenReturn(1);
         when(todoTagDao.selectCount(any(QueryWrapper.class))).thenReturn(2L);
+        TodoTagEntity tagged = new TodoTagEntity();
+        tagged.setTodoId(10L);
+        when(todoTagDao.selectList(any(QueryWrapper.class))).thenReturn(List.of(tagged));
+        when(todoChangeFeed.audience(List.of(10L))).thenReturn(Set.of(2L));
 
         // When
         TagVO result = tagService.updateTag(tagId, updateDTO, userId);
@@ -204,6 +217,8 @@ public class TagServiceTest {
         assertEquals("#0000FF", result.getColor());
         
         verify(tagDao, times(1)).updateById(any(TagEntity.class));
+        // 所有者和被授权查看该 TODO 的用户的列表缓存都失效
+        verify(todoListVersion, times(1)).bump(Set.of(userId, 2L));
     }
 
     @Test
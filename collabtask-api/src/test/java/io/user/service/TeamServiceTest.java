@@ -9,6 +9,9 @@
 package io.user.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.user.acl.AclDecisionCache;
+import io.user.acl.AclShareMarker;
+import io.user.cache.TodoListVersion;
 import io.user.common.exception.RenException;
 import io.user.dao.TeamDao;
 import io.user.dao.TeamMemberDao;
@@ -20,6 +23,7 @@ import io.user.entity.TeamEntity;
 import io.user.entity.TeamMemberEntity;
 import io.user.entity.UserEntity;
 import io.user.service.impl.TeamServiceImpl;
+import io.user.sync.TodoChangeFeed;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -54,6 +58,21 @@ public class TeamServiceTest {
     @Mock
     private UserDao userDao;
 
+    @Mock
+    private AclPermissionService aclPermissionService;
+
+    @Mock
+    private AclDecisionCache aclDecisionCache;
+
+    @Mock
+    private AclShareMarker aclShareMarker;
+
+    @Mock
+    private TodoListVersion todoListVersion;
+
+    @Mock
+    private TodoChangeFeed todoChangeFeed;
+
     @InjectMocks
     private TeamServiceImpl teamService;
 
@@ -243,6 +262,7 @@ public class TeamServiceTest {
 
         // Then
         verify(teamMemberDao, times(1)).insert(any(TeamMemberEntity.class));
+        verify(aclDecisionCache, times(1)).invalidateUser(memberId);
     }
 
     @Test
@@ -9,20 +9,39 @@
 package io.user.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import io.user.acl.AclShareMarker;
+import io.user.assembler.TodoVOAssembler;
+import io.user.cache.TodoCountCache;
+import io.user.cache.TodoFirstPageCache;
+import io.user.cache.TodoListVersion;
+import io.user.cache.TodoTagIndex;
 import io.user.common.exception.RenException;
 import io.user.common.page.PageData;
+import io.user.dao.TagDao;
 import io.user.dao.TodoDao;
-import io.user.dao.UserDao;
+import io.user.dto.TodoBatchIdsDTO;
+import io.user.dto.TodoBatchResultVO;
+import io.user.dto.TodoBatchShareDTO;
+import io.user.dto.TodoChangesVO;
 import io.user.dto.TodoCreateDTO;
+import io.user.dto.TodoCursor;
+import io.user.dto.TodoQueryCondition;
 import io.user.dto.TodoQueryDTO;
 import io.user.dto.TodoUpdateDTO;
 import io.user.dto.TodoVO;
+import io.user.entity.TodoChangeEntity;
 import io.user.entity.TodoEntity;
-import io.user.entity.UserEntity;
 import io.user.enums.PermissionCode;
 import io.user.enums.ResourceType;
+import io.user.enums.TodoListPlan;
+import io.user.enums.TodoSortField;
+import io.user.export.TodoExporter;
+import io.user.reminder.TodoReminderScheduler;
+import io.user.search.TodoSearchIndex;
+import io.user.sync.TodoChangeFeed;
 import io.user.service.impl.TodoServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -33,8 +52,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -53,11 +75,41 @@ public class TodoServiceTest {
     private TodoDao todoDao;
 
     @Mock
-    private UserDao userDao;
+    private TodoVOAssembler todoVOAssembler;
 
     @Mock
     private AclPermissionService aclPermissionService;
 
+    @Mock
+    private AclShareMarker aclShareMarker;
+
+    @Mock
+    private TodoCountCache todoCountCache;
+
+    @Mock
+    private TodoListVersion todoListVersion;
+
+    @Mock
+    private TodoSearchIndex todoSearchIndex;
+
+    @Mock
+    private TodoTagIndex todoTagIndex;
+
+    @Mock
+    private TodoFirstPageCache todoFirstPageCache;
+
+    @Mock
+    private TodoExporter todoExporter;
+
+    @Mock
+    private TodoReminderScheduler todoReminderScheduler;
+
+    @Mock
+    private TodoChangeFeed todoChangeFeed;
+
+    @Mock
+    private TagDao tagDao;
+
     @InjectMocks
     private TodoServiceImpl todoService;
 
@@ -90,10 +142,6 @@ public class TodoServiceTest {
     void testCreateTodo_Success() {
         // Given
         when(todoDao.insert(any(TodoEntity.class))).thenReturn(1);
-        
-        UserEntity user = new UserEntity();
-        user.setUsername("testuser");
-        when(userDao.selectById(userId)).thenReturn(user);
 
         // When
         TodoVO result = todoService.createTodo(createDTO, userId);
@@ -107,6 +155,24 @@ public class TodoServiceTest {
         assertEquals(userId, result.getUserId());
         
         verify(todoDao, times(1)).insert(any(TodoEntity.class));
+        verify(todoVOAssembler).enrich(anyList());
+    }
+
+    @Test
+    @DisplayName("创建TODO - 同时写入优先级排序权重，未知优先级拒绝")
+    void testCreateTodo_PriorityRank() {
+        // Given
+        createDTO.setPriority("URGENT");
+
+        // When
+        todoService.createTodo(createDTO, userId);
+
+        // Then
+        verify(todoDao).insert(argThat((TodoEntity todo) ->
+            "URGENT".equals(todo.getPriority()) && Integer.valueOf(4).equals(todo.getPriorityRank())));
+
+        createDTO.setPriority("SOMEDAY");
+        assertThrows(RenException.class, () -> todoService.createTodo(createDTO, userId));
     }
 
     @Test
@@ -116,10 +182,6 @@ public class TodoServiceTest {
         Long todoId = 1L;
         when(todoDao.selectById(todoId)).thenReturn(todoEntity);
         
-        UserEntity user = new UserEntity();
-        user.setUsername("testuser");
-        when(userDao.selectById(userId)).thenReturn(user);
-        
         // v1.1: Mock ACL权限检查（用户是所有者，不需要检查hasPermission）
 
         // When
@@ -182,10 +244,6 @@ public class TodoServiceTest {
         
         when(todoDao.selectById(todoId)).thenReturn(todoEntity);
         when(todoDao.updateById(any(TodoEntity.class))).thenReturn(1);
-        
-        UserEntity user = new UserEntity();
-        user.setUsername("testuser");
-        when(userDao.selectById(userId)).thenReturn(user);
 
         // When
         TodoVO result = todoService.updateTodo(todoId, updateDTO, userId);
@@ -198,6 +256,28 @@ public class TodoServiceTest {
         verify(todoDao, times(1)).updateById(any(TodoEntity.class));
     }
 
+    @Test
+    @DisplayName("更新TODO - 修改截止日期后重新调度提醒")
+    void testUpdateTodo_DueDateReschedulesReminder() {
+        // Given
+        Long todoId = 1L;
+        TodoUpdateDTO updateDTO = new TodoUpdateDTO();
+        updateDTO.setDueDate(new Date(System.currentTimeMillis() + 3600_000L));
+        when(todoDao.selectById(todoId)).thenReturn(todoEntity);
+
+        // When
+        todoService.updateTodo(todoId, updateDTO, userId);
+
+        // Then：没有活动事务时立即执行
+        verify(todoReminderScheduler, times(1)).reschedule(todoEntity);
+
+        // 只改名称不重新调度
+        updateDTO.setDueDate(null);
+        updateDTO.setName("只改名称");
+        todoService.updateTodo(todoId, updateDTO, userId);
+        verify(todoReminderScheduler, times(1)).reschedule(any(TodoEntity.class));
+    }
+
     @Test
     @DisplayName("更新TODO - TODO不存在")
     void testUpdateTodo_NotFound() {
@@ -219,10 +299,6 @@ public class TodoServiceTest {
         Long todoId = 1L;
         when(todoDao.selectById(todoId)).thenReturn(todoEntity);
         when(todoDao.updateById(any(TodoEntity.class))).thenReturn(1);
-        
-        UserEntity user = new UserEntity();
-        user.setUsername("testuser");
-        when(userDao.selectById(userId)).thenReturn(user);
 
         // When
         TodoVO result = todoService.completeTodo(todoId, userId);
@@ -284,10 +360,6 @@ public class TodoServiceTest {
         
         when(todoDao.selectPage(any(IPage.class), any(LambdaQueryWrapper.class)))
             .thenReturn(page);
-        
-        UserEntity user = new UserEntity();
-        user.setUsername("testuser");
-        when(userDao.selectById(userId)).thenReturn(user);
 
         // When
         PageData<TodoVO> result = todoService.getTodoList(queryDTO, userId);
@@ -317,10 +389,6 @@ public class TodoServiceTest {
         
         when(todoDao.selectPage(any(IPage.class), any(LambdaQueryWrapper.class)))
             .thenReturn(page);
-        
-        UserEntity user = new UserEntity();
-        user.setUsername("testuser");
-        when(userDao.selectById(userId)).thenReturn(user);
 
         // When
         PageData<TodoVO> result = todoService.getTodoList(queryDTO, userId);
@@ -331,5 +399,301 @@ public class TodoServiceTest {
         assertTrue(result.getList().stream()
             .allMatch(todo -> "NOT_STARTED".equals(todo.getStatus())));
     }
-}
 
+    @Test
+    @DisplayName("批量共享TODO - 成功")
+    void testShareTodos_Success() {
+        // Given
+        TodoBatchShareDTO shareDTO = new TodoBatchShareDTO();
+        shareDTO.setTodoIds(Arrays.asList(1L, 2L, 2L));
+        shareDTO.setTargetUserIds(Arrays.asList(3L, 4L));
+        shareDTO.setPermission("VIEW");
+        when(todoDao.selectCount(any(QueryWrapper.class))).thenReturn(2L);
+        when(aclPermissionService.batchGrantPermissions(anyCollection(), anyString(), anyCollection(), anyString(), anyLong()))
+            .thenReturn(4);
+
+        // When
+        int count = todoService.shareTodos(shareDTO, userId);
+
+        // Then
+        assertEquals(4, count);
+        verify(aclPermissionService, times(1)).batchGrantPermissions(
+            eq(shareDTO.getTargetUserIds()), eq(ResourceType.TODO.getCode()), eq(shareDTO.getTodoIds()),
+            eq(PermissionCode.VIEW.getCode()), eq(userId));
+    }
+
+    @Test
+    @DisplayName("批量共享TODO - 包含他人的TODO")
+    void testShareTodos_NotOwner() {
+        // Given
+        TodoBatchShareDTO shareDTO = new TodoBatchShareDTO();
+        shareDTO.setTodoIds(Arrays.asList(1L, 2L));
+        shareDTO.setTargetUserIds(Arrays.asList(3L));
+        shareDTO.setPermission("EDIT");
+        when(todoDao.selectCount(any(QueryWrapper.class))).thenReturn(1L);
+
+        // When & Then
+        assertThrows(RenException.class, () -> {
+            todoService.shareTodos(shareDTO, userId);
+        });
+
+        verify(aclPermissionService, never()).batchGrantPermissions(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("查询TODO列表 - 游标分页")
+    void testGetTodoList_Cursor() {
+        // Given
+        TodoQueryDTO queryDTO = new TodoQueryDTO();
+        queryDTO.setLimit(2);
+        queryDTO.setCursor("");
+
+        List<TodoEntity> todoList = new ArrayList<>();
+        for (long id = 3; id >= 1; id--) {
+            TodoEntity todo = new TodoEntity();
+            todo.setId(id);
+            todo.setUserId(userId);
+            todo.setCreateDate(new Date(id * 1000));
+            todoList.add(todo);
+        }
+        when(todoDao.selectMyTodosPage(any(TodoQueryCondition.class))).thenReturn(todoList);
+        when(todoDao.countMyTodos(any(TodoQueryCondition.class))).thenReturn(3L);
+
+        // When
+        PageData<TodoVO> first = todoService.getTodoList(queryDTO, userId);
+
+        // Then：多取的一行不返回，生成下一页游标
+        assertEquals(2, first.getList().size());
+        assertNotNull(first.getNextCursor());
+
+        // 下一页带上游标，从第二行之后 seek
+        queryDTO.setCursor(first.getNextCursor());
+        todoService.getTodoList(queryDTO, userId);
+        verify(todoDao).selectMyTodosPage(argThat(condition ->
+            Long.valueOf(2L).equals(condition.getCursorId())
+                && new Date(2000).equals(condition.getCursorValue())
+                && condition.getLimit() == 3
+                && condition.getPlan() == TodoListPlan.OWNED_ONLY));
+    }
+
+    @Test
+    @DisplayName("查询TODO列表 - 游标与排序不匹配")
+    void testGetTodoList_CursorSortMismatch() {
+        // Given
+        TodoEntity last = new TodoEntity();
+        last.setId(1L);
+        last.setCreateDate(new Date());
+        TodoQueryDTO queryDTO = new TodoQueryDTO();
+        queryDTO.setOrderBy("due_date");
+        queryDTO.setCursor(TodoCursor.encode(last, TodoSortField.CREATE_DATE, true));
+
+        // When & Then
+        assertThrows(RenException.class, () -> {
+            todoService.getTodoList(queryDTO, userId);
+        });
+    }
+
+    @Test
+    @DisplayName("查询TODO列表 - 不计数")
+    void testGetTodoList_CountModeNone() {
+        // Given
+        TodoQueryDTO queryDTO = new TodoQueryDTO();
+        queryDTO.setLimit(1);
+        queryDTO.setCountMode("NONE");
+
+        List<TodoEntity> todoList = new ArrayList<>();
+        todoList.add(todoEntity);
+        todoList.add(todoEntity);
+        when(todoDao.selectMyTodosPage(any(TodoQueryCondition.class))).thenReturn(todoList);
+
+        // When
+        PageData<TodoVO> result = todoService.getTodoList(queryDTO, userId);
+
+        // Then：多取一行得出 hasMore，不查总数
+        assertEquals(1, result.getList().size());
+        assertEquals(-1, result.getTotal());
+        assertTrue(result.getHasMore());
+        assertEquals("NONE", result.getCountMode());
+        verify(todoDao, never()).countMyTodos(any());
+    }
+
+    @Test
+    @DisplayName("获取TODO列表 - 关键词走搜索索引")
+    void testGetTodoList_KeywordSearchTerms() {
+        // Given
+        TodoQueryDTO queryDTO = new TodoQueryDTO();
+        queryDTO.setKeyword("项目计划");
+        when(todoSearchIndex.queryTerms("项目计划")).thenReturn(Arrays.asList("项目", "目计", "计划"));
+        when(todoDao.selectMyTodosPage(any(TodoQueryCondition.class))).thenReturn(new ArrayList<>());
+
+        // When
+        todoService.getTodoList(queryDTO, userId);
+
+        // Then：词项求候选，关键词仍保留用于 LIKE 校验
+        verify(todoDao).selectMyTodosPage(argThat(condition ->
+            condition.getSearchTermCount() == 3 && "项目计划".equals(condition.getKeyword())));
+    }
+
+    @Test
+    @DisplayName("获取TODO列表 - 整页一次批量补充关联信息")
+    void testGetTodoList_EnrichOncePerPage() {
+        // Given
+        TodoEntity other = new TodoEntity();
+        other.setId(2L);
+        other.setName("另一个TODO");
+        other.setUserId(userId);
+        when(todoDao.selectMyTodosPage(any(TodoQueryCondition.class))).thenReturn(Arrays.asList(todoEntity, other));
+
+        // When
+        todoService.getTodoList(new TodoQueryDTO(), userId);
+
+        // Then
+        verify(todoVOAssembler, times(1)).enrich(argThat(list -> list.size() == 2));
+    }
+
+    @Test
+    @DisplayName("获取TODO列表 - 多标签筛选")
+    void testGetTodoList_FilterByTags() {
+        // Given：tagId 与 tagIds 合并去重，内存索引不可用时走 EXISTS
+        TodoQueryDTO queryDTO = new TodoQueryDTO();
+        queryDTO.setTagId(7L);
+        queryDTO.setTagIds(Arrays.asList(9L, 7L));
+        queryDTO.setTagMatch("ALL");
+        when(tagDao.selectCount(any(QueryWrapper.class))).thenReturn(2L);
+        when(todoTagIndex.candidates(userId, Arrays.asList(7L, 9L), true)).thenReturn(null);
+        when(todoDao.selectMyTodosPage(any(TodoQueryCondition.class))).thenReturn(new ArrayList<>());
+
+        // When
+        todoService.getTodoList(queryDTO, userId);
+
+        // Then
+        verify(todoDao).selectMyTodosPage(argThat(condition ->
+            Arrays.asList(7L, 9L).equals(condition.getTagIds())
+                && condition.isTagMatchAll()
+                && condition.getTagTodoIds() == null));
+    }
+
+    @Test
+    @DisplayName("获取TODO列表 - 不能按他人的标签筛选")
+    void testGetTodoList_FilterByForeignTag() {
+        // Given：两个标签中只有一个属于当前用户
+        TodoQueryDTO queryDTO = new TodoQueryDTO();
+        queryDTO.setTagIds(Arrays.asList(7L, 8L));
+        when(tagDao.selectCount(any(QueryWrapper.class))).thenReturn(1L);
+
+        // When & Then
+        RenException exception = assertThrows(RenException.class, () -> todoService.getTodoList(queryDTO, userId));
+        assertEquals("标签不存在", exception.getMsg());
+        verify(todoTagIndex, never()).candidates(any(), any(), anyBoolean());
+        verify(todoDao, never()).selectMyTodosPage(any(TodoQueryCondition.class));
+    }
+
+    @Test
+    @DisplayName("获取TODO列表 - include=tags 只为本人创建的TODO补充标签")
+    void testGetTodoList_IncludeTags() {
+        // Given
+        TodoEntity shared = new TodoEntity();
+        shared.setId(2L);
+        shared.setName("共享TODO");
+        shared.setUserId(99L);
+        when(todoDao.selectMyTodosPage(any(TodoQueryCondition.class))).thenReturn(Arrays.asList(todoEntity, shared));
+
+        TodoQueryDTO queryDTO = new TodoQueryDTO();
+        queryDTO.setInclude("tags");
+
+        // When
+        todoService.getTodoList(queryDTO, userId);
+
+        // Then：整页一次批量查询
+        verify(todoVOAssembler, times(1)).fillTags(argThat(list ->
+            list.size() == 1 && list.get(0).getId().equals(1L)));
+    }
+
+    @Test
+    @DisplayName("获取TODO列表 - 第一页缓存命中不查库")
+    void testGetTodoList_FirstPageCacheHit() {
+        // Given
+        TodoQueryDTO queryDTO = new TodoQueryDTO();
+        PageData<TodoVO> cached = new PageData<>(new ArrayList<>(), 0);
+        when(todoFirstPageCache.isCacheable(queryDTO)).thenReturn(true);
+        when(todoFirstPageCache.get(eq(queryDTO), eq(userId), any())).thenReturn(cached);
+
+        // When
+        PageData<TodoVO> result = todoService.getTodoList(queryDTO, userId);
+
+        // Then
+        assertSame(cached, result);
+        verify(todoDao, never()).selectMyTodosPage(any());
+        verify(todoDao, never()).countMyTodos(any());
+    }
+
+    @Test
+    @DisplayName("批量完成TODO - 一条UPDATE，逐项返回结果")
+    void testBatchCompleteTodos_PerItemResults() {
+        // Given：1 自己的，2 共享但没有EDIT权限，3 不存在，最后一项重复
+        TodoEntity shared = new TodoEntity();
+        shared.setId(2L);
+        shared.setStatus("NOT_STARTED");
+        shared.setUserId(99L);
+        when(todoDao.selectBatchIds(anyCollection())).thenReturn(Arrays.asList(todoEntity, shared));
+        when(aclPermissionService.evaluate(eq(userId), eq(ResourceType.TODO), anyCollection(), anySet()))
+            .thenReturn(Map.of(2L, PermissionCode.maskOf(EnumSet.of(PermissionCode.VIEW))));
+
+        TodoBatchIdsDTO dto = new TodoBatchIdsDTO();
+        dto.setTodoIds(Arrays.asList(1L, 2L, 3L, 1L));
+
+        // When
+        List<TodoBatchResultVO> results = todoService.batchCompleteTodos(dto, userId);
+
+        // Then
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).getSuccess());
+        assertEquals("权限不足", results.get(1).getMessage());
+        assertEquals("记录不存在", results.get(2).getMessage());
+        assertEquals("TODO ID重复", results.get(3).getMessage());
+        assertEquals("COMPLETED", todoEntity.getStatus());
+        verify(todoDao, times(1)).completeByIds(eq(List.of(1L)), any(Date.class));
+        verify(todoDao, never()).updateById(any(TodoEntity.class));
+    }
+
+    @Test
+    @DisplayName("增量同步 - 仍可见的返回最新TODO，已删除/已不可见的返回墓碑")
+    void testGetTodoChanges_UpsertsAndTombstones() {
+        // Given：1 自己的（修改），2 已删除，3 共享后被撤销
+        TodoEntity revoked = new TodoEntity();
+        revoked.setId(3L);
+        revoked.setUserId(99L);
+        when(todoChangeFeed.isEnabled()).thenReturn(true);
+        when(todoChangeFeed.changesSince(userId, 5L, 101)).thenReturn(Arrays.asList(
+            change(1L, 6L, "UPSERT"), change(2L, 7L, "DELETE"), change(3L, 8L, "REVOKE")));
+        when(todoDao.selectBatchIds(anyCollection())).thenReturn(Arrays.asList(todoEntity, revoked));
+        when(aclPermissionService.evaluate(eq(userId), eq(ResourceType.TODO), anyCollection(), anySet()))
+            .thenReturn(Map.of());
+
+        // When
+        TodoChangesVO result = todoService.getTodoChanges(5L, 100, userId);
+
+        // Then
+        assertFalse(result.getReset());
+        assertFalse(result.getHasMore());
+        assertEquals(8L, result.getNextSince());
+        assertEquals(3, result.getChanges().size());
+        assertEquals("UPSERT", result.getChanges().get(0).getOp());
+        assertEquals("测试TODO", result.getChanges().get(0).getTodo().getName());
+        assertEquals("DELETE", result.getChanges().get(1).getOp());
+        assertNull(result.getChanges().get(1).getTodo());
+        assertEquals("REVOKE", result.getChanges().get(2).getOp());
+        assertNull(result.getChanges().get(2).getTodo());
+        // 墓碑不回表
+        verify(todoDao, times(1)).selectBatchIds(eq(List.of(1L, 3L)));
+    }
+
+    private TodoChangeEntity change(Long todoId, Long seq, String op) {
+        TodoChangeEntity change = new TodoChangeEntity();
+        change.setUserId(userId);
+        change.setTodoId(todoId);
+        change.setSeq(seq);
+        change.setOp(op);
+        return change;
+    }
+}
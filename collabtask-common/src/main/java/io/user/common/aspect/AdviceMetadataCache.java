@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2018 COLLAB-TASK All rights reserved.
+ * <p>
+ * https://www.collabtask.io
+ * <p>
+ * 版权所有，侵权必究！
+ */
+
+package io.user.common.aspect;
+
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.ParameterNameDiscoverer;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * 切面元数据缓存
+ *
+ * 注解值、参数下标、SpEL 表达式等只在方法第一次被拦截时解析，
+ * 之后每次调用只是一次 Map 查找，切面内按数组下标取参数。
+ *
+ * 键为 (方法, 目标类)，同一接口方法在不同实现类上的类级注解互不干扰。
+ *
+ * @param <T> 各切面自己的元数据类型（解析结果不能为 null）
+ * @author System
+ */
+public class AdviceMetadataCache<T> {
+    private static final ParameterNameDiscoverer PARAMETER_NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+
+    private final ConcurrentHashMap<MethodClassKey, T> cache = new ConcurrentHashMap<>(256);
+    private final BiFunction<Method, Class<?>, T> resolver;
+
+    /**
+     * @param resolver 元数据解析方法（方法, 目标类）
+     */
+    public AdviceMetadataCache(BiFunction<Method, Class<?>, T> resolver) {
+        this.resolver = resolver;
+    }
+
+    /**
+     * 获取方法的元数据，首次访问时解析
+     */
+    public T get(Method method, Class<?> targetClass) {
+        MethodClassKey key = new MethodClassKey(method, targetClass);
+        T metadata = cache.get(key);
+        if (metadata == null) {
+            metadata = cache.computeIfAbsent(key, k -> resolver.apply(method, targetClass));
+        }
+        return metadata;
+    }
+
+    /**
+     * 已缓存的方法数
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * 方法参数名（需要编译器保留参数名）
+     *
+     * @return 参数名数组，无法获取时返回空数组
+     */
+    public static String[] parameterNames(Method method) {
+        String[] names = PARAMETER_NAME_DISCOVERER.getParameterNames(method);
+        return names != null ? names : new String[0];
+    }
+
+    /**
+     * 按名称查找参数下标
+     *
+     * @return 参数下标，不存在返回 -1
+     */
+    public static int parameterIndex(Method method, String parameterName) {
+        String[] names = parameterNames(method);
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(parameterName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -8,6 +8,7 @@
 
 package io.user.common.page;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 
@@ -24,12 +25,24 @@ import java.util.List;
 public class PageData<T> implements Serializable {
     private static final long serialVersionUID = 1L;
 
-    @Schema(title = "总记录数")
+    @Schema(title = "总记录数（不计数时为 -1）")
     private int total;
 
     @Schema(title = "列表数据")
     private List<T> list;
 
+    @Schema(title = "下一页游标（游标分页时返回，没有下一页为空）")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
+    @Schema(title = "是否还有下一页")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean hasMore;
+
+    @Schema(title = "总数计算方式：EXACT/CACHED/ESTIMATED/NONE")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String countMode;
+
     /**
      * 分页
      * @param list   列表数据
@@ -61,4 +61,48 @@ public class RedisKeys {
     public static String getUserPermissionsKey(Long userId){
         return "sys:user:permissions:" + userId;
     }
+
+    /**
+     * 用户TODO列表版本号Key（列表内容变化时递增）
+     */
+    public static String getTodoListVersionKey(Long userId){
+        return "todo:list:version:" + userId;
+    }
+
+    /**
+     * TODO列表总数缓存Key（按列表版本号 + 筛选条件摘要）
+     */
+    public static String getTodoCountKey(Long userId, long version, String filterHash){
+        return "todo:list:count:" + userId + ":" + version + ":" + filterHash;
+    }
+
+    /**
+     * TODO列表第一页缓存Key（按列表版本号 + 查询条件摘要）
+     */
+    public static String getTodoFirstPageKey(Long userId, long version, String queryHash){
+        return "todo:list:page1:" + userId + ":" + version + ":" + queryHash;
+    }
+
+    /**
+     * TODO搜索倒排索引就绪标记（全量重建完成后写入）
+     *
+     * @param version 切词规则版本，规则变化后标记不存在，触发重建
+     */
+    public static String getTodoSearchReadyKey(int version){
+        return "todo:search:ready:v" + version;
+    }
+
+    /**
+     * TODO到期提醒窗口租约（值为持有节点ID，处理完后为 DONE）
+     */
+    public static String getTodoReminderWindowKey(long window){
+        return "todo:reminder:window:" + window;
+    }
+
+    /**
+     * TODO到期提醒去重标记
+     */
+    public static String getTodoReminderSentKey(Long todoId, String type, long dueMillis){
+        return "todo:reminder:sent:" + todoId + ":" + type + ":" + dueMillis;
+    }
 }
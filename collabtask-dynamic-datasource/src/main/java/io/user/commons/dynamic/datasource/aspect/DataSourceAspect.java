@@ -8,6 +8,7 @@
 
 package io.user.commons.dynamic.datasource.aspect;
 
+import io.user.common.aspect.AdviceMetadataCache;
 import io.user.commons.dynamic.datasource.annotation.DataSource;
 import io.user.commons.dynamic.datasource.config.DynamicContextHolder;
 import org.aspectj.lang.ProceedingJoinPoint;
@@ -17,6 +18,7 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
@@ -35,6 +37,11 @@ import java.lang.reflect.Method;
 public class DataSourceAspect {
     protected Logger logger = LoggerFactory.getLogger(getClass());
 
+    /**
+     * 方法 -> 数据源名称（方法注解优先于类注解），每个方法只解析一次
+     */
+    private final AdviceMetadataCache<DataSourceMetadata> metadataCache = new AdviceMetadataCache<>(DataSourceMetadata::resolve);
+
     @Pointcut("@annotation(io.user.commons.dynamic.datasource.annotation.DataSource) " +
             "|| @within(io.user.commons.dynamic.datasource.annotation.DataSource)")
     public void dataSourcePointCut() {
@@ -44,21 +51,11 @@ public class DataSourceAspect {
     @Around("dataSourcePointCut()")
     public Object around(ProceedingJoinPoint point) throws Throwable {
         MethodSignature signature = (MethodSignature) point.getSignature();
-        Class targetClass = point.getTarget().getClass();
-        Method method = signature.getMethod();
-
-        DataSource targetDataSource = (DataSource) targetClass.getAnnotation(DataSource.class);
-        DataSource methodDataSource = method.getAnnotation(DataSource.class);
-        if (targetDataSource != null || methodDataSource != null) {
-            String value;
-            if (methodDataSource != null) {
-                value = methodDataSource.value();
-            } else {
-                value = targetDataSource.value();
-            }
+        DataSourceMetadata metadata = metadataCache.get(signature.getMethod(), point.getTarget().getClass());
 
-            DynamicContextHolder.push(value);
-            logger.debug("set datasource is {}", value);
+        if (metadata.value != null) {
+            DynamicContextHolder.push(metadata.value);
+            logger.debug("set datasource is {}", metadata.value);
         }
 
         try {
@@ -68,4 +65,27 @@ public class DataSourceAspect {
             logger.debug("clean datasource");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 方法级元数据（首次拦截时解析）
+     */
+    private static final class DataSourceMetadata {
+        /**
+         * 数据源名称，没有注解时为 null
+         */
+        final String value;
+
+        DataSourceMetadata(String value) {
+            this.value = value;
+        }
+
+        static DataSourceMetadata resolve(Method method, Class<?> targetClass) {
+            DataSource methodDataSource = AopUtils.getMostSpecificMethod(method, targetClass).getAnnotation(DataSource.class);
+            if (methodDataSource != null) {
+                return new DataSourceMetadata(methodDataSource.value());
+            }
+            DataSource targetDataSource = targetClass.getAnnotation(DataSource.class);
+            return new DataSourceMetadata(targetDataSource != null ? targetDataSource.value() : null);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+-- ============================================================
+-- ACL 权限格：每个 (主体, 资源) 只保留一行授权
+--
+-- 权限按 tb_acl_permission_definitions.level 排序，高 level 蕴含低 level
+-- （EDIT 蕴含 VIEW），不再需要为同一资源写入多行精确匹配的授权。
+-- ============================================================
+
+-- 1. 去重：同一 (主体, 资源) 只保留一行，排序依次为
+--    a. 仍然有效（is_active = 1 且未过期）的优先，避免有效的 VIEW 被无效 / 过期的 EDIT 挤掉
+--    b. level 高的优先（权限定义缺失的排最后）
+--    c. id 大的优先
+--    窗口函数结果先物化为派生表，再按 id 删除排名之后的行（MySQL 8.0）
+DELETE acl
+FROM tb_acl_access_control acl
+JOIN (
+    SELECT ranked.id
+    FROM (
+        SELECT a.id,
+               ROW_NUMBER() OVER (
+                   PARTITION BY a.subject_type, a.subject_id, a.resource_type, a.resource_id
+                   ORDER BY (a.is_active = 1 AND (a.expires_at IS NULL OR a.expires_at > NOW())) DESC,
+                            COALESCE(pd.level, -1) DESC,
+                            a.id DESC
+               ) AS rn
+        FROM tb_acl_access_control a
+        LEFT JOIN tb_acl_permission_definitions pd ON pd.id = a.permission_id
+    ) ranked
+    WHERE ranked.rn > 1
+) losers ON losers.id = acl.id;
+
+-- 2. 唯一键：授权改为 INSERT ... ON DUPLICATE KEY UPDATE
+ALTER TABLE tb_acl_access_control
+    ADD UNIQUE KEY uk_acl_subject_resource (subject_type, subject_id, resource_type, resource_id);
@@ -0,0 +1,10 @@
+-- ============================================================
+-- ACL 团队主体授权
+--
+-- 共享给团队只写一行 (TEAM, team_id, 资源)，检查时通过
+-- subject_id IN (SELECT team_id FROM tb_team_members WHERE user_id = ?) 展开。
+-- ============================================================
+
+-- 按用户查所在团队（覆盖索引，不回表）
+ALTER TABLE tb_team_members
+    ADD INDEX idx_team_members_user_team (user_id, team_id);
@@ -0,0 +1,25 @@
+-- ============================================================
+-- ACL 全局角色权限
+--
+-- 角色对某类资源的全局权限（不针对具体资源ID），例如客服角色可查看全部 TODO。
+-- 应用启动时编译为内存矩阵（AclRoleMatrix），检查时不访问此表。
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS tb_acl_role_permissions (
+    id BIGINT NOT NULL AUTO_INCREMENT COMMENT 'ID',
+    role_code VARCHAR(50) NOT NULL COMMENT '角色代码（tb_acl_role_definitions.code）',
+    resource_type VARCHAR(20) NOT NULL COMMENT '资源类型：TODO, TEAM, TAG',
+    permission_code VARCHAR(20) NOT NULL COMMENT '权限代码：VIEW, EDIT, DELETE, SHARE, OWNER（按 level 蕴含低级权限）',
+    create_date DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_role_resource_permission (role_code, resource_type, permission_code)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='ACL角色权限';
+
+-- 示例：客服角色，可查看全部 TODO / 团队 / 标签
+INSERT IGNORE INTO tb_acl_role_definitions (code, name, description)
+VALUES ('SUPPORT', '客服', '可查看全部资源');
+
+INSERT IGNORE INTO tb_acl_role_permissions (role_code, resource_type, permission_code) VALUES
+    ('SUPPORT', 'TODO', 'VIEW'),
+    ('SUPPORT', 'TEAM', 'VIEW'),
+    ('SUPPORT', 'TAG', 'VIEW');
@@ -0,0 +1,19 @@
+-- ============================================================
+-- ACL 过期授权清理
+--
+-- AclExpirySweeper 按 (expires_at, id) 键集分页扫描
+-- is_active = 1 AND expires_at <= NOW() 的授权并置为无效；
+-- 热路径查询之后只依赖 is_active = 1，不再逐行判断 expires_at。
+-- InnoDB 二级索引隐含主键，(is_active, expires_at) 即覆盖 (is_active, expires_at, id)。
+-- ============================================================
+
+ALTER TABLE tb_acl_access_control
+    ADD INDEX idx_acl_active_expires (is_active, expires_at);
+
+-- 先清理一次历史过期数据
+UPDATE tb_acl_access_control
+SET is_active = 0,
+    revoked_at = NOW(),
+    revoke_reason = 'EXPIRED'
+WHERE is_active = 1
+  AND expires_at <= NOW();
@@ -0,0 +1,9 @@
+-- ============================================================
+-- TODO 列表：只查自己创建的
+--
+-- 没有共享给自己的用户（AclShareMarker 判定）不再联表 ACL，
+-- 直接按 tb_todos(user_id, create_date) 范围扫描并按默认排序取页。
+-- ============================================================
+
+ALTER TABLE tb_todos
+    ADD INDEX idx_todos_user_create (user_id, create_date);
@@ -0,0 +1,11 @@
+-- ============================================================
+-- TODO 列表游标分页
+--
+-- 游标条件按 (排序列, id) seek，每个可选排序字段一个 (user_id, 排序列) 索引
+-- （InnoDB 二级索引隐含主键 id）；create_date 见 005。
+-- ============================================================
+
+ALTER TABLE tb_todos
+    ADD INDEX idx_todos_user_due (user_id, due_date),
+    ADD INDEX idx_todos_user_priority (user_id, priority),
+    ADD INDEX idx_todos_user_status (user_id, status);
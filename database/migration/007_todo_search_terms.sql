@@ -0,0 +1,16 @@
+-- ============================================================
+-- TODO 关键词搜索倒排索引
+--
+-- name + description 按 n-gram 切词（中日韩文字 2-gram，字母数字 3-gram，见 TodoSearchTokenizer），
+-- 关键词查询先按词项求候选 TODO ID，再在候选上用 LIKE 校验并做归属/ACL 过滤。
+-- 索引由 TodoSearchIndex 在增删改时同步维护；迁移后为空，
+-- 首次重建完成前查询自动退回 LIKE 全扫描。
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS tb_todo_search_terms (
+    term VARCHAR(16) NOT NULL COMMENT '词项（小写 n-gram）',
+    todo_id BIGINT NOT NULL COMMENT 'TODO ID',
+    PRIMARY KEY (term, todo_id),
+    KEY idx_search_terms_todo (todo_id),
+    CONSTRAINT fk_search_terms_todo FOREIGN KEY (todo_id) REFERENCES tb_todos (id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_bin COMMENT='TODO搜索倒排索引';
@@ -0,0 +1,10 @@
+-- ============================================================
+-- TODO 列表按标签筛选
+--
+-- tagIds 筛选为 EXISTS 半连接：
+--   EXISTS (SELECT 1 FROM tb_todo_tags tt WHERE tt.tag_id = ? AND tt.todo_id = t.id)
+-- (tag_id, todo_id) 覆盖索引既能逐行点查，也能按标签整体物化候选 TODO，不回表。
+-- ============================================================
+
+ALTER TABLE tb_todo_tags
+    ADD INDEX idx_todo_tags_tag_todo (tag_id, todo_id);
@@ -0,0 +1,24 @@
+-- ============================================================
+-- TODO 列表按优先级排序
+--
+-- priority 是 VARCHAR 代码，ORDER BY t.priority 按字母序（HIGH, LOW, MEDIUM, URGENT）
+-- 排列，语义不对，而且总是 filesort。新增数值排序权重 priority_rank
+-- （LOW=1/MEDIUM=2/HIGH=3/URGENT=4，与 TodoPriority#rank 一致，应用写入 priority 时同步写入），
+-- (user_id, priority_rank, id) 索引让按优先级排序的分页和游标 seek 直接按索引顺序读取。
+--
+-- idx_todos_user_priority (user_id, priority) 保留，供 priority 等值筛选使用。
+-- ============================================================
+
+ALTER TABLE tb_todos
+    ADD COLUMN priority_rank TINYINT NOT NULL DEFAULT 2 COMMENT '优先级排序权重：LOW=1/MEDIUM=2/HIGH=3/URGENT=4' AFTER priority;
+
+UPDATE tb_todos
+SET priority_rank = CASE priority
+        WHEN 'LOW' THEN 1
+        WHEN 'HIGH' THEN 3
+        WHEN 'URGENT' THEN 4
+        ELSE 2
+    END;
+
+ALTER TABLE tb_todos
+    ADD INDEX idx_todos_user_priority_rank (user_id, priority_rank, id);
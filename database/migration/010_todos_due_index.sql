@@ -0,0 +1,11 @@
+-- ============================================================
+-- TODO 到期提醒
+--
+-- TodoReminderScheduler 按窗口加载即将到期的 TODO：
+--   WHERE due_date >= ? AND due_date < ? AND status != 'COMPLETED' ORDER BY due_date, id
+-- 跨用户的 due_date 范围扫描不能用 (user_id, due_date)，单独建 due_date 索引
+-- （InnoDB 二级索引隐含主键 id，键集分页直接按索引顺序读取）。
+-- ============================================================
+
+ALTER TABLE tb_todos
+    ADD INDEX idx_todos_due (due_date);
@@ -0,0 +1,31 @@
+-- ============================================================
+-- TODO 增量同步（变更流）
+--
+-- 每个用户一个单调递增序号（tb_todo_change_seq），TODO 的创建 / 修改 / 完成 / 删除、
+-- 共享授权 / 撤销、团队成员变化时，受影响的每个用户各分配新序号，
+-- 并在 tb_todo_changes 中记录 (用户, TODO) 的最新一次变化（同一 TODO 只保留一行，删除保留墓碑）。
+-- 客户端 GET /api/todos/changes?since=N 按 (user_id, seq) 范围扫描，只取 N 之后变化的行。
+--
+-- 序号行的行锁持有到事务提交，同一用户的变化按序号顺序提交，since 之后不会再出现更小的序号。
+-- 变更行不加外键：TODO 删除后墓碑仍需保留。
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS tb_todo_change_seq (
+    user_id BIGINT NOT NULL COMMENT '用户ID',
+    seq BIGINT NOT NULL COMMENT '当前最大序号',
+    PRIMARY KEY (user_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='TODO变更流用户序号';
+
+CREATE TABLE IF NOT EXISTS tb_todo_changes (
+    user_id BIGINT NOT NULL COMMENT '用户ID',
+    todo_id BIGINT NOT NULL COMMENT 'TODO ID',
+    seq BIGINT NOT NULL COMMENT '该用户的变更序号',
+    op VARCHAR(10) NOT NULL COMMENT '变化类型：UPSERT/DELETE/REVOKE',
+    change_date DATETIME NOT NULL COMMENT '变化时间',
+    PRIMARY KEY (user_id, todo_id),
+    UNIQUE KEY uk_todo_changes_user_seq (user_id, seq)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='TODO变更流（每个用户每个TODO保留最新一次变化）';
+
+-- 按资源查被授权主体（变更流计算受影响用户）
+ALTER TABLE tb_acl_access_control
+    ADD INDEX idx_acl_resource (resource_type, resource_id);